@@ -11,11 +11,67 @@ public final class Config {
      */
     public static final String HTTP_PORT = "http.port";
 
+    /**
+     * The number of HTTP server instances that share the port; the default is one per core.
+     */
+    public static final String HTTP_INSTANCES = "http.instances";
+
+    /**
+     * The number of lanes that namespace work is partitioned across; the default is one per core.
+     */
+    public static final String MINTING_LANES = "minting.lanes";
+
+    /**
+     * The largest number of requests a minting lane's queue can hold before new requests are turned away.
+     */
+    public static final String MINTING_QUEUE_LIMIT = "minting.queue.limit";
+
+    /**
+     * The number of long-running jobs (e.g., materializing a namespace) that run at once, off the minting lanes.
+     */
+    public static final String BACKGROUND_JOBS = "background.jobs";
+
+    /**
+     * The largest number of long-running jobs that can wait to run before new ones are turned away.
+     */
+    public static final String BACKGROUND_QUEUE_LIMIT = "background.queue.limit";
+
+    /**
+     * The threading model of the verticles that block on I/O, like the minting lanes: <code>worker</code> (the
+     * default) or, on Java 21 and later, <code>virtual_thread</code>.
+     */
+    public static final String BLOCKING_THREADING_MODEL = "blocking.threading.model";
+
     /**
      * The location where our database files are kept, preferably on local disk.
      */
     public static final String DB_FILES_DIR = "db.files.dir";
 
+    /**
+     * The number of milliseconds that minter cursor advances are collected before they're committed together.
+     */
+    public static final String CURSOR_COMMIT_WINDOW = "cursor.commit.window";
+
+    /**
+     * The largest number of minter cursor advances that are collected before they're committed together.
+     */
+    public static final String CURSOR_COMMIT_GROUP = "cursor.commit.group";
+
+    /**
+     * The largest number of leased but unissued NOIDs that are held in reserve for a namespace.
+     */
+    public static final String RESERVOIR_SIZE = "reservoir.size";
+
+    /**
+     * The number of NOIDs held in reserve for a namespace below which more are leased.
+     */
+    public static final String RESERVOIR_LOW_WATER = "reservoir.low.water";
+
+    /**
+     * The number of seconds that a lease of a block of a namespace's index positions lasts.
+     */
+    public static final String LEASE_TTL = "lease.ttl";
+
     // Constant classes should have private constructors
     private Config() {
     }
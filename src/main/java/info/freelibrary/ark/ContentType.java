@@ -26,6 +26,11 @@ public final class ContentType {
      */
     public static final String CSV = "text/csv";
 
+    /**
+     * The content-type value for newline delimited JSON.
+     */
+    public static final String NDJSON = "application/x-ndjson";
+
     /**
      * Creates a content-type object.
      */
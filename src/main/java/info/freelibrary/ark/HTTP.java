@@ -24,6 +24,9 @@ public final class HTTP {
     /** Not found response */
     public static final int NOT_FOUND = 404;
 
+    /** Conflicts with the current state of the resource */
+    public static final int CONFLICT = 409;
+
     /** Method not allowed */
     public static final int METHOD_NOT_ALLOWED = 405;
 
@@ -36,6 +36,26 @@ public final class Namespace {
      */
     public static final String NAAN = "naan";
 
+    /**
+     * The name for a namespace's randomized property.
+     */
+    public static final String RANDOMIZED = "randomized";
+
+    /**
+     * The name for a namespace's materialized property; a materialized namespace has all its NOIDs written up front.
+     */
+    public static final String MATERIALIZED = "materialized";
+
+    /**
+     * The name for a randomized namespace's permutation key property.
+     */
+    public static final String KEY = "key";
+
+    /**
+     * The name for a namespace's pattern property; the NOIDs of a namespace with a pattern all match it.
+     */
+    public static final String PATTERN = "pattern";
+
     /**
      * Creates a private instance of Namespace.
      */
@@ -1,79 +1,126 @@
 
 package info.freelibrary.ark;
 
+import java.util.Arrays;
 import java.util.Locale;
-import java.util.stream.Stream;
 
 import info.freelibrary.util.StringUtils;
 
 /**
  * A enumeration of the possible NOID types.
+ * <p>
+ * Each type's alphabet (the characters its NOIDs are made of, in code point order) is computed once, along with a
+ * table from each ASCII character to its code point, so the characters and code points that minting and checksums
+ * need are looked up without allocating or searching.
+ * </p>
  */
 public enum NoidType {
 
-    NUMERIC("10"), ALPHA("25"), ALPHA_ALL("51"), @SuppressWarnings("MultipleStringLiterals")
-    ALPHANUMERIC("35"), @SuppressWarnings("MultipleStringLiterals")
-    ALPHANUMERIC_ALL("61"), @SuppressWarnings("MultipleStringLiterals")
-    REGEX_PATTERN("35"), @SuppressWarnings("MultipleStringLiterals")
-    REGEX_PATTERN_ALL("61");
+    NUMERIC("10", Alphabet.NUMERIC), ALPHA("25", Alphabet.ALPHA_LC),
+    ALPHA_ALL("51", Alphabet.ALPHA_UC + Alphabet.ALPHA_LC), @SuppressWarnings("MultipleStringLiterals")
+    ALPHANUMERIC("35", Alphabet.NUMERIC + Alphabet.ALPHA_LC), @SuppressWarnings("MultipleStringLiterals")
+    ALPHANUMERIC_ALL("61", Alphabet.NUMERIC + Alphabet.ALPHA_UC + Alphabet.ALPHA_LC),
+    @SuppressWarnings("MultipleStringLiterals")
+    REGEX_PATTERN("35", Alphabet.NUMERIC + Alphabet.ALPHA_LC), @SuppressWarnings("MultipleStringLiterals")
+    REGEX_PATTERN_ALL("61", Alphabet.NUMERIC + Alphabet.ALPHA_UC + Alphabet.ALPHA_LC);
 
-    /* ChecksumUtils depends on the order of these arrays remaining constant; changing them will break checksums. */
+    /* The number of entries in a code point table: one for each ASCII character. */
+    private static final int ASCII_SIZE = 128;
 
-    private static final Character[] ALPHA_LC_CHARS = { 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'm', 'n',
-        'o', 'p', 'q', 'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z' }; // 25 chars; it's missing the lower case L
+    public final String myValue;
 
-    private static final Character[] ALPHA_UC_CHARS = { 'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M',
-        'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z' }; // 26 chars
+    /* The type's alphabet, in code point order. */
+    private final char[] myAlphabet;
 
-    private static final Character[] NUMERIC_CHARS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' }; // 10 chars
+    /* The type's alphabet, as boxed characters. */
+    private final Character[] myCharacters;
 
-    public final String myValue;
+    /* The code point of each ASCII character, or -1 if it's not in the type's alphabet. */
+    private final int[] myCodePoints = new int[ASCII_SIZE];
 
-    NoidType(final String aValue) {
+    NoidType(final String aValue, final String aAlphabet) {
         myValue = aValue;
+        myAlphabet = aAlphabet.toCharArray();
+        myCharacters = new Character[myAlphabet.length];
+
+        Arrays.fill(myCodePoints, -1);
+
+        for (int codePoint = 0; codePoint < myAlphabet.length; codePoint++) {
+            myCharacters[codePoint] = myAlphabet[codePoint];
+            myCodePoints[myAlphabet[codePoint]] = codePoint;
+        }
     }
 
     /**
-     * Gets the total number of possible NOIDs given the supplied length.
+     * Gets the total number of possible NOIDs given the supplied length. The count is exact; if it's too large to be
+     * represented as a long, <code>Long.MAX_VALUE</code> is returned.
      *
      * @param aLength A maximum character length of minted NOIDs.
      * @return The total number of possible NOIDS given the supplied length
      */
     public long getNoidCount(final int aLength) {
-        return (long) Math.pow(getCharacters().length, aLength);
+        final int radix = getCharacterCount();
+
+        long count = 1;
+
+        try {
+            for (int index = 0; index < aLength; index++) {
+                count = Math.multiplyExact(count, radix);
+            }
+        } catch (final ArithmeticException details) {
+            return Long.MAX_VALUE;
+        }
+
+        return count;
     }
 
     /**
-     * Gets the character array for the supplied NOID type.
+     * Gets a copy of the character array for the supplied NOID type. Code that works with primitive characters should
+     * use {@link #getAlphabet()} or {@link #getCharacter(int)} instead.
      *
      * @return An array of characters represented by the supplied NOID type
      */
     public Character[] getCharacters() {
-        switch (this) {
-            case NUMERIC:
-                return NUMERIC_CHARS; // 10 characters
-            case ALPHA:
-                return ALPHA_LC_CHARS; // 25 characters
-            case ALPHA_ALL:
-                return merge(ALPHA_UC_CHARS, ALPHA_LC_CHARS); // 51 characters
-            case ALPHANUMERIC:
-            case REGEX_PATTERN:
-                return merge(NUMERIC_CHARS, ALPHA_LC_CHARS); // 35 characters
-            case ALPHANUMERIC_ALL:
-            case REGEX_PATTERN_ALL:
-                return merge(NUMERIC_CHARS, ALPHA_UC_CHARS, ALPHA_LC_CHARS); // 61 characters
-            default:
-                throw new UnexpectedNoidTypeException(this);
-        }
+        return myCharacters.clone();
+    }
+
+    /**
+     * Gets a copy of the type's alphabet: the characters its NOIDs are made of, in code point order.
+     *
+     * @return The type's alphabet
+     */
+    public char[] getAlphabet() {
+        return myAlphabet.clone();
     }
 
     /**
-     * Gets the number of possible characters for a supplied NOID type.
+     * Gets the character with the supplied code point.
+     *
+     * @param aCodePoint A code point in the type's alphabet
+     * @return The character with the supplied code point
+     * @throws ArrayIndexOutOfBoundsException If the code point isn't in the type's alphabet
+     */
+    public char getCharacter(final int aCodePoint) {
+        return myAlphabet[aCodePoint];
+    }
+
+    /**
+     * Gets the code point of the supplied character (i.e., its position in the type's alphabet).
+     *
+     * @param aChar A character
+     * @return The character's code point, or -1 if it's not in the type's alphabet
+     */
+    public int getCodePoint(final char aChar) {
+        return aChar < ASCII_SIZE ? myCodePoints[aChar] : -1;
+    }
+
+    /**
+     * Gets the number of possible characters for a supplied NOID type (i.e., the radix of its NOIDs).
      *
      * @return The number of possible characters for a supplied NOID type
      */
     public int getCharacterCount() {
-        return getCharacters().length;
+        return myAlphabet.length;
     }
 
     /**
@@ -92,12 +139,23 @@ public enum NoidType {
     }
 
     /**
-     * Conveniently joins smaller arrays of acceptable characters into a single array.
-     *
-     * @param aArrayOfCharArrays An array of acceptable character arrays
-     * @return A merged array of character arrays
+     * The character sets that the types' alphabets are made of. They're kept apart from the enumeration so that its
+     * constants can be built from them.
      */
-    private Character[] merge(final Character[]... aArrayOfCharArrays) {
-        return Stream.of(aArrayOfCharArrays).<Character>flatMap(Stream::<Character>of).toArray(Character[]::new);
+    private static final class Alphabet {
+
+        /* ChecksumUtils depends on the order of these sets remaining constant; changing them will break checksums. */
+
+        private static final String ALPHA_LC = "abcdefghijkmnopqrstuvwxyz"; // 25 chars; it's missing the lower case L
+
+        private static final String ALPHA_UC = "ABCDEFGHIJKLMNOPQRSTUVWXYZ"; // 26 chars
+
+        private static final String NUMERIC = "0123456789"; // 10 chars
+
+        /**
+         * Constant class constructors should be private.
+         */
+        private Alphabet() {
+        }
     }
 }
@@ -26,6 +26,26 @@ public final class Op {
      */
     public static final String MINT_NOID = "mintNOID";
 
+    /**
+     * Leases a block of a namespace's index positions, so a client can mint its NOIDs.
+     */
+    public static final String LEASE_NOIDS = "leaseNOIDs";
+
+    /**
+     * Returns a lease of a block of a namespace's index positions.
+     */
+    public static final String RETURN_NOID_LEASE = "returnNoidLease";
+
+    /**
+     * Gets the metrics of the leases of namespaces' index positions.
+     */
+    public static final String GET_LEASE_METRICS = "getLeaseMetrics";
+
+    /**
+     * Gets the metrics of the namespace minting lanes.
+     */
+    public static final String GET_LANE_METRICS = "getLaneMetrics";
+
     /**
      * Constant class constructors should be private.
      */
@@ -0,0 +1,467 @@
+
+package info.freelibrary.ark.handlers;
+
+import java.nio.charset.StandardCharsets;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+import info.freelibrary.util.StringUtils;
+
+import info.freelibrary.ark.Config;
+import info.freelibrary.ark.ContentType;
+import info.freelibrary.ark.HTTP;
+import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.Namespace;
+import info.freelibrary.ark.utils.MintingLanes;
+import info.freelibrary.ark.utils.NoidMinter;
+import info.freelibrary.ark.utils.NoidReservoir;
+import info.freelibrary.ark.verticles.NamespaceMintingVerticle;
+
+import io.vertx.core.Context;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * A handler that accepts requests to mint identifiers (NOIDs, or identifiers built from them) in a namespace.
+ * <p>
+ * Without a <code>count</code>, a single identifier is returned as a JSON object. With one, the identifiers are
+ * streamed back in a chunked response, as newline delimited JSON or, if the client accepts <code>text/csv</code>, as
+ * CSV. A stream's NOIDs cost a single round trip to the minting verticle, which advances the namespace's cursor past
+ * them and replies with a copy of the namespace's minter. They're then minted on the event loop, in batches, and the
+ * next batch isn't minted until the response has finished writing the last, so a slow client holds back the minting
+ * rather than filling the server's memory. NOIDs that aren't streamed (e.g., because the client goes away) are
+ * skipped rather than reissued.
+ * </p>
+ * <p>
+ * A single identifier is taken from a {@link NoidReservoir} of NOIDs that have already been leased from the minting
+ * verticle, so it's usually returned without leaving the event loop. Each event loop that the handler is used on has
+ * its own reservoir, so a handler can be shared by several HTTP server instances without any locking. Leased NOIDs
+ * that are never issued (e.g., because the server stops) are skipped rather than reissued.
+ * </p>
+ * <p>
+ * Identifiers are written into a buffer that's reused for each of a stream's batches, from bytes that are computed once
+ * per request (or, for an identifier's prefix, once per namespace), so the only work done for each identifier is
+ * minting its NOID.
+ * </p>
+ */
+public abstract class AbstractMintHandler implements Handler<RoutingContext> {
+
+    /**
+     * The name of the parameter that sets the number of identifiers to mint.
+     */
+    private static final String COUNT = "count";
+
+    /**
+     * The largest number of identifiers that can be minted in a single request.
+     */
+    private static final int MAX_COUNT = 1_000_000;
+
+    /**
+     * The largest number of NOIDs that are minted in a single batch.
+     */
+    private static final int BATCH_SIZE = 1000;
+
+    /**
+     * The default largest number of NOIDs held in reserve for a namespace.
+     */
+    private static final int DEFAULT_RESERVOIR_SIZE = 1000;
+
+    /**
+     * The end of a CSV row.
+     */
+    private static final byte[] CSV_EOL = "\r\n".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * The handler's logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractMintHandler.class, MessageCodes.BUNDLE);
+
+    /* The handler's copy of the Vert.x instance */
+    private final Vertx myVertx;
+
+    /* The minting verticle's action for minting NOIDs for the handler's identifiers. */
+    private final String myAction;
+
+    /* The name of the identifier property in a JSON response, which is also the header of the CSV column. */
+    private final String myName;
+
+    /* The start of an identifier's JSON object. */
+    private final byte[] myJsonStart;
+
+    /* The largest number of NOIDs each reservoir holds for a namespace. */
+    private final int myReservoirSize;
+
+    /* The number of NOIDs held for a namespace below which a reservoir leases more. */
+    private final int myLowWater;
+
+    /**
+     * Creates a new handler for requests to mint identifiers.
+     *
+     * @param aVertx A Vert.x instance
+     * @param aConfig The application's configuration
+     * @param aAction The minting verticle's action for minting NOIDs for the handler's identifiers
+     * @param aName The name of the identifier property in a JSON response
+     */
+    protected AbstractMintHandler(final Vertx aVertx, final JsonObject aConfig, final String aAction,
+            final String aName) {
+        myReservoirSize = aConfig.getInteger(Config.RESERVOIR_SIZE, DEFAULT_RESERVOIR_SIZE);
+        myLowWater = aConfig.getInteger(Config.RESERVOIR_LOW_WATER, myReservoirSize / 4);
+        myJsonStart = ("{\"" + aName + "\":\"").getBytes(StandardCharsets.UTF_8);
+        myAction = aAction;
+        myVertx = aVertx;
+        myName = aName;
+    }
+
+    @Override
+    public void handle(final RoutingContext aContext) {
+        final HttpServerResponse httpResponse = aContext.response();
+        final MultiMap params = aContext.request().params();
+        final String namespace = StringUtils.trimToNull(params.get(Namespace.NAME));
+        final String count = StringUtils.trimToNull(params.get(COUNT));
+
+        if (namespace == null) {
+            sendError(httpResponse, HTTP.BAD_REQUEST, LOGGER.getMessage(MessageCodes.ARK_048));
+        } else if (count == null) {
+            final IdStream stream = new IdStream(httpResponse, namespace, 1, Format.JSON);
+            final NoidReservoir reservoir = getReservoir();
+
+            reservoir.next(namespace).onComplete(next -> {
+                if (next.succeeded()) {
+                    stream.write(next.result(), reservoir.getHeaders(namespace));
+                } else {
+                    stream.fail(next.cause());
+                }
+            });
+        } else {
+            final int idCount;
+
+            try {
+                idCount = Integer.parseInt(count);
+            } catch (final NumberFormatException details) {
+                sendError(httpResponse, HTTP.BAD_REQUEST, LOGGER.getMessage(MessageCodes.ARK_052, MAX_COUNT, count));
+                return;
+            }
+
+            if (idCount < 1 || idCount > MAX_COUNT) {
+                sendError(httpResponse, HTTP.BAD_REQUEST, LOGGER.getMessage(MessageCodes.ARK_052, MAX_COUNT, count));
+            } else {
+                new IdStream(httpResponse, namespace, idCount, isCsvAccepted(aContext) ? Format.CSV : Format.NDJSON)
+                        .mint();
+            }
+        }
+    }
+
+    /**
+     * Gets the bytes that are written before each NOID to make an identifier in the supplied namespace.
+     *
+     * @param aNamespace The namespace in which the NOIDs were minted
+     * @param aHeaders The headers of the minting verticle's reply with the NOIDs
+     * @return The identifier prefix, which may be empty
+     */
+    protected abstract byte[] getPrefix(String aNamespace, MultiMap aHeaders);
+
+    /**
+     * Gets the NOID reservoir of the current event loop, creating it if it doesn't exist yet. It's kept in the event
+     * loop's context, so it's only ever used from the event loop's thread.
+     *
+     * @return The current event loop's NOID reservoir
+     */
+    private NoidReservoir getReservoir() {
+        final Context context = myVertx.getOrCreateContext();
+        NoidReservoir reservoir = context.get(this);
+
+        if (reservoir == null) {
+            reservoir = new NoidReservoir(myVertx, myAction, myReservoirSize, myLowWater);
+            context.put(this, reservoir);
+        }
+
+        return reservoir;
+    }
+
+    /**
+     * Gets whether the client accepts CSV.
+     *
+     * @param aContext A routing context
+     * @return True if the client accepts CSV; else, false
+     */
+    private boolean isCsvAccepted(final RoutingContext aContext) {
+        final String accept = aContext.request().getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(ContentType.CSV);
+    }
+
+    /**
+     * Gets the HTTP status code for a failed minting request. Failures reported by the minting verticle (e.g., an
+     * unknown namespace) carry their own status code.
+     *
+     * @param aFailure The cause of the failure
+     * @return An HTTP status code
+     */
+    private int getStatusCode(final Throwable aFailure) {
+        if (aFailure instanceof ReplyException) {
+            final ReplyException failure = (ReplyException) aFailure;
+
+            if (failure.failureType() == ReplyFailure.RECIPIENT_FAILURE && failure.failureCode() > 0) {
+                return failure.failureCode();
+            }
+        }
+
+        return HTTP.INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * Sends an error response.
+     *
+     * @param aResponse An HTTP response
+     * @param aStatusCode The response's status code
+     * @param aMessage An error message
+     */
+    private void sendError(final HttpServerResponse aResponse, final int aStatusCode, final String aMessage) {
+        aResponse.setStatusCode(aStatusCode);
+        aResponse.setStatusMessage(aMessage);
+        aResponse.putHeader(HTTP.Response.CONTENT_TYPE, ContentType.TEXT);
+        aResponse.end(aMessage, StandardCharsets.UTF_8.displayName());
+    }
+
+    /**
+     * The formats in which identifiers can be returned.
+     */
+    private enum Format {
+
+        /* A single JSON object. */
+        JSON,
+
+        /* Newline delimited JSON objects. */
+        NDJSON,
+
+        /* CSV, with a header row. */
+        CSV
+    }
+
+    /**
+     * A stream of identifiers, minted in batches, to an HTTP response.
+     */
+    private final class IdStream {
+
+        /* The HTTP response to which identifiers are streamed. */
+        private final HttpServerResponse myResponse;
+
+        /* The namespace in which identifiers are minted. */
+        private final String myNamespace;
+
+        /* The number of identifiers that were requested. */
+        private final int myCount;
+
+        /* The format in which identifiers are written. */
+        private final Format myFormat;
+
+        /* What's written after each identifier; for JSON, the rest of its object, which is the same for them all. */
+        private final byte[] myIdEnd;
+
+        /* The buffer into which each batch of identifiers is written; it's reused once the batch has been written. */
+        private final Buffer myBuffer = Buffer.buffer();
+
+        /* The number of bytes in the buffer that belong to the current batch. */
+        private int myLength;
+
+        /* What's written before each NOID to make an identifier. */
+        private byte[] myPrefix;
+
+        /* The minter of the NOIDs that were minted for the stream, positioned at the next one to write. */
+        private NoidMinter myMinter;
+
+        /* The number of NOIDs minted for the stream; it's less than the count if the namespace ran out of NOIDs. */
+        private int myMintedCount;
+
+        /* The number of identifiers that have been streamed. */
+        private int myStreamedCount;
+
+        /**
+         * Creates a new stream of identifiers.
+         *
+         * @param aResponse The HTTP response to which identifiers are streamed
+         * @param aNamespace The namespace in which identifiers are minted
+         * @param aCount The number of identifiers that were requested
+         * @param aFormat The format in which to write the identifiers
+         */
+        private IdStream(final HttpServerResponse aResponse, final String aNamespace, final int aCount,
+                final Format aFormat) {
+            final String namespace = new JsonObject().put(Namespace.NAME, aNamespace).encode();
+
+            myResponse = aResponse;
+            myNamespace = aNamespace;
+            myFormat = aFormat;
+            myCount = aCount;
+
+            switch (aFormat) {
+                case CSV:
+                    myIdEnd = CSV_EOL;
+                    break;
+                case NDJSON:
+                    myIdEnd = ("\"," + namespace.substring(1) + '\n').getBytes(StandardCharsets.UTF_8);
+                    break;
+                default:
+                    myIdEnd = ("\"," + namespace.substring(1)).getBytes(StandardCharsets.UTF_8);
+            }
+        }
+
+        /**
+         * Mints the stream's NOIDs. They're minted in one request to the namespace's lane, which just advances the
+         * namespace's cursor and replies with a minter that's positioned at the first of them. They're then minted
+         * from it on the event loop, a batch at a time, as the response is written.
+         */
+        private void mint() {
+            final DeliveryOptions options = new DeliveryOptions();
+
+            options.addHeader(NamespaceMintingVerticle.ACTION, myAction);
+            options.addHeader(NamespaceMintingVerticle.COUNT, Integer.toString(myCount));
+            options.addHeader(NamespaceMintingVerticle.STREAM, Boolean.TRUE.toString());
+
+            MintingLanes.get(myVertx).<NoidMinter>request(myVertx, myNamespace, myNamespace, options)
+                    .onComplete(response -> {
+                        if (response.succeeded()) {
+                            final Message<NoidMinter> reply = response.result();
+
+                            myMinter = reply.body();
+                            myMintedCount = Integer.parseInt(reply.headers().get(NamespaceMintingVerticle.COUNT));
+
+                            if (start(reply.headers())) {
+                                writeBatch();
+                            }
+                        } else {
+                            fail(response.cause());
+                        }
+                    });
+        }
+
+        /**
+         * Writes a single identifier to the response, which is then ended.
+         *
+         * @param aNOID A NOID
+         * @param aHeaders The headers of the minting verticle's reply with the NOID
+         */
+        private void write(final String aNOID, final MultiMap aHeaders) {
+            if (start(aHeaders)) {
+                append(aNOID);
+                myResponse.end(myBuffer.slice(0, myLength));
+            }
+        }
+
+        /**
+         * Writes the next batch of identifiers to the response. If more are wanted, the batch after it is written once
+         * the response has finished writing this one, so a slow client holds back the minting and the buffer can be
+         * reused.
+         */
+        private void writeBatch() {
+            final int batchSize = Math.min(BATCH_SIZE, myMintedCount - myStreamedCount);
+
+            // The client has gone away, so there's no one to send the identifiers to
+            if (myResponse.closed()) {
+                return;
+            }
+
+            // The minter computes its NOIDs, so the batch is already minted when this returns
+            myMinter.nextAsync(batchSize).onSuccess(noids -> {
+                for (final String noid : noids) {
+                    append(noid);
+                }
+
+                myStreamedCount += noids.size();
+
+                if (myStreamedCount == myMintedCount) {
+                    myResponse.end(myBuffer.slice(0, myLength));
+                } else {
+                    myResponse.write(myBuffer.slice(0, myLength)).onComplete(write -> {
+                        if (write.succeeded()) {
+                            myLength = 0;
+                            writeBatch();
+                        } else {
+                            LOGGER.error(write.cause(), MessageCodes.ARK_053, myNamespace, myStreamedCount, myCount,
+                                    write.cause().getMessage());
+                        }
+                    });
+                }
+            }).onFailure(details -> {
+                // The NOIDs that were minted can't all be streamed, so the response is cut off
+                LOGGER.error(details, MessageCodes.ARK_053, myNamespace, myStreamedCount, myCount,
+                        details.getMessage());
+                myResponse.close();
+            });
+        }
+
+        /**
+         * Starts the response, if the client is still waiting for it.
+         *
+         * @param aHeaders The headers of the minting verticle's reply with the stream's NOIDs
+         * @return True if the response was started; else, false
+         */
+        private boolean start(final MultiMap aHeaders) {
+            // The client has gone away, so there's no one to send the identifiers to
+            if (myResponse.closed()) {
+                return false;
+            }
+
+            myPrefix = getPrefix(myNamespace, aHeaders);
+            myResponse.setStatusCode(HTTP.OK);
+
+            if (myFormat == Format.JSON) {
+                myResponse.putHeader(HTTP.Response.CONTENT_TYPE, ContentType.JSON);
+            } else if (myFormat == Format.NDJSON) {
+                myResponse.putHeader(HTTP.Response.CONTENT_TYPE, ContentType.NDJSON).setChunked(true);
+            } else {
+                myResponse.putHeader(HTTP.Response.CONTENT_TYPE, ContentType.CSV).setChunked(true);
+                append(myName.getBytes(StandardCharsets.UTF_8));
+                append(CSV_EOL);
+            }
+
+            return true;
+        }
+
+        /**
+         * Appends an identifier to the current batch. Shoulders are checked when a namespace is created, so NOIDs
+         * never have characters that would need to be escaped in JSON or CSV.
+         *
+         * @param aNOID The identifier's NOID
+         */
+        private void append(final String aNOID) {
+            if (myFormat != Format.CSV) {
+                append(myJsonStart);
+            }
+
+            append(myPrefix);
+            append(aNOID.getBytes(StandardCharsets.UTF_8));
+            append(myIdEnd);
+        }
+
+        /**
+         * Appends bytes to the current batch, growing the buffer if they don't fit.
+         *
+         * @param aBytes The bytes to append
+         */
+        private void append(final byte[] aBytes) {
+            myBuffer.setBytes(myLength, aBytes);
+            myLength += aBytes.length;
+        }
+
+        /**
+         * Handles a failure to mint the stream's NOIDs by sending an error response.
+         *
+         * @param aCause The cause of the failure
+         */
+        private void fail(final Throwable aCause) {
+            if (!myResponse.closed()) {
+                LOGGER.error(aCause, aCause.getMessage());
+                sendError(myResponse, getStatusCode(aCause), aCause.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+
+package info.freelibrary.ark.handlers;
+
+import info.freelibrary.ark.ContentType;
+import info.freelibrary.ark.HTTP;
+import info.freelibrary.ark.utils.BackgroundJobs;
+import info.freelibrary.ark.utils.MintingLanes;
+
+import io.vertx.core.Handler;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * A handler that returns the metrics of the namespace minting lanes: the number of lanes, the limit on each lane's
+ * queue, and the number of requests that are in each lane's queue. The metrics of the background jobs, which run off
+ * the lanes, are returned with them.
+ */
+public class LaneMetricsHandler implements Handler<RoutingContext> {
+
+    /**
+     * The property of the background jobs' metrics in the response.
+     */
+    private static final String BACKGROUND = "background";
+
+    /* The minting lanes whose metrics are returned. */
+    private final MintingLanes myLanes;
+
+    /* The background jobs whose metrics are returned. */
+    private final BackgroundJobs myJobs;
+
+    /**
+     * Creates a handler for requests for the minting lanes' metrics.
+     *
+     * @param aLanes The minting lanes
+     * @param aJobs The background jobs
+     */
+    public LaneMetricsHandler(final MintingLanes aLanes, final BackgroundJobs aJobs) {
+        myLanes = aLanes;
+        myJobs = aJobs;
+    }
+
+    @Override
+    public void handle(final RoutingContext aContext) {
+        aContext.response().setStatusCode(HTTP.OK).putHeader(HTTP.Response.CONTENT_TYPE, ContentType.JSON)
+                .end(myLanes.getMetrics().put(BACKGROUND, myJobs.getMetrics()).encode());
+    }
+}
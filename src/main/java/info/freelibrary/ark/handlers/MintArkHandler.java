@@ -1,34 +1,52 @@
 
 package info.freelibrary.ark.handlers;
 
-import io.vertx.core.Handler;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import info.freelibrary.ark.Op;
+import info.freelibrary.ark.verticles.NamespaceMintingVerticle;
+
 import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
-import io.vertx.ext.web.RoutingContext;
+import io.vertx.core.json.JsonObject;
 
 /**
- * A handler that accepts requests to mint ARKs.
+ * A handler that accepts requests to mint ARKs. An ARK is a NOID from an ARK namespace, with the namespace's
+ * <code>ark:/NAAN/</code> prefix (the NOID itself starts with the namespace's shoulder). The prefix is encoded once per
+ * namespace and then written in front of each NOID; see {@link AbstractMintHandler} for how ARKs are returned.
  */
-public class MintArkHandler implements Handler<RoutingContext> {
+public class MintArkHandler extends AbstractMintHandler {
+
+    /**
+     * The name of the ARK property in the response.
+     */
+    private static final String ARK = "ark";
 
     /**
-     * The handler's copy of the Vert.x instance.
+     * The start of an ARK's prefix.
      */
-    private final Vertx myVertx;
+    private static final String ARK_SCHEME = "ark:/";
+
+    /* The ARK prefixes of the namespaces that have been minted from; the handler may be used on several event loops. */
+    private final Map<String, byte[]> myPrefixes = new ConcurrentHashMap<>();
 
     /**
      * Creates a handler that mints ARKs.
      *
-     * @param aVertx
+     * @param aVertx A Vert.x instance
+     * @param aConfig The application's configuration
      */
-    public MintArkHandler(final Vertx aVertx) {
-        myVertx = aVertx;
+    public MintArkHandler(final Vertx aVertx, final JsonObject aConfig) {
+        super(aVertx, aConfig, Op.MINT_ARK, ARK);
     }
 
     @Override
-    public void handle(final RoutingContext aContext) {
-        final MultiMap params = aContext.queryParams();
-
+    protected byte[] getPrefix(final String aNamespace, final MultiMap aHeaders) {
+        return myPrefixes.computeIfAbsent(aNamespace, namespace -> {
+            final String naan = aHeaders.get(NamespaceMintingVerticle.NAAN);
+            return (ARK_SCHEME + naan + '/').getBytes(StandardCharsets.UTF_8);
+        });
     }
-
 }
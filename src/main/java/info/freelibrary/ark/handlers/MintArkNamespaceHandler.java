@@ -1,20 +1,38 @@
 
 package info.freelibrary.ark.handlers;
 
-import io.vertx.core.Handler;
+import java.util.regex.Pattern;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+import info.freelibrary.util.StringUtils;
+
+import info.freelibrary.ark.HTTP;
+import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.Namespace;
+import info.freelibrary.ark.Op;
+import info.freelibrary.ark.verticles.NamespaceMintingVerticle;
+
 import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.ext.web.RoutingContext;
 
 /**
- * A mint ARK namespace handler.
+ * A mint ARK namespace handler. An ARK namespace is a NOID namespace with a Name Assigning Authority Number (NAAN),
+ * which is stored with the namespace's specification.
  */
-public class MintArkNamespaceHandler implements Handler<RoutingContext> {
+public class MintArkNamespaceHandler extends MintNoidNamespaceHandler {
+
+    /**
+     * The handler's logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(MintArkNamespaceHandler.class, MessageCodes.BUNDLE);
 
     /**
-     * The handler's copy of the Vert.x instance.
+     * A valid NAAN, which is made of the ARK specification's "betanumeric" characters.
      */
-    private final Vertx myVertx;
+    private static final Pattern NAAN = Pattern.compile("[0-9bcdfghjkmnpqrstvwxz]+");
 
     /**
      * Creates a new mint ARK namespace handler.
@@ -22,13 +40,22 @@ public class MintArkNamespaceHandler implements Handler<RoutingContext> {
      * @param aVertx A Vert.x instance
      */
     public MintArkNamespaceHandler(final Vertx aVertx) {
-        myVertx = aVertx;
+        super(aVertx, Op.MINT_ARK_NAMESPACE);
     }
 
     @Override
     public void handle(final RoutingContext aContext) {
-        final MultiMap params = aContext.queryParams();
+        final String naan = StringUtils.trimToNull(aContext.request().params().get(Namespace.NAAN));
 
+        if (naan == null || !NAAN.matcher(naan).matches()) {
+            sendError(aContext.response(), HTTP.BAD_REQUEST, LOGGER.getMessage(MessageCodes.ARK_055, naan));
+        } else {
+            super.handle(aContext);
+        }
     }
 
+    @Override
+    protected void addHeaders(final MultiMap aParams, final DeliveryOptions aOptions) {
+        aOptions.addHeader(NamespaceMintingVerticle.NAAN, aParams.get(Namespace.NAAN).trim());
+    }
 }
@@ -1,32 +1,39 @@
 
 package info.freelibrary.ark.handlers;
 
-import io.vertx.core.Handler;
+import info.freelibrary.ark.Op;
+
 import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
-import io.vertx.ext.web.RoutingContext;
+import io.vertx.core.json.JsonObject;
 
 /**
- * A handler that accepts requests to mint a new NOID.
+ * A handler that accepts requests to mint new NOIDs. See {@link AbstractMintHandler} for how they're returned.
  */
-public class MintNoidHandler implements Handler<RoutingContext> {
+public class MintNoidHandler extends AbstractMintHandler {
+
+    /**
+     * The name of the NOID property in the response.
+     */
+    private static final String NOID = "noid";
 
-    /* The handler's copy of the Vert.x instance */
-    private final Vertx myVertx;
+    /**
+     * A NOID is returned as is, so it doesn't have a prefix.
+     */
+    private static final byte[] NO_PREFIX = new byte[0];
 
     /**
      * Creates a new handler for requests to mint NOIDs.
      *
      * @param aVertx A Vert.x instance
+     * @param aConfig The application's configuration
      */
-    public MintNoidHandler(final Vertx aVertx) {
-        myVertx = aVertx;
+    public MintNoidHandler(final Vertx aVertx, final JsonObject aConfig) {
+        super(aVertx, aConfig, Op.MINT_NOID, NOID);
     }
 
     @Override
-    public void handle(final RoutingContext aContext) {
-        final MultiMap params = aContext.queryParams();
-
+    protected byte[] getPrefix(final String aNamespace, final MultiMap aHeaders) {
+        return NO_PREFIX;
     }
-
 }
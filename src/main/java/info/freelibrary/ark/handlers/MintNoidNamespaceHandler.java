@@ -2,6 +2,7 @@
 package info.freelibrary.ark.handlers;
 
 import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
 
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
@@ -14,18 +15,27 @@ import info.freelibrary.ark.Namespace;
 import info.freelibrary.ark.NoidType;
 import info.freelibrary.ark.Op;
 import info.freelibrary.ark.UnexpectedNoidTypeException;
+import info.freelibrary.ark.utils.BackgroundJobs;
+import info.freelibrary.ark.utils.MintingLanes;
 import info.freelibrary.ark.utils.NoidMinter;
+import info.freelibrary.ark.utils.NoidPattern;
+import info.freelibrary.ark.utils.RandomizedNoidMinter;
 import info.freelibrary.ark.verticles.NamespaceMintingVerticle;
 
+import io.vertx.core.Future;
 import io.vertx.core.Handler;
 import io.vertx.core.MultiMap;
 import io.vertx.core.Vertx;
 import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
 import io.vertx.core.http.HttpServerResponse;
 import io.vertx.ext.web.RoutingContext;
 
 /**
- * A handler for requests to mint NOID namespaces.
+ * A handler for requests to mint NOID namespaces. A namespace's pattern, if it has one, is compiled as one of the
+ * {@link BackgroundJobs}, since a complex pattern can take a while to compile; one that can't be compiled is rejected
+ * with a <code>400 Bad Request</code>.
  */
 public class MintNoidNamespaceHandler implements Handler<RoutingContext> {
 
@@ -34,17 +44,39 @@ public class MintNoidNamespaceHandler implements Handler<RoutingContext> {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(MintNoidNamespaceHandler.class, MessageCodes.BUNDLE);
 
+    /**
+     * A valid shoulder, which can be written into a JSON string or a CSV field as is. Since the shoulder is part of
+     * each NOID, its NOIDs never need to be escaped.
+     */
+    private static final Pattern SHOULDER = Pattern.compile("[\\x21-\\x7E&&[^\"\\\\,]]*");
+
     /**
      * The handler's copy of the Vert.x instance.
      */
     private final Vertx myVertx;
 
+    /**
+     * The minting verticle's action for creating the handler's type of namespace.
+     */
+    private final String myAction;
+
     /**
      * Creates a mint NOID namespace handler.
      *
      * @param aVertx A Vert.x instance
      */
     public MintNoidNamespaceHandler(final Vertx aVertx) {
+        this(aVertx, Op.MINT_NOID_NAMESPACE);
+    }
+
+    /**
+     * Creates a handler for requests to mint a type of namespace that's built on a NOID namespace.
+     *
+     * @param aVertx A Vert.x instance
+     * @param aAction The minting verticle's action for creating the handler's type of namespace
+     */
+    protected MintNoidNamespaceHandler(final Vertx aVertx, final String aAction) {
+        myAction = aAction;
         myVertx = aVertx;
     }
 
@@ -52,46 +84,117 @@ public class MintNoidNamespaceHandler implements Handler<RoutingContext> {
     public void handle(final RoutingContext aContext) {
         final HttpServerResponse httpResponse = aContext.response();
         final MultiMap params = aContext.request().params();
-        final boolean checksumsRequired = getChecksumsRequirement(params.get(Namespace.CHECKSUMS));
+        final boolean checksumsRequired = getFlag(params.get(Namespace.CHECKSUMS));
+        final boolean randomized = getFlag(params.get(Namespace.RANDOMIZED));
+        final boolean materialized = getFlag(params.get(Namespace.MATERIALIZED));
         final String namespace = StringUtils.trimToNull(params.get(Namespace.NAME));
         final String shoulder = params.get(Namespace.SHOULDER);
+        final String regex = StringUtils.trimToNull(params.get(Namespace.PATTERN));
 
         LOGGER.debug(MessageCodes.ARK_017, System.lineSeparator() + params.toString());
 
+        if (shoulder != null && !SHOULDER.matcher(shoulder).matches()) {
+            sendError(httpResponse, HTTP.BAD_REQUEST, LOGGER.getMessage(MessageCodes.ARK_079, shoulder));
+            return;
+        }
+
         try {
             final NoidType noidType = NoidType.fromString(params.get(Namespace.NOID_TYPE));
             final int noidLength = getLength(params.get(Namespace.LENGTH));
-            final NoidMinter minter = new NoidMinter(namespace, noidType, shoulder, noidLength, checksumsRequired);
             final DeliveryOptions options = new DeliveryOptions().setSendTimeout(Long.MAX_VALUE);
+            final Future<NoidMinter> minter;
+
+            // A namespace with a pattern mints just the NOIDs that match it; the pattern is compiled off the event loop
+            if (regex != null) {
+                minter = BackgroundJobs.get(myVertx).submit(() -> {
+                    final NoidPattern pattern = new NoidPattern(regex, noidType, noidLength);
+
+                    if (randomized) {
+                        return new RandomizedNoidMinter(namespace, pattern, shoulder, checksumsRequired);
+                    }
+
+                    return new NoidMinter(namespace, pattern, shoulder, checksumsRequired);
+                });
+            } else if (randomized) {
+                // A randomized minter is created with a new random key, which is persisted with the namespace
+                minter = Future.succeededFuture(
+                        new RandomizedNoidMinter(namespace, noidType, shoulder, noidLength, checksumsRequired));
+            } else {
+                minter = Future.succeededFuture(
+                        new NoidMinter(namespace, noidType, shoulder, noidLength, checksumsRequired));
+            }
+
+            options.addHeader(NamespaceMintingVerticle.ACTION, myAction);
+            options.addHeader(NamespaceMintingVerticle.MATERIALIZE, Boolean.toString(materialized));
+            addHeaders(params, options);
+
+            minter.compose(newMinter -> MintingLanes.get(myVertx).request(myVertx, namespace, newMinter, options))
+                    .onComplete(response -> {
+                        if (response.succeeded()) {
+                            LOGGER.debug("message successful");
+                            httpResponse.setStatusCode(HTTP.CREATED);
+                            httpResponse.end();
+                        } else {
+                            final String errorMessage = response.cause().getMessage();
+
+                            LOGGER.error(response.cause(), errorMessage);
+                            sendError(httpResponse, getStatusCode(response.cause()), errorMessage);
+                        }
+                    });
+        } catch (final UnexpectedNoidTypeException | IllegalArgumentException details) {
+            final String errorMessage = details.getMessage();
 
-            options.addHeader(NamespaceMintingVerticle.ACTION, Op.MINT_NOID_NAMESPACE);
+            LOGGER.error(details, errorMessage);
+            sendError(httpResponse, HTTP.BAD_REQUEST, errorMessage);
+        }
+    }
 
-            myVertx.eventBus().request(NamespaceMintingVerticle.class.getName(), minter, options, response -> {
-                if (response.succeeded()) {
-                    LOGGER.debug("message successful");
-                    httpResponse.setStatusCode(HTTP.CREATED);
-                    httpResponse.end();
-                } else {
-                    final String errorMessage = response.cause().getMessage();
+    /**
+     * Adds any headers, beyond those that every NOID namespace needs, to the request to create a namespace.
+     *
+     * @param aParams The parameters of the request to create the namespace
+     * @param aOptions The delivery options of the request to the minting verticle
+     */
+    protected void addHeaders(final MultiMap aParams, final DeliveryOptions aOptions) {
+        // A NOID namespace doesn't need any others
+    }
 
-                    LOGGER.error(response.cause(), errorMessage);
+    /**
+     * Sends an error response.
+     *
+     * @param aResponse An HTTP response
+     * @param aStatusCode The response's status code
+     * @param aMessage An error message
+     */
+    protected void sendError(final HttpServerResponse aResponse, final int aStatusCode, final String aMessage) {
+        aResponse.setStatusCode(aStatusCode);
+        aResponse.setStatusMessage(aMessage);
+        aResponse.putHeader(HTTP.Response.CONTENT_TYPE, ContentType.TEXT);
+        aResponse.end(aMessage, StandardCharsets.UTF_8.displayName());
+    }
 
-                    httpResponse.setStatusCode(HTTP.INTERNAL_SERVER_ERROR);
-                    httpResponse.setStatusMessage(errorMessage);
-                    httpResponse.putHeader(HTTP.Response.CONTENT_TYPE, ContentType.TEXT);
-                    httpResponse.end(errorMessage, StandardCharsets.UTF_8.displayName());
-                }
-            });
-        } catch (final UnexpectedNoidTypeException | IllegalArgumentException details) {
-            final String errorMessage = details.getMessage();
+    /**
+     * Gets the HTTP status code for a failed namespace creation. A failure reported by the minting verticle (e.g., for
+     * a namespace that already exists) carries its own status code, and a pattern that can't be compiled is a bad
+     * request.
+     *
+     * @param aFailure The cause of the failure
+     * @return An HTTP status code
+     */
+    private int getStatusCode(final Throwable aFailure) {
+        if (aFailure instanceof IllegalArgumentException) {
+            return HTTP.BAD_REQUEST;
+        }
 
-            LOGGER.error(details, errorMessage);
+        if (aFailure instanceof ReplyException) {
+            final ReplyException failure = (ReplyException) aFailure;
 
-            httpResponse.setStatusCode(HTTP.INTERNAL_SERVER_ERROR);
-            httpResponse.setStatusMessage(errorMessage);
-            httpResponse.putHeader(HTTP.Response.CONTENT_TYPE, ContentType.TEXT);
-            httpResponse.end(errorMessage, StandardCharsets.UTF_8.displayName());
+            if (failure.failureType() == ReplyFailure.RECIPIENT_FAILURE && failure.failureCode() > 0) {
+                return failure.failureCode();
+            }
         }
+
+        return HTTP.INTERNAL_SERVER_ERROR;
     }
 
     /**
@@ -104,26 +207,22 @@ public class MintNoidNamespaceHandler implements Handler<RoutingContext> {
     private int getLength(final String aLength) throws NumberFormatException {
         final int length;
 
-        if (StringUtils.trimToNull(aLength) == null || (length = Integer.parseInt(aLength)) == 0) {
-            throw new NumberFormatException(LOGGER.getMessage(MessageCodes.ARK_013, aLength));
+        if (StringUtils.trimToNull(aLength) == null || (length = Integer.parseInt(aLength.trim())) < 1 ||
+                length > NoidMinter.MAX_NOID_LENGTH) {
+            throw new NumberFormatException(
+                    LOGGER.getMessage(MessageCodes.ARK_013, NoidMinter.MAX_NOID_LENGTH, aLength));
         }
 
         return length;
     }
 
     /**
-     * Gets whether checksums are required or not. The default is yes.
+     * Gets whether a flag (e.g., whether checksums are required) is set. The default is no.
      *
-     * @param aChecksumsReqFlag Whether checksums are required
-     * @return True if checksums are required; else, false
+     * @param aFlag A flag's value
+     * @return True if the flag is set; else, false
      */
-    private boolean getChecksumsRequirement(final String aChecksumsReqFlag) {
-        final String checksumsRequired = StringUtils.trimToNull(aChecksumsReqFlag);
-
-        if ("true".equalsIgnoreCase(checksumsRequired)) {
-            return true;
-        }
-
-        return false;
+    private boolean getFlag(final String aFlag) {
+        return "true".equalsIgnoreCase(StringUtils.trimToNull(aFlag));
     }
 }
@@ -0,0 +1,154 @@
+
+package info.freelibrary.ark.handlers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.ContentType;
+import info.freelibrary.ark.HTTP;
+import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.Namespace;
+import info.freelibrary.ark.Op;
+import info.freelibrary.ark.utils.MintingLanes;
+import info.freelibrary.ark.verticles.NamespaceMintingVerticle;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * A handler for requests about leases of blocks of a namespace's index positions: to lease a block, to return a
+ * lease, and to get the lease metrics. The request's parameters are passed on to the namespace's minting lane, whose
+ * JSON reply is returned as is; if it has nothing to return, the response is empty.
+ * <p>
+ * A leased block of positions is a half-open range, <code>[start, end)</code>, of the namespace's index positions (or,
+ * in a randomized namespace, of the positions in its permutation). It's returned with the namespace's specification,
+ * from which a client can mint the NOIDs at those positions without any more requests to the server.
+ * </p>
+ */
+public class NoidLeaseHandler implements Handler<RoutingContext> {
+
+    /**
+     * The handler's logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(NoidLeaseHandler.class, MessageCodes.BUNDLE);
+
+    /* The handler's copy of the Vert.x instance */
+    private final Vertx myVertx;
+
+    /* The minting verticle's action for the handler's requests. */
+    private final String myAction;
+
+    /**
+     * Creates a handler for requests about leases.
+     *
+     * @param aVertx A Vert.x instance
+     * @param aAction The minting verticle's action for the handler's requests
+     */
+    public NoidLeaseHandler(final Vertx aVertx, final String aAction) {
+        myAction = aAction;
+        myVertx = aVertx;
+    }
+
+    @Override
+    public void handle(final RoutingContext aContext) {
+        final HttpServerResponse httpResponse = aContext.response();
+        final DeliveryOptions options = new DeliveryOptions().addHeader(NamespaceMintingVerticle.ACTION, myAction);
+        final JsonObject params = new JsonObject();
+
+        for (final Map.Entry<String, String> param : aContext.request().params()) {
+            params.put(param.getKey(), param.getValue());
+        }
+
+        request(params, options).onComplete(response -> {
+            if (response.succeeded()) {
+                final JsonObject reply = response.result();
+
+                if (reply == null) {
+                    httpResponse.setStatusCode(HTTP.NO_CONTENT).end();
+                } else {
+                    httpResponse.setStatusCode(HTTP.OK);
+                    httpResponse.putHeader(HTTP.Response.CONTENT_TYPE, ContentType.JSON);
+                    httpResponse.end(reply.encode());
+                }
+            } else {
+                final String errorMessage = response.cause().getMessage();
+
+                LOGGER.error(response.cause(), errorMessage);
+                sendError(httpResponse, getStatusCode(response.cause()), errorMessage);
+            }
+        });
+    }
+
+    /**
+     * Sends a request to the minting lanes. A request about a namespace's leases goes to the namespace's lane; a
+     * request for the lease metrics goes to every lane, and their replies are summed.
+     *
+     * @param aParams The request's parameters
+     * @param aOptions The request's delivery options
+     * @return The reply's body
+     */
+    private Future<JsonObject> request(final JsonObject aParams, final DeliveryOptions aOptions) {
+        final MintingLanes lanes = MintingLanes.get(myVertx);
+
+        if (Op.GET_LEASE_METRICS.equals(myAction)) {
+            return lanes.<JsonObject>requestAll(myVertx, aParams, aOptions).map(replies -> {
+                final JsonObject metrics = new JsonObject();
+
+                for (final JsonObject reply : replies) {
+                    for (final String name : reply.fieldNames()) {
+                        metrics.put(name, metrics.getLong(name, 0L) + reply.getLong(name));
+                    }
+                }
+
+                return metrics;
+            });
+        }
+
+        return lanes.<JsonObject>request(myVertx, aParams.getString(Namespace.NAME), aParams, aOptions)
+                .map(Message::body);
+    }
+
+    /**
+     * Gets the HTTP status code for a failed request. Failures reported by the minting verticle (e.g., an unknown
+     * namespace) carry their own status code.
+     *
+     * @param aFailure The cause of the failure
+     * @return An HTTP status code
+     */
+    private int getStatusCode(final Throwable aFailure) {
+        if (aFailure instanceof ReplyException) {
+            final ReplyException failure = (ReplyException) aFailure;
+
+            if (failure.failureType() == ReplyFailure.RECIPIENT_FAILURE && failure.failureCode() > 0) {
+                return failure.failureCode();
+            }
+        }
+
+        return HTTP.INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * Sends an error response.
+     *
+     * @param aResponse An HTTP response
+     * @param aStatusCode The response's status code
+     * @param aMessage An error message
+     */
+    private void sendError(final HttpServerResponse aResponse, final int aStatusCode, final String aMessage) {
+        aResponse.setStatusCode(aStatusCode);
+        aResponse.setStatusMessage(aMessage);
+        aResponse.putHeader(HTTP.Response.CONTENT_TYPE, ContentType.TEXT);
+        aResponse.end(aMessage, StandardCharsets.UTF_8.displayName());
+    }
+}
@@ -0,0 +1,446 @@
+
+package info.freelibrary.ark.handlers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+import info.freelibrary.util.StringUtils;
+
+import info.freelibrary.ark.ContentType;
+import info.freelibrary.ark.HTTP;
+import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.Namespace;
+import info.freelibrary.ark.NoidType;
+import info.freelibrary.ark.UnexpectedNoidTypeException;
+import info.freelibrary.ark.utils.ChecksumUtils;
+
+import io.vertx.core.Future;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.RoutingContext;
+
+/**
+ * A handler that validates the checksums of identifiers, NOIDs or ARKs, that are streamed to it one per line in a
+ * request's body. The type of NOIDs is set by the <code>noidType</code> parameter. A result is streamed back, as
+ * newline delimited JSON, for each identifier or, if the <code>failures</code> parameter is true, for each identifier
+ * that isn't valid. Blank lines are skipped.
+ * <p>
+ * The body is read as it arrives and cut into chunks at line boundaries. Each chunk is validated on a worker thread, so
+ * several chunks are validated at once, and their results are written in the order the chunks were read. Reading the
+ * body is paused while the largest number of chunks are being validated, or while the response's write queue is full,
+ * so an upload of any size is validated in a constant amount of memory.
+ * </p>
+ * <p>
+ * The operation is documented in the OpenAPI specification, but the handler isn't routed from it, since the router
+ * that's built from it reads a request's whole body before it's handled. It's routed ahead of that router instead.
+ * </p>
+ */
+public class ValidateHandler implements Handler<RoutingContext> {
+
+    /**
+     * The name of the parameter that limits the results to the identifiers that aren't valid.
+     */
+    private static final String FAILURES = "failures";
+
+    /**
+     * The name of the identifier property in a result.
+     */
+    private static final String ID = "id";
+
+    /**
+     * The name of the validity property in a result.
+     */
+    private static final String VALID = "valid";
+
+    /**
+     * The scheme that starts an ARK.
+     */
+    private static final String ARK_SCHEME = "ark:";
+
+    /**
+     * The size at which the body that's been read is cut into a chunk. It's also the longest a line can be.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * The largest number of chunks that are validated at once.
+     */
+    private static final int MAX_CHUNKS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The byte that ends a line.
+     */
+    private static final byte NEWLINE = '\n';
+
+    /**
+     * The handler's logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ValidateHandler.class, MessageCodes.BUNDLE);
+
+    /* The handler's copy of the Vert.x instance */
+    private final Vertx myVertx;
+
+    /**
+     * Creates a new handler for requests to validate identifiers.
+     *
+     * @param aVertx A Vert.x instance
+     */
+    public ValidateHandler(final Vertx aVertx) {
+        myVertx = aVertx;
+    }
+
+    @Override
+    public void handle(final RoutingContext aContext) {
+        final HttpServerResponse httpResponse = aContext.response();
+        final MultiMap params = aContext.request().params();
+        final String noidType = StringUtils.trimToNull(params.get(Namespace.NOID_TYPE));
+
+        if (noidType == null) {
+            sendError(httpResponse, HTTP.BAD_REQUEST, LOGGER.getMessage(MessageCodes.ARK_069));
+        } else {
+            try {
+                new Validation(aContext.request(), NoidType.fromString(noidType),
+                        Boolean.parseBoolean(params.get(FAILURES))).start();
+            } catch (final UnexpectedNoidTypeException details) {
+                sendError(httpResponse, HTTP.BAD_REQUEST, details.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Validates a chunk of identifiers, one per line, and writes their results as newline delimited JSON.
+     *
+     * @param aChunk A chunk of identifiers
+     * @param aNoidType The type of the identifiers' NOIDs
+     * @param aFailuresOnly Whether only the results of the identifiers that aren't valid are written
+     * @return The identifiers' results
+     */
+    static Buffer validate(final Buffer aChunk, final NoidType aNoidType, final boolean aFailuresOnly) {
+        final String lines = aChunk.toString(StandardCharsets.UTF_8);
+        final Buffer results = Buffer.buffer();
+
+        int start = 0;
+
+        while (start < lines.length()) {
+            final int newline = lines.indexOf(NEWLINE, start);
+            final int end = newline == -1 ? lines.length() : newline;
+            final String id = lines.substring(start, end).trim();
+
+            if (!id.isEmpty()) {
+                final boolean isValid = isValid(id, aNoidType);
+
+                if (!aFailuresOnly || !isValid) {
+                    results.appendString(new JsonObject().put(ID, id).put(VALID, isValid).encode()).appendByte(NEWLINE);
+                }
+            }
+
+            start = end + 1;
+        }
+
+        return results;
+    }
+
+    /**
+     * Checks whether the supplied identifier's checksum is valid. An ARK's checksum is that of its NOID, which follows
+     * its NAAN and comes before any qualifiers.
+     *
+     * @param aID A NOID or an ARK
+     * @param aNoidType The type of the identifier's NOID
+     * @return True if the identifier's checksum is valid; else, false
+     */
+    private static boolean isValid(final String aID, final NoidType aNoidType) {
+        final int naanStart;
+        final int noidStart;
+
+        int noidEnd;
+
+        if (!aID.regionMatches(true, 0, ARK_SCHEME, 0, ARK_SCHEME.length())) {
+            return ChecksumUtils.validate(aID, aNoidType);
+        }
+
+        // The slash after the scheme is optional in newer ARKs
+        naanStart = aID.startsWith("/", ARK_SCHEME.length()) ? ARK_SCHEME.length() + 1 : ARK_SCHEME.length();
+        noidStart = aID.indexOf('/', naanStart) + 1;
+
+        if (noidStart == 0) {
+            return false;
+        }
+
+        for (noidEnd = noidStart; noidEnd < aID.length(); noidEnd++) {
+            final char character = aID.charAt(noidEnd);
+
+            if (character == '/' || character == '.') {
+                break;
+            }
+        }
+
+        return noidEnd > noidStart && ChecksumUtils.validate(aID, noidStart, noidEnd, aNoidType);
+    }
+
+    /**
+     * Sends an error response.
+     *
+     * @param aResponse An HTTP response
+     * @param aStatusCode The response's status code
+     * @param aMessage An error message
+     */
+    private static void sendError(final HttpServerResponse aResponse, final int aStatusCode, final String aMessage) {
+        aResponse.setStatusCode(aStatusCode);
+        aResponse.setStatusMessage(aMessage);
+        aResponse.putHeader(HTTP.Response.CONTENT_TYPE, ContentType.TEXT);
+        aResponse.end(aMessage, StandardCharsets.UTF_8.displayName());
+    }
+
+    /**
+     * A validation of the identifiers streamed in a request's body, whose results are streamed to the response.
+     */
+    private final class Validation {
+
+        /* The request whose identifiers are validated. */
+        private final HttpServerRequest myRequest;
+
+        /* The response to which the results are streamed. */
+        private final HttpServerResponse myResponse;
+
+        /* The type of the identifiers' NOIDs. */
+        private final NoidType myNoidType;
+
+        /* Whether only the results of the identifiers that aren't valid are streamed. */
+        private final boolean isFailuresOnly;
+
+        /* The results of the chunks that are being validated, in the order the chunks were read. */
+        private final Deque<Future<Buffer>> myChunks = new ArrayDeque<>();
+
+        /* The part of the body that's been read but not yet cut into a chunk. */
+        private Buffer myPending = Buffer.buffer();
+
+        /* The number of bytes of the body that have been read. */
+        private long myReadCount;
+
+        /* Whether the whole body has been read. */
+        private boolean isEnded;
+
+        /* Whether reading the body is paused. */
+        private boolean isPaused;
+
+        /* Whether the validation has failed. */
+        private boolean isFailed;
+
+        /**
+         * Creates a new validation.
+         *
+         * @param aRequest The request whose identifiers are validated
+         * @param aNoidType The type of the identifiers' NOIDs
+         * @param aFailuresOnly Whether only the results of the identifiers that aren't valid are streamed
+         */
+        private Validation(final HttpServerRequest aRequest, final NoidType aNoidType, final boolean aFailuresOnly) {
+            myResponse = aRequest.response();
+            isFailuresOnly = aFailuresOnly;
+            myNoidType = aNoidType;
+            myRequest = aRequest;
+        }
+
+        /**
+         * Starts reading the request's body.
+         */
+        private void start() {
+            myRequest.handler(this::read).endHandler(end -> end()).exceptionHandler(this::fail);
+        }
+
+        /**
+         * Reads a part of the request's body, cutting a chunk from what's been read once there's enough of it.
+         *
+         * @param aBuffer A part of the request's body
+         */
+        private void read(final Buffer aBuffer) {
+            if (isFailed) {
+                return;
+            }
+
+            myReadCount += aBuffer.length();
+            myPending.appendBuffer(aBuffer);
+
+            if (myPending.length() >= CHUNK_SIZE) {
+                final int cut = lastIndexOfNewline(myPending);
+
+                if (cut == -1) {
+                    fail(HTTP.BAD_REQUEST, LOGGER.getMessage(MessageCodes.ARK_070, CHUNK_SIZE));
+                } else {
+                    validate(myPending.getBuffer(0, cut + 1));
+                    myPending = myPending.getBuffer(cut + 1, myPending.length());
+                }
+            }
+        }
+
+        /**
+         * Validates the rest of what's been read once the whole body has been.
+         */
+        private void end() {
+            if (isFailed) {
+                return;
+            }
+
+            isEnded = true;
+
+            if (myPending.length() > 0) {
+                validate(myPending);
+                myPending = Buffer.buffer();
+            }
+
+            write();
+        }
+
+        /**
+         * Validates a chunk of identifiers on a worker thread.
+         *
+         * @param aChunk A chunk of identifiers
+         */
+        private void validate(final Buffer aChunk) {
+            // The chunks aren't ordered, so several can be validated at once; their results are written in order
+            final Future<Buffer> results = myVertx
+                    .executeBlocking(() -> ValidateHandler.validate(aChunk, myNoidType, isFailuresOnly), false);
+
+            myChunks.add(results);
+            results.onComplete(validation -> write());
+            updateFlow();
+        }
+
+        /**
+         * Writes the results of the chunks that have been validated, up to the first that's still being validated,
+         * and ends the response once the whole body has been read and validated.
+         */
+        private void write() {
+            // The client has gone away, so there's no one to send the results to
+            if (myResponse.closed()) {
+                stop();
+                return;
+            }
+
+            while (!isFailed && !myChunks.isEmpty() && myChunks.peek().isComplete()) {
+                final Future<Buffer> results = myChunks.poll();
+
+                if (results.failed()) {
+                    fail(results.cause());
+                } else if (results.result().length() > 0) {
+                    startResponse().write(results.result());
+                }
+            }
+
+            if (!isFailed) {
+                if (isEnded && myChunks.isEmpty()) {
+                    startResponse().end();
+                } else {
+                    updateFlow();
+                }
+            }
+        }
+
+        /**
+         * Pauses reading the body while the largest number of chunks are being validated, or while the response's
+         * write queue is full, and resumes it once neither is the case.
+         */
+        private void updateFlow() {
+            final boolean isWriteQueueFull = myResponse.writeQueueFull();
+
+            if (myChunks.size() >= MAX_CHUNKS || isWriteQueueFull) {
+                if (!isPaused) {
+                    myRequest.pause();
+                    isPaused = true;
+                }
+
+                if (isWriteQueueFull) {
+                    myResponse.drainHandler(drain -> updateFlow());
+                }
+            } else if (isPaused) {
+                myRequest.resume();
+                isPaused = false;
+            }
+        }
+
+        /**
+         * Starts the response, if it hasn't been started already.
+         *
+         * @return The response
+         */
+        private HttpServerResponse startResponse() {
+            if (!myResponse.headWritten()) {
+                myResponse.setStatusCode(HTTP.OK);
+                myResponse.putHeader(HTTP.Response.CONTENT_TYPE, ContentType.NDJSON).setChunked(true);
+            }
+
+            return myResponse;
+        }
+
+        /**
+         * Handles a failure to read or validate the identifiers.
+         *
+         * @param aCause The cause of the failure
+         */
+        private void fail(final Throwable aCause) {
+            final String message = aCause.getMessage();
+
+            // Not every exception has a message, but the error response and the log still need one
+            fail(HTTP.INTERNAL_SERVER_ERROR,
+                    message != null ? message : LOGGER.getMessage(MessageCodes.ARK_081, aCause.getClass().getName()));
+        }
+
+        /**
+         * Handles a failure to read or validate the identifiers. If nothing has been streamed yet, an error response
+         * is sent. Otherwise, the response is already underway, so the connection is closed without ending it.
+         *
+         * @param aStatusCode The status code of the error response
+         * @param aMessage An error message
+         */
+        private void fail(final int aStatusCode, final String aMessage) {
+            stop();
+
+            if (myResponse.closed()) {
+                return;
+            }
+
+            if (myResponse.headWritten()) {
+                LOGGER.error(MessageCodes.ARK_071, myReadCount, aMessage);
+                myResponse.close();
+            } else {
+                sendError(myResponse, aStatusCode, aMessage);
+            }
+        }
+
+        /**
+         * Stops the validation. The rest of the body is read, if there is any, but it's ignored.
+         */
+        private void stop() {
+            isFailed = true;
+            myChunks.clear();
+
+            if (isPaused) {
+                myRequest.resume();
+                isPaused = false;
+            }
+        }
+
+        /**
+         * Gets the index of the last newline in the supplied buffer.
+         *
+         * @param aBuffer A buffer
+         * @return The index of the buffer's last newline, or -1 if it doesn't have one
+         */
+        private int lastIndexOfNewline(final Buffer aBuffer) {
+            for (int index = aBuffer.length() - 1; index >= 0; index--) {
+                if (aBuffer.getByte(index) == NEWLINE) {
+                    return index;
+                }
+            }
+
+            return -1;
+        }
+    }
+}
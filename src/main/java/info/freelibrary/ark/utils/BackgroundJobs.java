@@ -0,0 +1,173 @@
+
+package info.freelibrary.ark.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.HTTP;
+import info.freelibrary.ark.MessageCodes;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.WorkerExecutor;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * A bounded executor for long-running jobs (e.g., materializing a large namespace), which are kept off the
+ * {@link MintingLanes} so they don't hold up the quick requests, like mints, that are waiting in the same lane.
+ * <p>
+ * The jobs run on a worker pool of their own, so only a limited number of them run at once, and only a limited number
+ * can wait for a worker. A job that's submitted while the queue is full fails right away with a <code>429 Too Many
+ * Requests</code> failure code.
+ * </p>
+ * <p>
+ * The jobs are shared by all the verticles in a Vert.x instance, and are thread-safe.
+ * </p>
+ */
+public class BackgroundJobs implements Shareable {
+
+    /**
+     * The metric for the largest number of jobs that run at once.
+     */
+    public static final String JOB_LIMIT = "jobLimit";
+
+    /**
+     * The metric for the largest number of jobs that can wait for a worker.
+     */
+    public static final String QUEUE_LIMIT = "queueLimit";
+
+    /**
+     * The metric for the number of jobs that are running or waiting for a worker.
+     */
+    public static final String PENDING = "pending";
+
+    /**
+     * The default largest number of jobs that run at once.
+     */
+    public static final int DEFAULT_JOB_LIMIT = 2;
+
+    /**
+     * The default largest number of jobs that can wait for a worker.
+     */
+    public static final int DEFAULT_QUEUE_LIMIT = 100;
+
+    /* The logger for the background jobs. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackgroundJobs.class, MessageCodes.BUNDLE);
+
+    /* The name of the local map the jobs are shared through, which is also the name of their worker pool. */
+    private static final String SHARED_MAP = BackgroundJobs.class.getName();
+
+    /* The key of the jobs in the local map. */
+    private static final String JOBS = "jobs";
+
+    /* The number of minutes a job can run before it's reported as blocking its worker. */
+    private static final long MAX_EXECUTE_TIME = 10;
+
+    /* The executor that runs the jobs. */
+    private final WorkerExecutor myExecutor;
+
+    /* The number of jobs that are running or waiting for a worker. */
+    private final AtomicInteger myPending = new AtomicInteger();
+
+    /* The largest number of jobs that run at once. */
+    private final int myJobLimit;
+
+    /* The largest number of jobs that can wait for a worker. */
+    private final int myQueueLimit;
+
+    /**
+     * Creates a new executor for background jobs.
+     *
+     * @param aVertx A Vert.x instance
+     * @param aJobLimit The largest number of jobs that run at once
+     * @param aQueueLimit The largest number of jobs that can wait for a worker
+     */
+    public BackgroundJobs(final Vertx aVertx, final int aJobLimit, final int aQueueLimit) {
+        myJobLimit = Math.max(1, aJobLimit);
+        myQueueLimit = Math.max(0, aQueueLimit);
+        myExecutor = aVertx.createSharedWorkerExecutor(SHARED_MAP, myJobLimit, MAX_EXECUTE_TIME, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Shares the jobs with the other verticles in the supplied Vert.x instance.
+     *
+     * @param aVertx A Vert.x instance
+     * @return The jobs
+     */
+    public BackgroundJobs share(final Vertx aVertx) {
+        aVertx.sharedData().<String, BackgroundJobs>getLocalMap(SHARED_MAP).put(JOBS, this);
+        return this;
+    }
+
+    /**
+     * Gets the jobs that are shared in the supplied Vert.x instance. If none have been shared, jobs with the default
+     * limits are.
+     *
+     * @param aVertx A Vert.x instance
+     * @return The shared jobs
+     */
+    public static BackgroundJobs get(final Vertx aVertx) {
+        final LocalMap<String, BackgroundJobs> map = aVertx.sharedData().getLocalMap(SHARED_MAP);
+        final BackgroundJobs jobs = map.get(JOBS);
+
+        if (jobs == null) {
+            final BackgroundJobs defaultJobs = new BackgroundJobs(aVertx, DEFAULT_JOB_LIMIT, DEFAULT_QUEUE_LIMIT);
+            final BackgroundJobs sharedJobs = map.putIfAbsent(JOBS, defaultJobs);
+
+            if (sharedJobs == null) {
+                return defaultJobs;
+            }
+
+            // Another caller shared its jobs first, so the reference this one took to the worker pool is released
+            defaultJobs.close();
+            return sharedJobs;
+        }
+
+        return jobs;
+    }
+
+    /**
+     * Submits a job. Its result is handled on the submitter's context.
+     *
+     * @param <T> The type of the job's result
+     * @param aJob A job
+     * @return The job's result, or a failure with a <code>429</code> failure code if the queue is full
+     */
+    public <T> Future<T> submit(final Callable<T> aJob) {
+        if (myPending.incrementAndGet() > myJobLimit + myQueueLimit) {
+            myPending.decrementAndGet();
+            return Future.failedFuture(new ReplyException(ReplyFailure.RECIPIENT_FAILURE, HTTP.TOO_MANY_REQUESTS,
+                    LOGGER.getMessage(MessageCodes.ARK_065, myQueueLimit)));
+        }
+
+        // Jobs aren't ordered, so several submitted from the same context can run at once
+        return myExecutor.executeBlocking(aJob, false).onComplete(job -> myPending.decrementAndGet());
+    }
+
+    /**
+     * Gets the jobs' metrics.
+     *
+     * @return The jobs' metrics, as JSON
+     */
+    public JsonObject getMetrics() {
+        return new JsonObject().put(JOB_LIMIT, myJobLimit).put(QUEUE_LIMIT, myQueueLimit).put(PENDING,
+                myPending.get());
+    }
+
+    /**
+     * Closes the jobs' executor.
+     *
+     * @return A future that completes once the executor is closed
+     */
+    public Future<Void> close() {
+        return myExecutor.close();
+    }
+}
@@ -1,7 +1,8 @@
 
 package info.freelibrary.ark.utils;
 
-import java.util.stream.IntStream;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
 
 import info.freelibrary.ark.NoidType;
 
@@ -9,9 +10,33 @@ import info.freelibrary.ark.NoidType;
  * Utilities for creating and validating NOID checksums. NOID checksums that are created by this library use the (Luhn
  * mod N algorithm)[https://en.wikipedia.org/wiki/Luhn_mod_N_algorithm]. They are intended to catch typos, not protect
  * against malicious intents.
+ * <p>
+ * Each NOID type's addends, both as is and doubled, are precomputed for every ASCII character, so a checksum is a table
+ * lookup and an add per character, without searching the alphabet or allocating. Besides the methods that work with a
+ * single NOID, there are bulk methods that validate, or append checksums to, an array of NOIDs or a newline-delimited
+ * buffer of them in one pass.
+ * </p>
  */
 public final class ChecksumUtils {
 
+    /* The number of ASCII characters. */
+    private static final int ASCII_SIZE = 128;
+
+    /* The addends of the ASCII characters, by NOID type. */
+    private static final int[][] ADDENDS = getAddends(1);
+
+    /* The doubled addends of the ASCII characters, by NOID type. */
+    private static final int[][] DOUBLED_ADDENDS = getAddends(2);
+
+    /* A character outside a NOID type's alphabet (e.g., in a shoulder) has always been summed as code point -1. */
+    private static final int NO_CODE_POINT = -1;
+
+    /* The byte that ends a NOID in a newline-delimited buffer. */
+    private static final byte NEWLINE = '\n';
+
+    /* The byte that can precede a newline in a newline-delimited buffer. */
+    private static final byte CARRIAGE_RETURN = '\r';
+
     // Utility classes should not have public constructors
     private ChecksumUtils() {
     }
@@ -24,20 +49,45 @@ public final class ChecksumUtils {
      * @return A checksum character
      */
     public static Character getChecksum(final String aBareNOID, final NoidType aNoidType) {
-        final Character[] characters = aNoidType.getCharacters();
+        return getChecksum(aBareNOID, 0, aBareNOID.length(), aNoidType);
+    }
 
-        int factor = 2;
-        int sum = 0;
+    /**
+     * Gets a checksum character for the NOID in the supplied range of a character sequence.
+     *
+     * @param aBareNOID A character sequence holding a NOID for which to create a checksum
+     * @param aStart The index of the NOID's first character
+     * @param aEnd The index after the NOID's last character
+     * @param aNoidType The type of NOID supplied
+     * @return A checksum character
+     */
+    public static char getChecksum(final CharSequence aBareNOID, final int aStart, final int aEnd,
+            final NoidType aNoidType) {
+        return getChecksum(getSum(aBareNOID, aStart, aEnd, true, aNoidType), aNoidType);
+    }
+
+    /**
+     * Gets a checksum character for the NOID held in the first <code>aLength</code> characters of the supplied array.
+     * This lets minters that assemble NOIDs in a reusable buffer compute checksums without first creating a string.
+     *
+     * @param aBareNOID A character array holding a NOID for which to create a checksum
+     * @param aLength The number of characters in the array that make up the NOID
+     * @param aNoidType The type of NOID supplied
+     * @return A checksum character
+     */
+    public static char getChecksum(final char[] aBareNOID, final int aLength, final NoidType aNoidType) {
+        final int[] addends = ADDENDS[aNoidType.ordinal()];
+        final int[] doubledAddends = DOUBLED_ADDENDS[aNoidType.ordinal()];
 
-        for (int index = aBareNOID.length() - 1; index >= 0; index--) {
-            int addend = factor * getCodePoint(aBareNOID.charAt(index), characters);
+        boolean isDoubled = true;
+        int sum = 0;
 
-            factor = factor == 2 ? 1 : 2;
-            addend = addend / characters.length + addend % characters.length;
-            sum += addend;
+        for (int index = aLength - 1; index >= 0; index--) {
+            sum += getAddend(aBareNOID[index], isDoubled ? doubledAddends : addends, isDoubled);
+            isDoubled = !isDoubled;
         }
 
-        return characters[(characters.length - sum % characters.length) % characters.length];
+        return getChecksum(sum, aNoidType);
     }
 
     /**
@@ -48,7 +98,66 @@ public final class ChecksumUtils {
      * @return A NOID with a checksum
      */
     public static String appendChecksum(final String aBareNOID, final NoidType aNoidType) {
-        return new StringBuilder(aBareNOID).append(getChecksum(aBareNOID, aNoidType)).toString();
+        return new StringBuilder(aBareNOID.length() + 1).append(aBareNOID).append(getChecksum(aBareNOID, aNoidType))
+                .toString();
+    }
+
+    /**
+     * Appends checksums to the ends of the supplied NOIDs.
+     *
+     * @param aBareNOIDs NOIDs without checksums already appended
+     * @param aNoidType The type of NOIDs supplied
+     * @return The NOIDs with checksums, in the order they were supplied
+     */
+    public static String[] appendChecksums(final CharSequence[] aBareNOIDs, final NoidType aNoidType) {
+        final String[] noids = new String[aBareNOIDs.length];
+
+        for (int index = 0; index < aBareNOIDs.length; index++) {
+            final CharSequence bareNOID = aBareNOIDs[index];
+            final int length = bareNOID.length();
+
+            noids[index] = new StringBuilder(length + 1).append(bareNOID)
+                    .append(getChecksum(bareNOID, 0, length, aNoidType)).toString();
+        }
+
+        return noids;
+    }
+
+    /**
+     * Appends checksums to the newline-delimited NOIDs in the supplied source buffer, writing each NOID, its checksum,
+     * and a newline to the target buffer. The source is read from its position to its limit; the last NOID doesn't need
+     * to end with a newline, and a carriage return before a newline is dropped. If the target fills up, the NOIDs that
+     * fit are written and the source is left positioned at the first one that didn't, so the caller can drain the
+     * target and call this again.
+     *
+     * @param aSource A buffer of newline-delimited NOIDs without checksums, encoded in ASCII
+     * @param aTarget A buffer to write the NOIDs with checksums to
+     * @param aNoidType The type of NOIDs supplied
+     * @return The number of NOIDs that were written to the target
+     */
+    public static int appendChecksums(final ByteBuffer aSource, final ByteBuffer aTarget, final NoidType aNoidType) {
+        int count = 0;
+
+        while (aSource.hasRemaining()) {
+            final int start = aSource.position();
+            final int end = getLineEnd(aSource, start);
+            final int noidEnd = getNoidEnd(aSource, start, end);
+
+            // A NOID is written whole, along with its checksum and a newline, or not at all
+            if (aTarget.remaining() < noidEnd - start + 2) {
+                break;
+            }
+
+            for (int index = start; index < noidEnd; index++) {
+                aTarget.put(aSource.get(index));
+            }
+
+            aTarget.put((byte) getChecksum(getSum(aSource, start, noidEnd, true, aNoidType), aNoidType)).put(NEWLINE);
+            aSource.position(Math.min(end + 1, aSource.limit()));
+            count++;
+        }
+
+        return count;
     }
 
     /**
@@ -58,31 +167,224 @@ public final class ChecksumUtils {
      * @param aNoidType The type of NOID supplied
      * @return True if the NOID's checksum is valid; else, false
      */
-    public static boolean validate(final String aNOID, final NoidType aNoidType) {
-        final int charCount = aNoidType.getCharacterCount();
+    public static boolean validate(final CharSequence aNOID, final NoidType aNoidType) {
+        return validate(aNOID, 0, aNOID.length(), aNoidType);
+    }
+
+    /**
+     * Validate a NOID, with a checksum at the end of it, in the supplied range of a character sequence (e.g., the NOID
+     * part of an ARK).
+     *
+     * @param aNOID A character sequence holding a NOID to validate
+     * @param aStart The index of the NOID's first character
+     * @param aEnd The index after the NOID's checksum
+     * @param aNoidType The type of NOID supplied
+     * @return True if the NOID's checksum is valid; else, false
+     */
+    public static boolean validate(final CharSequence aNOID, final int aStart, final int aEnd,
+            final NoidType aNoidType) {
+        return getSum(aNOID, aStart, aEnd, false, aNoidType) % aNoidType.getCharacterCount() == 0;
+    }
+
+    /**
+     * Finds the supplied NOIDs that don't have valid checksums at the end of them.
+     *
+     * @param aNOIDs NOIDs to validate
+     * @param aNoidType The type of NOIDs supplied
+     * @return The indexes of the NOIDs whose checksums aren't valid
+     */
+    public static BitSet findInvalid(final CharSequence[] aNOIDs, final NoidType aNoidType) {
+        final int radix = aNoidType.getCharacterCount();
+        final BitSet invalid = new BitSet();
 
-        int factor = 1;
+        for (int index = 0; index < aNOIDs.length; index++) {
+            final CharSequence noid = aNOIDs[index];
+
+            if (getSum(noid, 0, noid.length(), false, aNoidType) % radix != 0) {
+                invalid.set(index);
+            }
+        }
+
+        return invalid;
+    }
+
+    /**
+     * Finds the newline-delimited NOIDs in the supplied buffer that don't have valid checksums at the end of them. The
+     * buffer is read from its position to its limit, and is left positioned at its limit; the last NOID doesn't need to
+     * end with a newline, and a carriage return before a newline is ignored.
+     *
+     * @param aNOIDs A buffer of newline-delimited NOIDs, encoded in ASCII
+     * @param aNoidType The type of NOIDs supplied
+     * @return The line numbers, counting from zero, of the NOIDs whose checksums aren't valid
+     */
+    public static BitSet findInvalid(final ByteBuffer aNOIDs, final NoidType aNoidType) {
+        final int radix = aNoidType.getCharacterCount();
+        final BitSet invalid = new BitSet();
+
+        for (int line = 0; aNOIDs.hasRemaining(); line++) {
+            final int start = aNOIDs.position();
+            final int end = getLineEnd(aNOIDs, start);
+
+            if (getSum(aNOIDs, start, getNoidEnd(aNOIDs, start, end), false, aNoidType) % radix != 0) {
+                invalid.set(line);
+            }
+
+            aNOIDs.position(Math.min(end + 1, aNOIDs.limit()));
+        }
+
+        return invalid;
+    }
+
+    /**
+     * Gets the Luhn mod N sum of the NOID in the supplied range of a character sequence.
+     *
+     * @param aNOID A character sequence holding a NOID
+     * @param aStart The index of the NOID's first character
+     * @param aEnd The index after the NOID's last character
+     * @param aDoubled Whether the NOID's last character is doubled (i.e., whether it's missing its checksum)
+     * @param aNoidType The type of NOID supplied
+     * @return The NOID's sum
+     */
+    private static int getSum(final CharSequence aNOID, final int aStart, final int aEnd, final boolean aDoubled,
+            final NoidType aNoidType) {
+        final int[] addends = ADDENDS[aNoidType.ordinal()];
+        final int[] doubledAddends = DOUBLED_ADDENDS[aNoidType.ordinal()];
+
+        boolean isDoubled = aDoubled;
         int sum = 0;
 
-        for (int index = aNOID.length() - 1; index >= 0; index--) {
-            int addend = factor * getCodePoint(aNOID.charAt(index), aNoidType.getCharacters());
+        for (int index = aEnd - 1; index >= aStart; index--) {
+            sum += getAddend(aNOID.charAt(index), isDoubled ? doubledAddends : addends, isDoubled);
+            isDoubled = !isDoubled;
+        }
+
+        return sum;
+    }
+
+    /**
+     * Gets the Luhn mod N sum of the ASCII encoded NOID in the supplied range of a buffer.
+     *
+     * @param aNOID A buffer holding a NOID
+     * @param aStart The index of the NOID's first byte
+     * @param aEnd The index after the NOID's last byte
+     * @param aDoubled Whether the NOID's last character is doubled (i.e., whether it's missing its checksum)
+     * @param aNoidType The type of NOID supplied
+     * @return The NOID's sum
+     */
+    private static int getSum(final ByteBuffer aNOID, final int aStart, final int aEnd, final boolean aDoubled,
+            final NoidType aNoidType) {
+        final int[] addends = ADDENDS[aNoidType.ordinal()];
+        final int[] doubledAddends = DOUBLED_ADDENDS[aNoidType.ordinal()];
+
+        boolean isDoubled = aDoubled;
+        int sum = 0;
 
-            factor = factor == 2 ? 1 : 2;
-            addend = addend / charCount + addend % charCount;
-            sum += addend;
+        for (int index = aEnd - 1; index >= aStart; index--) {
+            sum += getAddend((char) (aNOID.get(index) & 0xFF), isDoubled ? doubledAddends : addends, isDoubled);
+            isDoubled = !isDoubled;
         }
 
-        return sum % charCount == 0;
+        return sum;
     }
 
     /**
-     * Get the code point for the supplied character.
+     * Gets the addend the supplied character contributes to a NOID's sum. Along with
+     * {@link #getChecksum(int, NoidType)} this lets a minter keep a NOID's sum as it goes, updating it for just the
+     * characters that change from one NOID to the next.
      *
-     * @param aChar A character for which to get the code point
-     * @param aCharArray A character array
-     * @return A code point
+     * @param aChar A character
+     * @param aDoubled Whether the character's position is doubled (i.e., whether it's an even number of characters
+     *        before the checksum)
+     * @param aNoidType The type of NOID the character is in
+     * @return The character's addend
      */
-    private static int getCodePoint(final char aChar, final Character[] aCharArray) {
-        return IntStream.range(0, aCharArray.length).filter(index -> aChar == aCharArray[index]).findFirst().orElse(-1);
+    static int getAddend(final char aChar, final boolean aDoubled, final NoidType aNoidType) {
+        return getAddend(aChar, (aDoubled ? DOUBLED_ADDENDS : ADDENDS)[aNoidType.ordinal()], aDoubled);
+    }
+
+    /**
+     * Gets the addend of the supplied character from an addend table.
+     *
+     * @param aChar A character
+     * @param aAddends The addend table of the character's position (i.e., doubled or not)
+     * @param aDoubled Whether the character's position is doubled
+     * @return The character's addend
+     */
+    private static int getAddend(final char aChar, final int[] aAddends, final boolean aDoubled) {
+        if (aChar < ASCII_SIZE) {
+            return aAddends[aChar];
+        }
+
+        return aDoubled ? NO_CODE_POINT * 2 : NO_CODE_POINT;
+    }
+
+    /**
+     * Gets the checksum character that brings the supplied sum to a multiple of the NOID type's radix.
+     *
+     * @param aSum The Luhn mod N sum of a NOID without a checksum
+     * @param aNoidType The type of NOID
+     * @return A checksum character
+     */
+    static char getChecksum(final int aSum, final NoidType aNoidType) {
+        final int radix = aNoidType.getCharacterCount();
+        return aNoidType.getCharacter((radix - aSum % radix) % radix);
+    }
+
+    /**
+     * Gets the index of the newline that ends the line starting at the supplied index, or the buffer's limit if the
+     * line doesn't end with one.
+     *
+     * @param aBuffer A buffer of newline-delimited lines
+     * @param aStart The index of the line's first byte
+     * @return The index of the newline that ends the line, or the buffer's limit
+     */
+    private static int getLineEnd(final ByteBuffer aBuffer, final int aStart) {
+        final int limit = aBuffer.limit();
+
+        for (int index = aStart; index < limit; index++) {
+            if (aBuffer.get(index) == NEWLINE) {
+                return index;
+            }
+        }
+
+        return limit;
+    }
+
+    /**
+     * Gets the index after the last byte of the NOID in the supplied line, dropping a carriage return that ends it.
+     *
+     * @param aBuffer A buffer of newline-delimited lines
+     * @param aStart The index of the line's first byte
+     * @param aEnd The index of the newline that ends the line, or the buffer's limit
+     * @return The index after the NOID's last byte
+     */
+    private static int getNoidEnd(final ByteBuffer aBuffer, final int aStart, final int aEnd) {
+        return aEnd > aStart && aBuffer.get(aEnd - 1) == CARRIAGE_RETURN ? aEnd - 1 : aEnd;
+    }
+
+    /**
+     * Precomputes each NOID type's addends of the ASCII characters, for the supplied factor. An addend is the factor
+     * times the character's code point, with its digits summed in the type's radix.
+     *
+     * @param aFactor The factor the code points are multiplied by (i.e., 1 or 2)
+     * @return The addends, by NOID type and ASCII character
+     */
+    private static int[][] getAddends(final int aFactor) {
+        final NoidType[] types = NoidType.values();
+        final int[][] addends = new int[types.length][];
+
+        for (final NoidType type : types) {
+            final int radix = type.getCharacterCount();
+            final int[] typeAddends = new int[ASCII_SIZE];
+
+            for (char character = 0; character < ASCII_SIZE; character++) {
+                final int product = aFactor * type.getCodePoint(character);
+                typeAddends[character] = product / radix + product % radix;
+            }
+
+            addends[type.ordinal()] = typeAddends;
+        }
+
+        return addends;
     }
 }
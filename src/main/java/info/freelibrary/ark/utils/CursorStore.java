@@ -0,0 +1,210 @@
+
+package info.freelibrary.ark.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.mapdb.DB;
+import org.mapdb.DBException;
+import org.mapdb.HTreeMap;
+import org.mapdb.Serializer;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.MessageCodes;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+/**
+ * A durable store of namespace cursors (i.e., the index position of the next NOID to mint in each namespace).
+ * <p>
+ * Cursor advances are committed in groups: an advance is held by the store until the commit window has passed since
+ * the first uncommitted advance, or until enough advances have been collected, and then the group is written and
+ * committed together. The future returned for an advance completes after its group has been
+ * committed, so a NOID that's only returned once its future completes can never be minted again, even after a crash.
+ * Under load, this costs one database commit (and so, one sync to disk) per group of advances rather than one per NOID.
+ * </p>
+ * <p>
+ * The store isn't thread-safe; it should only be used from the context of the verticle that created it. Several stores
+ * (e.g., one per minting lane) can share a database, though, as long as each namespace's cursor is only advanced by
+ * one of them: a store only writes to the database while it holds the database's lock, and it commits (or rolls back)
+ * before releasing it, so a commit or rollback by one store never includes another's uncommitted advances. Other
+ * writes to a shared database should be made, and committed, while holding its lock too.
+ * </p>
+ */
+public class CursorStore {
+
+    /* The logger for the cursor store. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(CursorStore.class, MessageCodes.BUNDLE);
+
+    /* The name of the table of namespace cursors. */
+    private static final String CURSORS = "covenant.cursors";
+
+    /* A timer ID that means no commit is scheduled. */
+    private static final long NO_TIMER = -1;
+
+    /* The Vert.x instance used to schedule commits. */
+    private final Vertx myVertx;
+
+    /* The database the cursors are stored in. */
+    private final DB myDb;
+
+    /* The cursors, by namespace. */
+    private final HTreeMap<String, Long> myCursors;
+
+    /* The number of milliseconds to wait before committing a group of advances. */
+    private final long myCommitWindow;
+
+    /* The number of advances that triggers a commit without waiting for the window to close. */
+    private final int myMaxGroupSize;
+
+    /* The advances that are waiting to be committed. */
+    private final List<Promise<Void>> myPending = new ArrayList<>();
+
+    /* The cursors that are waiting to be committed, by namespace. */
+    private final Map<String, Long> myPendingCursors = new HashMap<>();
+
+    /* The ID of the timer for the next scheduled commit. */
+    private long myTimerID = NO_TIMER;
+
+    /**
+     * Creates a new cursor store.
+     *
+     * @param aVertx A Vert.x instance
+     * @param aDb The database in which to store the cursors
+     * @param aCommitWindow The number of milliseconds to collect advances before committing them; if it's not
+     *        positive, each advance is committed as soon as it's made
+     * @param aMaxGroupSize The largest number of advances to collect before committing them
+     */
+    public CursorStore(final Vertx aVertx, final DB aDb, final long aCommitWindow, final int aMaxGroupSize) {
+        synchronized (aDb) {
+            myCursors = aDb.hashMap(CURSORS, Serializer.STRING, Serializer.LONG).createOrOpen();
+        }
+
+        myMaxGroupSize = Math.max(1, aMaxGroupSize);
+        myCommitWindow = aCommitWindow;
+        myVertx = aVertx;
+        myDb = aDb;
+    }
+
+    /**
+     * Gets the cursor for the supplied namespace, including any advance that's waiting to be committed.
+     *
+     * @param aNamespace A namespace
+     * @return The namespace's cursor, or zero if the namespace doesn't have one
+     */
+    public long get(final String aNamespace) {
+        final Long cursor = myPendingCursors.get(aNamespace);
+        return cursor != null ? cursor : myCursors.getOrDefault(aNamespace, 0L);
+    }
+
+    /**
+     * Sets the cursor for a new namespace. The cursor is committed with the rest of the namespace's creation, so the
+     * caller should hold the database's lock.
+     *
+     * @param aNamespace A new namespace
+     * @param aCursor The namespace's initial cursor
+     */
+    public void put(final String aNamespace, final long aCursor) {
+        myCursors.put(aNamespace, aCursor);
+    }
+
+    /**
+     * Advances the cursor for the supplied namespace.
+     *
+     * @param aNamespace A namespace
+     * @param aCursor The namespace's new cursor
+     * @return A future that completes once the advance has been committed, or fails if the commit fails
+     */
+    public Future<Void> advance(final String aNamespace, final long aCursor) {
+        final Promise<Void> promise = Promise.promise();
+
+        myPendingCursors.put(aNamespace, aCursor);
+        myPending.add(promise);
+
+        if (myCommitWindow <= 0 || myPending.size() >= myMaxGroupSize) {
+            commit();
+        } else if (myTimerID == NO_TIMER) {
+            myTimerID = myVertx.setTimer(myCommitWindow, timerID -> {
+                myTimerID = NO_TIMER;
+                commit();
+            });
+        }
+
+        return promise.future();
+    }
+
+    /**
+     * Commits the advances that are waiting to be committed. If the commit fails, the uncommitted advances are rolled
+     * back and their futures fail.
+     */
+    public void commit() {
+        final List<Promise<Void>> group = new ArrayList<>(myPending);
+
+        cancelTimer();
+        myPending.clear();
+
+        if (!group.isEmpty()) {
+            // A failed commit is rolled back before the lock is released, so no other store can commit its writes
+            synchronized (myDb) {
+                try {
+                    myCursors.putAll(myPendingCursors);
+                    myDb.commit();
+                } catch (final DBException details) {
+                    LOGGER.error(details, details.getMessage());
+                    rollback(group, details);
+                    return;
+                }
+            }
+
+            myPendingCursors.clear();
+
+            LOGGER.trace(MessageCodes.ARK_049, group.size());
+            group.forEach(Promise::complete);
+        }
+    }
+
+    /**
+     * Rolls back the database's current transaction, failing the futures of any advances that were waiting to be
+     * committed.
+     *
+     * @param aCause The reason for the rollback
+     */
+    public void rollback(final Throwable aCause) {
+        final List<Promise<Void>> group = new ArrayList<>(myPending);
+
+        cancelTimer();
+        myPending.clear();
+        rollback(group, aCause);
+    }
+
+    /**
+     * Rolls back the database's current transaction and fails the supplied group of advances.
+     *
+     * @param aGroup A group of uncommitted advances
+     * @param aCause The reason for the rollback
+     */
+    private void rollback(final List<Promise<Void>> aGroup, final Throwable aCause) {
+        synchronized (myDb) {
+            myDb.rollback();
+        }
+
+        myPendingCursors.clear();
+        aGroup.forEach(promise -> promise.fail(aCause));
+    }
+
+    /**
+     * Cancels the scheduled commit, if there is one.
+     */
+    private void cancelTimer() {
+        if (myTimerID != NO_TIMER) {
+            myVertx.cancelTimer(myTimerID);
+            myTimerID = NO_TIMER;
+        }
+    }
+}
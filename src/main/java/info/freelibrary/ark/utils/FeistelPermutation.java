@@ -0,0 +1,210 @@
+
+package info.freelibrary.ark.utils;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.MessageCodes;
+
+/**
+ * A keyed permutation of <code>[0, size)</code> built from a Feistel network.
+ * <p>
+ * The network works on the smallest number of bits that can hold <code>size - 1</code>, split into two halves that
+ * may differ in width by one bit (so the network's domain is never more than twice the permutation's size). Values
+ * that the network maps outside of <code>[0, size)</code> are fed back through it (i.e., cycle-walking) until they
+ * land inside the range; on average that takes fewer than two passes. Both directions are computed directly, so any
+ * position in a randomized sequence can be found without generating the positions before it.
+ * </p>
+ */
+public class FeistelPermutation implements Permutation {
+
+    /* The <code>serialVersionUID</code> for FeistelPermutation. */
+    private static final long serialVersionUID = -4417286421931738823L;
+
+    /* The permutation's logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(FeistelPermutation.class, MessageCodes.BUNDLE);
+
+    /* The number of Feistel rounds; it must be even so the halves end up with the widths they started with. */
+    private static final int ROUNDS = 8;
+
+    /* The golden ratio increment used to derive round keys (from the SplitMix64 generator). */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    /* The number of positions that are permuted. */
+    private final long mySize;
+
+    /* The key the permutation was created with. */
+    private final long myKey;
+
+    /* The per-round keys derived from the permutation's key. */
+    private final long[] myRoundKeys;
+
+    /* The width, in bits, of the network's left half. */
+    private final int myLeftBits;
+
+    /* The width, in bits, of the network's right half. */
+    private final int myRightBits;
+
+    /**
+     * Creates a new keyed permutation of <code>[0, size)</code>.
+     *
+     * @param aSize The number of positions to permute
+     * @param aKey A key that determines the permutation
+     * @throws IllegalArgumentException If the supplied size isn't positive
+     */
+    public FeistelPermutation(final long aSize, final long aKey) {
+        final int bits;
+
+        if (aSize <= 0) {
+            throw new IllegalArgumentException(LOGGER.getMessage(MessageCodes.ARK_031, aSize));
+        }
+
+        // We need at least one bit in each half for the network to do any mixing
+        bits = Math.max(2, Long.SIZE - Long.numberOfLeadingZeros(aSize - 1));
+
+        myLeftBits = bits / 2;
+        myRightBits = bits - myLeftBits;
+        myRoundKeys = new long[ROUNDS];
+        mySize = aSize;
+        myKey = aKey;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            myRoundKeys[round] = mix(aKey + GOLDEN_GAMMA * (round + 1));
+        }
+    }
+
+    @Override
+    public long size() {
+        return mySize;
+    }
+
+    /**
+     * Gets the key that determines the permutation.
+     *
+     * @return The permutation's key
+     */
+    public long getKey() {
+        return myKey;
+    }
+
+    @Override
+    public long permute(final long aIndex) {
+        long value = checkRange(aIndex);
+
+        do {
+            value = encrypt(value);
+        } while (value >= mySize);
+
+        return value;
+    }
+
+    @Override
+    public long invert(final long aValue) {
+        long index = checkRange(aValue);
+
+        do {
+            index = decrypt(index);
+        } while (index >= mySize);
+
+        return index;
+    }
+
+    /**
+     * Runs a value forward through the Feistel network.
+     *
+     * @param aValue A value in the network's domain
+     * @return The encrypted value
+     */
+    private long encrypt(final long aValue) {
+        int leftBits = myLeftBits;
+        int rightBits = myRightBits;
+        long left = aValue >>> rightBits;
+        long right = aValue & mask(rightBits);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            final long nextRight = left ^ (round(round, right) & mask(leftBits));
+            final int width = leftBits;
+
+            left = right;
+            right = nextRight;
+            leftBits = rightBits;
+            rightBits = width;
+        }
+
+        return (left << rightBits) | right;
+    }
+
+    /**
+     * Runs a value backward through the Feistel network.
+     *
+     * @param aValue A value in the network's domain
+     * @return The decrypted value
+     */
+    private long decrypt(final long aValue) {
+        int leftBits = myLeftBits;
+        int rightBits = myRightBits;
+        long left = aValue >>> rightBits;
+        long right = aValue & mask(rightBits);
+
+        for (int round = ROUNDS - 1; round >= 0; round--) {
+            final long previousLeft = right ^ (round(round, left) & mask(rightBits));
+            final int width = leftBits;
+
+            right = left;
+            left = previousLeft;
+            leftBits = rightBits;
+            rightBits = width;
+        }
+
+        return (left << rightBits) | right;
+    }
+
+    /**
+     * The Feistel round function.
+     *
+     * @param aRound A round number
+     * @param aHalf The half of the value that's fed into the round function
+     * @return The round function's output, which the caller masks to the width it needs
+     */
+    private long round(final int aRound, final long aHalf) {
+        return mix(aHalf ^ myRoundKeys[aRound]);
+    }
+
+    /**
+     * Checks that the supplied value is in the permutation's range.
+     *
+     * @param aValue A value to check
+     * @return The supplied value
+     * @throws IndexOutOfBoundsException If the value is out of range
+     */
+    private long checkRange(final long aValue) {
+        if (aValue < 0 || aValue >= mySize) {
+            throw new IndexOutOfBoundsException(LOGGER.getMessage(MessageCodes.ARK_029, aValue, mySize));
+        }
+
+        return aValue;
+    }
+
+    /**
+     * Gets a mask of the supplied number of low-order bits.
+     *
+     * @param aBits A number of bits
+     * @return A mask of low-order bits
+     */
+    private static long mask(final int aBits) {
+        return (1L << aBits) - 1;
+    }
+
+    /**
+     * Mixes the bits of the supplied value (using the SplitMix64 finalizer).
+     *
+     * @param aValue A value to mix
+     * @return The mixed value
+     */
+    private static long mix(final long aValue) {
+        long value = (aValue ^ (aValue >>> 30)) * 0xbf58476d1ce4e5b9L;
+
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
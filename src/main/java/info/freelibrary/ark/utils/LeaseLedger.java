@@ -0,0 +1,301 @@
+
+package info.freelibrary.ark.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.MessageCodes;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A ledger of the blocks of index positions that have been leased to clients, so that they can mint a namespace's
+ * NOIDs themselves.
+ * <p>
+ * A lease's positions are never reissued, whether or not the client uses them, so the ledger isn't needed to keep
+ * minting safe: only a namespace's cursor (the high-water mark of its leases) is persisted. The ledger is kept in
+ * memory to account for the positions that are lost; a client returns its lease with the number of positions it
+ * used, and a lease that isn't returned before it expires is counted as unused.
+ * </p>
+ * <p>
+ * The ledger isn't thread-safe; it should only be used from the context of the verticle that created it.
+ * </p>
+ */
+public class LeaseLedger {
+
+    /**
+     * The name of a lease's ID property.
+     */
+    public static final String ID = "lease";
+
+    /**
+     * The name of the property for the number of index positions to lease.
+     */
+    public static final String COUNT = "count";
+
+    /**
+     * The name of a lease's property for its first index position.
+     */
+    public static final String START = "start";
+
+    /**
+     * The name of a lease's property for the index position after its last one.
+     */
+    public static final String END = "end";
+
+    /**
+     * The name of a lease's property for the time at which it expires, in milliseconds since the epoch.
+     */
+    public static final String EXPIRES = "expires";
+
+    /**
+     * The name of a lease's property for the specification of its namespace.
+     */
+    public static final String SPEC = "spec";
+
+    /**
+     * The name of the property for the number of a returned lease's index positions that were used.
+     */
+    public static final String USED = "used";
+
+    /**
+     * The metric for the number of leases that are outstanding.
+     */
+    public static final String ACTIVE = "active";
+
+    /**
+     * The metric for the number of leases that have been granted.
+     */
+    public static final String LEASED = "leased";
+
+    /**
+     * The metric for the number of index positions that have been leased.
+     */
+    public static final String LEASED_POSITIONS = "leasedPositions";
+
+    /**
+     * The metric for the number of leases that have been returned.
+     */
+    public static final String RETURNED = "returned";
+
+    /**
+     * The metric for the number of leases that expired before they were returned.
+     */
+    public static final String EXPIRED = "expired";
+
+    /**
+     * The metric for the number of leased index positions that were returned unused, or that expired.
+     */
+    public static final String UNUSED_POSITIONS = "unusedPositions";
+
+    /* The logger for the lease ledger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(LeaseLedger.class, MessageCodes.BUNDLE);
+
+    /* The Vert.x instance used to expire leases. */
+    private final Vertx myVertx;
+
+    /* The number of milliseconds a lease lasts. */
+    private final long myTimeToLive;
+
+    /* The outstanding leases, by ID. */
+    private final Map<String, Lease> myLeases = new HashMap<>();
+
+    /* The number of leases that have been granted. */
+    private long myLeaseCount;
+
+    /* The number of index positions that have been leased. */
+    private long myLeasedPositions;
+
+    /* The number of leases that have been returned. */
+    private long myReturnedCount;
+
+    /* The number of leases that have expired. */
+    private long myExpiredCount;
+
+    /* The number of leased index positions that have been lost. */
+    private long myUnusedPositions;
+
+    /**
+     * Creates a new lease ledger.
+     *
+     * @param aVertx A Vert.x instance
+     * @param aTimeToLive The number of milliseconds a lease lasts
+     */
+    public LeaseLedger(final Vertx aVertx, final long aTimeToLive) {
+        myTimeToLive = Math.max(1, aTimeToLive);
+        myVertx = aVertx;
+    }
+
+    /**
+     * Records a new lease of the supplied block of index positions.
+     *
+     * @param aNamespace The namespace whose positions are leased
+     * @param aStart The first leased position
+     * @param aEnd The position after the last leased position
+     * @return The new lease
+     */
+    public Lease open(final String aNamespace, final long aStart, final long aEnd) {
+        final Lease lease = new Lease(UUID.randomUUID().toString(), aNamespace, aStart, aEnd,
+                System.currentTimeMillis() + myTimeToLive);
+
+        lease.myTimerID = myVertx.setTimer(myTimeToLive, timerID -> expire(lease.getID()));
+        myLeases.put(lease.getID(), lease);
+        myLeasedPositions += aEnd - aStart;
+        myLeaseCount += 1;
+
+        return lease;
+    }
+
+    /**
+     * Closes a returned lease, accounting for the positions that weren't used.
+     *
+     * @param aLeaseID The ID of a lease
+     * @param aUsedCount The number of the lease's positions that were used
+     * @return The lease, or null if there isn't an outstanding lease with the supplied ID
+     * @throws IllegalArgumentException If the used count is negative or larger than the lease
+     */
+    public Lease close(final String aLeaseID, final long aUsedCount) {
+        final Lease lease = myLeases.get(aLeaseID);
+
+        if (lease != null) {
+            if (aUsedCount < 0 || aUsedCount > lease.size()) {
+                throw new IllegalArgumentException(LOGGER.getMessage(MessageCodes.ARK_059, lease.size(), aUsedCount));
+            }
+
+            myVertx.cancelTimer(lease.myTimerID);
+            myLeases.remove(aLeaseID);
+            myUnusedPositions += lease.size() - aUsedCount;
+            myReturnedCount += 1;
+        }
+
+        return lease;
+    }
+
+    /**
+     * Gets the ledger's metrics.
+     *
+     * @return The ledger's metrics, as JSON
+     */
+    public JsonObject getMetrics() {
+        return new JsonObject().put(ACTIVE, myLeases.size()).put(LEASED, myLeaseCount)
+                .put(LEASED_POSITIONS, myLeasedPositions).put(RETURNED, myReturnedCount).put(EXPIRED, myExpiredCount)
+                .put(UNUSED_POSITIONS, myUnusedPositions);
+    }
+
+    /**
+     * Expires a lease that hasn't been returned. All its positions are counted as unused.
+     *
+     * @param aLeaseID The ID of a lease
+     */
+    private void expire(final String aLeaseID) {
+        final Lease lease = myLeases.remove(aLeaseID);
+
+        if (lease != null) {
+            myUnusedPositions += lease.size();
+            myExpiredCount += 1;
+
+            LOGGER.info(MessageCodes.ARK_058, aLeaseID, lease.getNamespace(), lease.size());
+        }
+    }
+
+    /**
+     * A lease of a block of a namespace's index positions.
+     */
+    public static final class Lease {
+
+        /* The lease's ID. */
+        private final String myID;
+
+        /* The namespace whose positions are leased. */
+        private final String myNamespace;
+
+        /* The first leased position. */
+        private final long myStart;
+
+        /* The position after the last leased position. */
+        private final long myEnd;
+
+        /* The time at which the lease expires, in milliseconds since the epoch. */
+        private final long myExpiry;
+
+        /* The ID of the timer that expires the lease. */
+        private long myTimerID;
+
+        /**
+         * Creates a new lease.
+         *
+         * @param aID The lease's ID
+         * @param aNamespace The namespace whose positions are leased
+         * @param aStart The first leased position
+         * @param aEnd The position after the last leased position
+         * @param aExpiry The time at which the lease expires, in milliseconds since the epoch
+         */
+        private Lease(final String aID, final String aNamespace, final long aStart, final long aEnd,
+                final long aExpiry) {
+            myNamespace = aNamespace;
+            myExpiry = aExpiry;
+            myStart = aStart;
+            myEnd = aEnd;
+            myID = aID;
+        }
+
+        /**
+         * Gets the lease's ID.
+         *
+         * @return The lease's ID
+         */
+        public String getID() {
+            return myID;
+        }
+
+        /**
+         * Gets the namespace whose positions are leased.
+         *
+         * @return The namespace whose positions are leased
+         */
+        public String getNamespace() {
+            return myNamespace;
+        }
+
+        /**
+         * Gets the first leased position.
+         *
+         * @return The first leased position
+         */
+        public long getStart() {
+            return myStart;
+        }
+
+        /**
+         * Gets the position after the last leased position.
+         *
+         * @return The position after the last leased position
+         */
+        public long getEnd() {
+            return myEnd;
+        }
+
+        /**
+         * Gets the time at which the lease expires.
+         *
+         * @return The time at which the lease expires, in milliseconds since the epoch
+         */
+        public long getExpiry() {
+            return myExpiry;
+        }
+
+        /**
+         * Gets the number of leased positions.
+         *
+         * @return The number of leased positions
+         */
+        public long size() {
+            return myEnd - myStart;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+
+package info.freelibrary.ark.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.HTTP;
+import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.verticles.NamespaceMintingVerticle;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+
+/**
+ * The lanes that namespace work is partitioned across. Each lane is a {@link NamespaceMintingVerticle} with a worker
+ * thread of its own, and each namespace is consistently hashed onto one lane, so the operations on a namespace are
+ * handled in the order they're sent while operations on namespaces in different lanes proceed in parallel.
+ * <p>
+ * Each lane's queue (the requests that have been sent to it but not yet answered) is limited. A request to a lane
+ * whose queue is full fails right away with a <code>429 Too Many Requests</code> status code, rather than waiting
+ * behind work (e.g., a large namespace's creation) that may take a long time.
+ * </p>
+ * <p>
+ * The lanes are shared by all the verticles in a Vert.x instance, and are thread-safe.
+ * </p>
+ */
+public class MintingLanes implements Shareable {
+
+    /**
+     * The metric for the number of lanes.
+     */
+    public static final String LANES = "lanes";
+
+    /**
+     * The metric for the largest number of requests a lane's queue can hold.
+     */
+    public static final String QUEUE_LIMIT = "queueLimit";
+
+    /**
+     * The metric for the number of requests in each lane's queue.
+     */
+    public static final String QUEUED = "queued";
+
+    /**
+     * The default largest number of requests a lane's queue can hold.
+     */
+    public static final int DEFAULT_QUEUE_LIMIT = 10_000;
+
+    /* The logger for the minting lanes. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(MintingLanes.class, MessageCodes.BUNDLE);
+
+    /* The name of the local map the lanes are shared through. */
+    private static final String SHARED_MAP = MintingLanes.class.getName();
+
+    /* The number of requests in each lane's queue. */
+    private final AtomicIntegerArray myQueueDepths;
+
+    /* The largest number of requests a lane's queue can hold. */
+    private final int myQueueLimit;
+
+    /**
+     * Creates a new set of minting lanes.
+     *
+     * @param aLaneCount The number of lanes
+     * @param aQueueLimit The largest number of requests a lane's queue can hold
+     */
+    public MintingLanes(final int aLaneCount, final int aQueueLimit) {
+        myQueueDepths = new AtomicIntegerArray(Math.max(1, aLaneCount));
+        myQueueLimit = Math.max(1, aQueueLimit);
+    }
+
+    /**
+     * Shares the lanes with the other verticles in the supplied Vert.x instance.
+     *
+     * @param aVertx A Vert.x instance
+     * @return The lanes
+     */
+    public MintingLanes share(final Vertx aVertx) {
+        aVertx.sharedData().<String, MintingLanes>getLocalMap(SHARED_MAP).put(LANES, this);
+        return this;
+    }
+
+    /**
+     * Gets the lanes that are shared in the supplied Vert.x instance. If none have been shared, a single lane is.
+     *
+     * @param aVertx A Vert.x instance
+     * @return The shared lanes
+     */
+    public static MintingLanes get(final Vertx aVertx) {
+        final LocalMap<String, MintingLanes> map = aVertx.sharedData().getLocalMap(SHARED_MAP);
+        final MintingLanes lanes = map.get(LANES);
+
+        if (lanes == null) {
+            final MintingLanes defaultLanes = new MintingLanes(1, DEFAULT_QUEUE_LIMIT);
+            final MintingLanes sharedLanes = map.putIfAbsent(LANES, defaultLanes);
+
+            return sharedLanes == null ? defaultLanes : sharedLanes;
+        }
+
+        return lanes;
+    }
+
+    /**
+     * Gets the number of lanes.
+     *
+     * @return The number of lanes
+     */
+    public int size() {
+        return myQueueDepths.length();
+    }
+
+    /**
+     * Gets the lane that the supplied namespace is hashed onto.
+     *
+     * @param aNamespace A namespace
+     * @return The namespace's lane
+     */
+    public int getLane(final String aNamespace) {
+        return aNamespace == null ? 0 : Math.floorMod(aNamespace.hashCode(), size());
+    }
+
+    /**
+     * Gets the event bus address of the supplied lane.
+     *
+     * @param aLane A lane
+     * @return The lane's event bus address
+     */
+    public String getAddress(final int aLane) {
+        return NamespaceMintingVerticle.class.getName() + '.' + aLane;
+    }
+
+    /**
+     * Sends a request about the supplied namespace to the namespace's lane.
+     *
+     * @param <T> The type of the reply's body
+     * @param aVertx A Vert.x instance
+     * @param aNamespace A namespace
+     * @param aBody The request's body
+     * @param aOptions The request's delivery options
+     * @return The lane's reply, or a failure with a <code>429</code> failure code if the lane's queue is full
+     */
+    public <T> Future<Message<T>> request(final Vertx aVertx, final String aNamespace, final Object aBody,
+            final DeliveryOptions aOptions) {
+        final int lane = getLane(aNamespace);
+
+        if (myQueueDepths.incrementAndGet(lane) > myQueueLimit) {
+            myQueueDepths.decrementAndGet(lane);
+            return Future.failedFuture(new ReplyException(ReplyFailure.RECIPIENT_FAILURE, HTTP.TOO_MANY_REQUESTS,
+                    LOGGER.getMessage(MessageCodes.ARK_063, lane, myQueueLimit)));
+        }
+
+        return aVertx.eventBus().<T>request(getAddress(lane), aBody, aOptions)
+                .onComplete(reply -> myQueueDepths.decrementAndGet(lane));
+    }
+
+    /**
+     * Sends a request to every lane. The requests don't count against the lanes' queue limits.
+     *
+     * @param <T> The type of the replies' bodies
+     * @param aVertx A Vert.x instance
+     * @param aBody The requests' body
+     * @param aOptions The requests' delivery options
+     * @return The bodies of the lanes' replies, in lane order
+     */
+    public <T> Future<List<T>> requestAll(final Vertx aVertx, final Object aBody, final DeliveryOptions aOptions) {
+        final List<Future<Message<T>>> replies = new ArrayList<>(size());
+
+        for (int lane = 0; lane < size(); lane++) {
+            replies.add(aVertx.eventBus().request(getAddress(lane), aBody, aOptions));
+        }
+
+        return Future.all(replies).map(all -> {
+            final List<T> bodies = new ArrayList<>(replies.size());
+
+            replies.forEach(reply -> bodies.add(reply.result().body()));
+            return bodies;
+        });
+    }
+
+    /**
+     * Gets the lanes' metrics.
+     *
+     * @return The lanes' metrics, as JSON
+     */
+    public JsonObject getMetrics() {
+        final JsonArray queued = new JsonArray();
+
+        for (int lane = 0; lane < size(); lane++) {
+            queued.add(myQueueDepths.get(lane));
+        }
+
+        return new JsonObject().put(LANES, size()).put(QUEUE_LIMIT, myQueueLimit).put(QUEUED, queued);
+    }
+}
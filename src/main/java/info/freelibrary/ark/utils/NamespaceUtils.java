@@ -0,0 +1,126 @@
+
+package info.freelibrary.ark.utils;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.Namespace;
+import info.freelibrary.ark.NoidType;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Utilities for converting between NOID minters and the namespace specifications that are persisted for them. A
+ * specification records everything needed to recreate a namespace's minter; together with the minter's index position
+ * (i.e., its cursor), it's all that needs to be stored to mint a namespace's NOIDs on demand.
+ */
+public final class NamespaceUtils {
+
+    /* The logger for the namespace utilities. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(NamespaceUtils.class, MessageCodes.BUNDLE);
+
+    // Utility classes should not have public constructors
+    private NamespaceUtils() {
+    }
+
+    /**
+     * Gets the specification of the namespace that the supplied minter mints.
+     *
+     * @param aMinter A NOID minter
+     * @return The specification of the minter's namespace
+     * @throws IllegalArgumentException If the minter is randomized with a permutation that can't be recreated
+     */
+    public static JsonObject toJson(final NoidMinter aMinter) {
+        final JsonObject spec = new JsonObject();
+
+        spec.put(Namespace.NAME, aMinter.getNamespace());
+        spec.put(Namespace.NOID_TYPE, aMinter.getNoidType().name());
+        spec.put(Namespace.LENGTH, aMinter.getNoidLength());
+        spec.put(Namespace.CHECKSUMS, aMinter.hasChecksums());
+
+        if (aMinter.getShoulder() != null) {
+            spec.put(Namespace.SHOULDER, aMinter.getShoulder());
+        }
+
+        if (aMinter.getPattern() != null) {
+            spec.put(Namespace.PATTERN, aMinter.getPattern().getRegex());
+        }
+
+        // A randomized minter is recreated from the key of its permutation
+        if (aMinter instanceof RandomizedNoidMinter) {
+            final Permutation permutation = ((RandomizedNoidMinter) aMinter).getPermutation();
+
+            if (!(permutation instanceof FeistelPermutation)) {
+                throw new IllegalArgumentException(LOGGER.getMessage(MessageCodes.ARK_043, aMinter.getNamespace()));
+            }
+
+            spec.put(Namespace.RANDOMIZED, true);
+            spec.put(Namespace.KEY, ((FeistelPermutation) permutation).getKey());
+        }
+
+        return spec;
+    }
+
+    /**
+     * Creates a copy of the supplied minter, positioned at the same index. The copy shares the minter's pattern and
+     * permutation, which don't change, so it's cheap to make and can be used on another thread than the minter.
+     *
+     * @param aMinter A NOID minter
+     * @return A copy of the minter
+     */
+    public static NoidMinter copy(final NoidMinter aMinter) {
+        final String namespace = aMinter.getNamespace();
+        final NoidType noidType = aMinter.getNoidType();
+        final String shoulder = aMinter.getShoulder();
+        final int length = aMinter.getNoidLength();
+        final boolean checksums = aMinter.hasChecksums();
+        final NoidMinter copy;
+
+        if (aMinter instanceof RandomizedNoidMinter) {
+            final RandomizedNoidMinter minter = (RandomizedNoidMinter) aMinter;
+
+            copy = new RandomizedNoidMinter(namespace, noidType, shoulder, length, checksums, aMinter.getPattern(),
+                    minter.getPermutation());
+        } else {
+            copy = new NoidMinter(namespace, noidType, shoulder, length, checksums, aMinter.getPattern());
+        }
+
+        copy.seek(aMinter.getIndex());
+        return copy;
+    }
+
+    /**
+     * Creates a minter from a namespace specification. The minter starts at the beginning of its sequence; to resume
+     * minting, {@link NoidMinter#seek(long) seek} it to the namespace's cursor.
+     *
+     * @param aSpec A namespace specification
+     * @return A minter for the specified namespace
+     */
+    public static NoidMinter toMinter(final JsonObject aSpec) {
+        final NoidType noidType = NoidType.valueOf(aSpec.getString(Namespace.NOID_TYPE));
+        final String namespace = aSpec.getString(Namespace.NAME);
+        final String shoulder = aSpec.getString(Namespace.SHOULDER);
+        final boolean checksums = aSpec.getBoolean(Namespace.CHECKSUMS, false);
+        final int length = aSpec.getInteger(Namespace.LENGTH);
+        final String regex = aSpec.getString(Namespace.PATTERN);
+        final NoidPattern pattern = regex == null ? null : new NoidPattern(regex, noidType, length);
+
+        if (aSpec.getBoolean(Namespace.RANDOMIZED, false)) {
+            final long size = pattern == null ? noidType.getNoidCount(length) : pattern.getCount();
+            final Permutation permutation = new FeistelPermutation(size, aSpec.getLong(Namespace.KEY));
+
+            if (pattern != null) {
+                return new RandomizedNoidMinter(namespace, pattern, shoulder, checksums, permutation);
+            }
+
+            return new RandomizedNoidMinter(namespace, noidType, shoulder, length, checksums, permutation);
+        }
+
+        if (pattern != null) {
+            return new NoidMinter(namespace, pattern, shoulder, checksums);
+        }
+
+        return new NoidMinter(namespace, noidType, shoulder, length, checksums);
+    }
+}
@@ -7,9 +7,10 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.StringJoiner;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -19,11 +20,18 @@ import info.freelibrary.util.LoggerFactory;
 import info.freelibrary.ark.MessageCodes;
 import info.freelibrary.ark.NoidType;
 
+import io.vertx.core.Future;
+
 /**
  * A serializable minter of sequential NOIDs.
  */
 public class NoidMinter implements Iterator<String>, Serializable {
 
+    /**
+     * The longest NOID (minus shoulder and checksum character) that can be minted.
+     */
+    public static final int MAX_NOID_LENGTH = 127;
+
     private static final Logger LOGGER = LoggerFactory.getLogger(NoidMinter.class, MessageCodes.BUNDLE);
 
     // We warn if a shoulder doesn't adhere to the "First Digit" convention.
@@ -38,16 +46,31 @@ public class NoidMinter implements Iterator<String>, Serializable {
 
     protected String myShoulder;
 
-    private final List<Character> myCharacters;
+    /* The characters NOIDs are minted from, in code point order. */
+    private final char[] myCharacters;
+
+    /* A reusable buffer holding the shoulder, the most recently minted NOID, and a checksum slot (if needed). */
+    private final char[] myNoidChars;
 
-    private final List<Character> myCurrentNoidChars;
+    /* The position in the buffer at which the NOID (after the shoulder) starts. */
+    private final int myNoidOffset;
 
     private final int myNoidLength;
 
+    /* A mixed-radix counter, least significant digit first, with an overflow flag after the NOID's digits. */
     private final int[] myBitArray;
 
+    /* The number of low-order digits that changed on the last increment and still need writing to the buffer. */
+    private int myChangedDigits;
+
+    /* The checksum sum of the shoulder and NOID in the buffer, updated as digits are rewritten (with checksums). */
+    private int myChecksumSum;
+
     private final NoidType myNoidType;
 
+    /* The pattern the minter's NOIDs match, or null if they can be any NOIDs of its type and length. */
+    private final NoidPattern myPattern;
+
     private final String myNamespace;
 
     private long myIndex;
@@ -87,20 +110,68 @@ public class NoidMinter implements Iterator<String>, Serializable {
      */
     public NoidMinter(final String aNamespace, final NoidType aNoidType, final String aShoulder, final int aNoidLength,
             final boolean aChecksumRequired) {
-        checkArgument(aNoidLength > 0 && aNoidLength < 128, LOGGER.getMessage(MessageCodes.ARK_001));
+        this(aNamespace, aNoidType, aShoulder, aNoidLength, aChecksumRequired, null);
+    }
+
+    /**
+     * Creates a new NOID minter that mints just the NOIDs that match a pattern. The NOIDs' type and length are the
+     * pattern's.
+     *
+     * @param aNamespace A namespace name for the IDs minted
+     * @param aPattern A pattern the minted NOIDs (minus shoulder and checksum character) match
+     * @param aShoulder A shoulder to add to the NOID
+     * @param aChecksumRequired True if the NOID returned should have a checksum character at the end
+     */
+    public NoidMinter(final String aNamespace, final NoidPattern aPattern, final String aShoulder,
+            final boolean aChecksumRequired) {
+        this(aNamespace, aPattern.getNoidType(), aShoulder, aPattern.getNoidLength(), aChecksumRequired, aPattern);
+    }
+
+    /**
+     * Creates a new NOID minter.
+     *
+     * @param aNamespace A namespace name for the IDs minted
+     * @param aNoidType A type of NOID to be minted
+     * @param aShoulder A shoulder to add to the NOID
+     * @param aNoidLength A maximum NOID length
+     * @param aChecksumRequired True if the NOID returned should have a checksum character at the end
+     * @param aPattern A pattern the minted NOIDs match, or null if they can be any NOIDs of the type and length
+     */
+    protected NoidMinter(final String aNamespace, final NoidType aNoidType, final String aShoulder,
+            final int aNoidLength, final boolean aChecksumRequired, final NoidPattern aPattern) {
+        checkArgument(aNoidLength > 0 && aNoidLength <= MAX_NOID_LENGTH, LOGGER.getMessage(MessageCodes.ARK_001));
         checkNotNull(aNoidType, LOGGER.getMessage(MessageCodes.ARK_006));
         checkNotNull(aNamespace, LOGGER.getMessage(MessageCodes.ARK_018));
 
-        myCharacters = Arrays.asList(aNoidType.getCharacters());
-        myCurrentNoidChars = new ArrayList<>(Collections.nCopies(aNoidLength, myCharacters.get(0)));
+        myCharacters = aNoidType.getAlphabet();
+        myNoidOffset = aShoulder == null ? 0 : aShoulder.length();
+        myNoidChars = new char[myNoidOffset + aNoidLength + (aChecksumRequired ? 1 : 0)];
         myBitArray = new int[aNoidLength + 2];
+
+        // The buffer starts out with the shoulder followed by the first NOID
+        if (aShoulder != null) {
+            aShoulder.getChars(0, myNoidOffset, myNoidChars, 0);
+        }
+
+        Arrays.fill(myNoidChars, myNoidOffset, myNoidOffset + aNoidLength, myCharacters[0]);
         hasChecksums = aChecksumRequired;
         myNoidLength = aNoidLength;
         myNamespace = aNamespace;
         myShoulder = aShoulder;
         myNoidType = aNoidType;
+        myPattern = aPattern;
         myIndex = 0;
 
+        // The shoulder's part of the sum never changes, and the NOID's digits are updated as they're rewritten
+        if (aChecksumRequired) {
+            final int lastCharIndex = myNoidOffset + aNoidLength - 1;
+
+            for (int index = 0; index <= lastCharIndex; index++) {
+                myChecksumSum += ChecksumUtils.getAddend(myNoidChars[index], (lastCharIndex - index) % 2 == 0,
+                        aNoidType);
+            }
+        }
+
         // Warn if the supplied shoulder doesn't conform to the "first digit" convention
         if (aShoulder != null && !FIRST_DIGIT_PATTERN.matcher(aShoulder).matches()) {
             LOGGER.warn(MessageCodes.ARK_011, aShoulder);
@@ -109,6 +180,10 @@ public class NoidMinter implements Iterator<String>, Serializable {
 
     @Override
     public boolean hasNext() {
+        if (myPattern != null) {
+            return myIndex < myPattern.getCount();
+        }
+
         return myBitArray[myNoidLength] != 1;
     }
 
@@ -134,9 +209,39 @@ public class NoidMinter implements Iterator<String>, Serializable {
         return noids;
     }
 
+    /**
+     * Gets the next NOID without blocking. A NOID is computed from the minter's state, never read from storage, so
+     * the returned future is already complete and the minter can be used on an event loop.
+     *
+     * @return A future that completes with the next NOID, or fails if the minter has run out of NOIDs
+     */
+    public Future<String> nextAsync() {
+        try {
+            return Future.succeededFuture(next());
+        } catch (final IndexOutOfBoundsException | NoSuchElementException details) {
+            return Future.failedFuture(details);
+        }
+    }
+
+    /**
+     * Gets a batch of NOIDs without blocking. As with {@link #next(int)}, fewer NOIDs are returned if there aren't
+     * enough left to satisfy the request.
+     *
+     * @param aCount A requested number of NOIDs
+     * @return A future that completes with the requested NOIDs, or fails if the minter can't mint them
+     */
+    public Future<List<String>> nextAsync(final int aCount) {
+        try {
+            return Future.succeededFuture(next(aCount));
+        } catch (final IndexOutOfBoundsException | NoSuchElementException details) {
+            return Future.failedFuture(details);
+        }
+    }
+
     @Override
     public String next() {
-        final StringBuilder builder = new StringBuilder();
+        final int lastCharIndex = myNoidOffset + myNoidLength - 1;
+        final int radix = myCharacters.length;
 
         int bitIndex = 0;
 
@@ -144,31 +249,191 @@ public class NoidMinter implements Iterator<String>, Serializable {
             throw new IndexOutOfBoundsException(LOGGER.getMessage(MessageCodes.ARK_010));
         }
 
-        myIndex++;
+        // A pattern's NOIDs aren't neighbors in the counter's sequence, so each one is computed from its index
+        if (myPattern != null) {
+            myPattern.unrank(myIndex++, myNoidChars, myNoidOffset);
 
-        for (int index = myNoidLength - 1; index >= 0; index--) {
-            myCurrentNoidChars.set(index, myCharacters.get(myBitArray[index]));
+            if (hasChecksums) {
+                myNoidChars[lastCharIndex + 1] = ChecksumUtils.getChecksum(myNoidChars, lastCharIndex + 1, myNoidType);
+            }
+
+            return new String(myNoidChars);
         }
 
-        while (myBitArray[bitIndex] == myCharacters.size() - 1) {
-            if (bitIndex < myNoidLength + 1) {
-                myBitArray[bitIndex] = 0;
-            } else {
-                myBitArray[myNoidLength] = 1;
-                myCurrentNoidChars.forEach(character -> builder.append(character));
+        myIndex++;
+
+        // Only the digits that carried on the last increment need to be rewritten; the rest of the buffer is current
+        if (hasChecksums) {
+            for (int index = 0; index < myChangedDigits; index++) {
+                final char character = myCharacters[myBitArray[index]];
+                final boolean isDoubled = index % 2 == 0;
 
-                // Reverse the string so NOIDs can be sorted in ascending order
-                return mint(builder.reverse().toString());
+                // Swap the rewritten digit's old addend for its new one, so the sum is updated for just those digits
+                myChecksumSum += ChecksumUtils.getAddend(character, isDoubled, myNoidType) -
+                        ChecksumUtils.getAddend(myNoidChars[lastCharIndex - index], isDoubled, myNoidType);
+                myNoidChars[lastCharIndex - index] = character;
             }
 
-            bitIndex++;
+            myNoidChars[lastCharIndex + 1] = ChecksumUtils.getChecksum(myChecksumSum, myNoidType);
+        } else {
+            for (int index = 0; index < myChangedDigits; index++) {
+                myNoidChars[lastCharIndex - index] = myCharacters[myBitArray[index]];
+            }
+        }
+
+        // Advance the counter; if every digit carries, the overflow flag gets set and the minter is exhausted
+        while (bitIndex < myNoidLength && myBitArray[bitIndex] == radix - 1) {
+            myBitArray[bitIndex++] = 0;
         }
 
         myBitArray[bitIndex]++;
-        myCurrentNoidChars.forEach(character -> builder.append(character));
+        myChangedDigits = Math.min(bitIndex + 1, myNoidLength);
+
+        // The buffer is written most significant digit first, so NOIDs sort in ascending order without a reverse
+        return new String(myNoidChars);
+    }
+
+    /**
+     * Moves the minter to the supplied index position, so that the next NOID minted is the one at that position in
+     * the minter's sequence. Seeking to the minter's size leaves it with no more NOIDs to mint.
+     *
+     * @param aIndex An index position in the minter's sequence
+     * @throws IndexOutOfBoundsException If the supplied index is negative or larger than the minter's size
+     */
+    public void seek(final long aIndex) {
+        final long size = getSize();
+        final int radix = myCharacters.length;
+
+        long rank = aIndex;
+
+        if (aIndex < 0 || aIndex > size) {
+            throw new IndexOutOfBoundsException(LOGGER.getMessage(MessageCodes.ARK_029, aIndex, size));
+        }
+
+        Arrays.fill(myBitArray, 0);
 
-        // Reverse the string so NOIDs can be sorted in ascending order
-        return mint(builder.reverse().toString());
+        // A pattern's NOIDs are computed from the index alone, so its minter doesn't need the counter set
+        if (aIndex == size) {
+            myBitArray[myNoidLength] = 1;
+        } else if (myPattern == null) {
+            for (int index = 0; index < myNoidLength; index++) {
+                myBitArray[index] = (int) (rank % radix);
+                rank /= radix;
+            }
+        }
+
+        // The whole NOID needs writing into the buffer on the next mint
+        myChangedDigits = myNoidLength;
+        myIndex = aIndex;
+    }
+
+    /**
+     * Gets the index position in the minter's sequence of a NOID minted by this minter. The supplied NOID should
+     * include the minter's shoulder and checksum, if it has them.
+     *
+     * @param aNOID A NOID minted by this minter
+     * @return The index position of the supplied NOID in the minter's sequence
+     * @throws IllegalArgumentException If the supplied NOID couldn't have been minted by this minter
+     */
+    public long rank(final String aNOID) {
+        final int checksumLength = hasChecksums ? 1 : 0;
+        final long rank;
+
+        if (aNOID == null || aNOID.length() != myNoidOffset + myNoidLength + checksumLength ||
+                myShoulder != null && !aNOID.startsWith(myShoulder) ||
+                hasChecksums && !ChecksumUtils.validate(aNOID, myNoidType)) {
+            throw new IllegalArgumentException(
+                    LOGGER.getMessage(MessageCodes.ARK_030, aNOID, myNoidType, myNoidLength));
+        }
+
+        if (myPattern == null) {
+            return rank(myNoidType, aNOID.substring(myNoidOffset, myNoidOffset + myNoidLength));
+        }
+
+        rank = myPattern.rank(aNOID.subSequence(myNoidOffset, myNoidOffset + myNoidLength));
+
+        if (rank == -1) {
+            throw new IllegalArgumentException(
+                    LOGGER.getMessage(MessageCodes.ARK_030, aNOID, myNoidType, myNoidLength));
+        }
+
+        return rank;
+    }
+
+    /**
+     * Gets the NOID at the supplied index position in the sequence of NOIDs this minter can mint. This is the same as
+     * {@link #unrank(NoidType, int, long) unrank} with the minter's type and length, unless the minter's NOIDs have to
+     * match a pattern.
+     *
+     * @param aIndex An index position in the minter's sequence
+     * @return The bare NOID (without shoulder or checksum) at the supplied index position
+     * @throws IndexOutOfBoundsException If the supplied index isn't in the minter's sequence
+     */
+    protected String unrank(final long aIndex) {
+        return myPattern == null ? unrank(myNoidType, myNoidLength, aIndex) : myPattern.unrank(aIndex);
+    }
+
+    /**
+     * Gets the NOID at the supplied index position in the sequence of all NOIDs of the supplied type and length. The
+     * NOID is computed directly from the index, without minting any of the NOIDs that come before it.
+     *
+     * @param aNoidType A type of NOID
+     * @param aNoidLength A NOID length
+     * @param aIndex An index position in the sequence of all possible NOIDs of the supplied type and length
+     * @return The bare NOID (without shoulder or checksum) at the supplied index position
+     * @throws IndexOutOfBoundsException If the supplied index isn't in the sequence of possible NOIDs
+     */
+    public static String unrank(final NoidType aNoidType, final int aNoidLength, final long aIndex) {
+        final int radix = aNoidType.getCharacterCount();
+        final long size = aNoidType.getNoidCount(aNoidLength);
+        final char[] noid = new char[aNoidLength];
+
+        long rank = aIndex;
+
+        if (aIndex < 0 || aIndex >= size) {
+            throw new IndexOutOfBoundsException(LOGGER.getMessage(MessageCodes.ARK_029, aIndex, size));
+        }
+
+        for (int index = aNoidLength - 1; index >= 0; index--) {
+            noid[index] = aNoidType.getCharacter((int) (rank % radix));
+            rank /= radix;
+        }
+
+        return new String(noid);
+    }
+
+    /**
+     * Gets the index position of the supplied bare NOID in the sequence of all NOIDs of its type and length. This is
+     * the inverse of {@link #unrank(NoidType, int, long) unrank}.
+     *
+     * @param aNoidType A type of NOID
+     * @param aBareNOID A NOID without a shoulder or checksum
+     * @return The index position of the supplied NOID
+     * @throws IllegalArgumentException If the supplied NOID contains characters that aren't valid for its type
+     */
+    public static long rank(final NoidType aNoidType, final String aBareNOID) {
+        final int radix = aNoidType.getCharacterCount();
+        final int length = aBareNOID.length();
+
+        long rank = 0;
+
+        // A NOID too long to have a rank that fits in a long can't have been minted
+        if (aNoidType.getNoidCount(length) == Long.MAX_VALUE) {
+            throw new IllegalArgumentException(LOGGER.getMessage(MessageCodes.ARK_030, aBareNOID, aNoidType, length));
+        }
+
+        for (int index = 0; index < length; index++) {
+            final int codePoint = aNoidType.getCodePoint(aBareNOID.charAt(index));
+
+            if (codePoint == -1) {
+                throw new IllegalArgumentException(
+                        LOGGER.getMessage(MessageCodes.ARK_030, aBareNOID, aNoidType, length));
+            }
+
+            rank = rank * radix + codePoint;
+        }
+
+        return rank;
     }
 
     /**
@@ -177,7 +442,7 @@ public class NoidMinter implements Iterator<String>, Serializable {
      * @return The total number of NOIDs this minter can mint
      */
     public long getSize() {
-        return myNoidType.getNoidCount(myNoidLength);
+        return myPattern == null ? myNoidType.getNoidCount(myNoidLength) : myPattern.getCount();
     }
 
     /**
@@ -196,8 +461,8 @@ public class NoidMinter implements Iterator<String>, Serializable {
 
     @Override
     public String toString() {
-        return LOGGER.getMessage(MessageCodes.ARK_019, NoidMinter.class.getSimpleName(), myIndex, myCurrentNoidChars,
-                getBitArray());
+        return LOGGER.getMessage(MessageCodes.ARK_019, NoidMinter.class.getSimpleName(), myIndex,
+                getCurrentNoidChars(), getBitArray());
     }
 
     /**
@@ -209,6 +474,51 @@ public class NoidMinter implements Iterator<String>, Serializable {
         return myNamespace;
     }
 
+    /**
+     * Gets the type of NOIDs the minter mints.
+     *
+     * @return The minter's NOID type
+     */
+    public NoidType getNoidType() {
+        return myNoidType;
+    }
+
+    /**
+     * Gets the length of NOIDs the minter mints (minus shoulder and checksum character).
+     *
+     * @return The minter's NOID length
+     */
+    public int getNoidLength() {
+        return myNoidLength;
+    }
+
+    /**
+     * Gets the shoulder the minter adds to its NOIDs.
+     *
+     * @return The minter's shoulder, or null if it doesn't have one
+     */
+    public String getShoulder() {
+        return myShoulder;
+    }
+
+    /**
+     * Gets the pattern the minter's NOIDs match.
+     *
+     * @return The minter's pattern, or null if its NOIDs can be any NOIDs of its type and length
+     */
+    public NoidPattern getPattern() {
+        return myPattern;
+    }
+
+    /**
+     * Whether the minter adds a checksum character to the end of its NOIDs.
+     *
+     * @return True if the minter's NOIDs have checksums; else, false
+     */
+    public boolean hasChecksums() {
+        return hasChecksums;
+    }
+
     /**
      * Returns a newly minted NOID.
      *
@@ -231,6 +541,21 @@ public class NoidMinter implements Iterator<String>, Serializable {
         }
     }
 
+    /**
+     * A string representation of the characters of the most recently minted NOID, least significant first.
+     *
+     * @return A string representation of the current NOID's characters
+     */
+    private String getCurrentNoidChars() {
+        final StringJoiner joiner = new StringJoiner(", ", "[", "]");
+
+        for (int index = myNoidOffset + myNoidLength - 1; index >= myNoidOffset; index--) {
+            joiner.add(String.valueOf(myNoidChars[index]));
+        }
+
+        return joiner.toString();
+    }
+
     /**
      * A string representation of the internal bit array.
      *
@@ -0,0 +1,314 @@
+
+package info.freelibrary.ark.utils;
+
+import java.nio.charset.StandardCharsets;
+
+import info.freelibrary.util.I18nRuntimeException;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.NoidType;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * A compact binary message codec for NOID minters.
+ * <p>
+ * Rather than serializing a minter's object graph, the codec writes just what's needed to recreate it: its namespace,
+ * NOID type, NOID length, shoulder, checksum flag, pattern, and index position (i.e., its cursor) and, for a
+ * randomized minter, the key of its {@link FeistelPermutation}. The minter that's decoded is seeked to the cursor, so
+ * it carries on where the encoded minter left off.
+ * </p>
+ * <p>
+ * Decoding doesn't do any of the slow work of creating a minter: a pattern is sent with its compiled tables, so it
+ * isn't compiled again.
+ * </p>
+ * <p>
+ * The encoding is: a version byte, a flags byte, the NOID type's ordinal, the four byte NOID length, the eight byte
+ * cursor, the eight byte permutation key (only if the minter is randomized), and then the namespace, shoulder (only if
+ * there is one), and pattern's regular expression (only if there is one), each as a four byte length followed by UTF-8
+ * bytes. A pattern's regular expression is followed by its compiled tables: the four byte number of DFA states; for
+ * each state, the four byte number of its transitions and, for each transition, its code point byte and four byte
+ * target state; and then, for each length up to the NOID length and each state, the eight byte count of strings.
+ * </p>
+ *
+ * @param <T> The type of minter the codec is registered for
+ */
+public class NoidMinterCodec<T extends NoidMinter> implements MessageCodec<T, NoidMinter> {
+
+    /* The codec's logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(NoidMinterCodec.class, MessageCodes.BUNDLE);
+
+    /* The version of the codec's encoding. */
+    private static final byte VERSION = 2;
+
+    /* The flag for a minter that adds checksums to its NOIDs. */
+    private static final int CHECKSUMS = 1;
+
+    /* The flag for a minter that has a shoulder. */
+    private static final int SHOULDER = 1 << 1;
+
+    /* The flag for a randomized minter. */
+    private static final int RANDOMIZED = 1 << 2;
+
+    /* The flag for a minter whose NOIDs match a pattern. */
+    private static final int PATTERN = 1 << 3;
+
+    /* The name of the codec. */
+    private final String myCodecName;
+
+    /**
+     * Creates a message codec for the supplied type of NOID minter.
+     *
+     * @param aMinterClass The class of minter the codec is registered for
+     */
+    public NoidMinterCodec(final Class<T> aMinterClass) {
+        myCodecName = aMinterClass.getSimpleName() + "Codec";
+    }
+
+    /**
+     * Encodes a minter into the supplied buffer.
+     *
+     * @param aBuffer A buffer to which the encoded minter is appended
+     * @param aMinter A NOID minter
+     * @throws IllegalArgumentException If the minter is randomized with a permutation that can't be recreated
+     */
+    @Override
+    public void encodeToWire(final Buffer aBuffer, final T aMinter) {
+        final NoidPattern pattern = aMinter.getPattern();
+        final String shoulder = aMinter.getShoulder();
+
+        int flags = 0;
+
+        if (aMinter.hasChecksums()) {
+            flags |= CHECKSUMS;
+        }
+
+        if (shoulder != null) {
+            flags |= SHOULDER;
+        }
+
+        if (pattern != null) {
+            flags |= PATTERN;
+        }
+
+        if (aMinter instanceof RandomizedNoidMinter) {
+            flags |= RANDOMIZED;
+        }
+
+        aBuffer.appendByte(VERSION).appendByte((byte) flags);
+        aBuffer.appendByte((byte) aMinter.getNoidType().ordinal()).appendInt(aMinter.getNoidLength());
+        aBuffer.appendLong(aMinter.getIndex());
+
+        if ((flags & RANDOMIZED) != 0) {
+            aBuffer.appendLong(getKey((RandomizedNoidMinter) aMinter));
+        }
+
+        appendString(aBuffer, aMinter.getNamespace());
+
+        if (shoulder != null) {
+            appendString(aBuffer, shoulder);
+        }
+
+        if (pattern != null) {
+            appendString(aBuffer, pattern.getRegex());
+            appendTables(aBuffer, pattern);
+        }
+    }
+
+    /**
+     * Decodes a minter from the supplied buffer.
+     *
+     * @param aPosition The position in the buffer at which the encoded minter starts
+     * @param aBuffer A buffer
+     * @return The decoded minter, positioned at the encoded minter's cursor
+     * @throws I18nRuntimeException If the minter was encoded with an unsupported version of the codec
+     */
+    @Override
+    public NoidMinter decodeFromWire(final int aPosition, final Buffer aBuffer) {
+        final byte version = aBuffer.getByte(aPosition);
+        final int flags;
+        final NoidType noidType;
+        final int noidLength;
+        final long cursor;
+        final String namespace;
+        final String shoulder;
+        final NoidPattern pattern;
+        final NoidMinter minter;
+
+        int position = aPosition + 1;
+        long key = 0;
+
+        if (version != VERSION) {
+            throw new I18nRuntimeException(MessageCodes.BUNDLE, MessageCodes.ARK_051, version);
+        }
+
+        flags = aBuffer.getByte(position++);
+        noidType = NoidType.values()[aBuffer.getByte(position++)];
+        noidLength = aBuffer.getInt(position);
+        position += Integer.BYTES;
+        cursor = aBuffer.getLong(position);
+        position += Long.BYTES;
+
+        if ((flags & RANDOMIZED) != 0) {
+            key = aBuffer.getLong(position);
+            position += Long.BYTES;
+        }
+
+        namespace = getString(aBuffer, position);
+        position += Integer.BYTES + aBuffer.getInt(position);
+
+        if ((flags & SHOULDER) != 0) {
+            shoulder = getString(aBuffer, position);
+            position += Integer.BYTES + aBuffer.getInt(position);
+        } else {
+            shoulder = null;
+        }
+
+        pattern = (flags & PATTERN) != 0 ? getPattern(aBuffer, position, noidType, noidLength) : null;
+
+        if ((flags & RANDOMIZED) != 0) {
+            final long size = pattern == null ? noidType.getNoidCount(noidLength) : pattern.getCount();
+
+            minter = new RandomizedNoidMinter(namespace, noidType, shoulder, noidLength, (flags & CHECKSUMS) != 0,
+                    pattern, new FeistelPermutation(size, key));
+        } else if (pattern != null) {
+            minter = new NoidMinter(namespace, pattern, shoulder, (flags & CHECKSUMS) != 0);
+        } else {
+            minter = new NoidMinter(namespace, noidType, shoulder, noidLength, (flags & CHECKSUMS) != 0);
+        }
+
+        minter.seek(cursor);
+        return minter;
+    }
+
+    @Override
+    public NoidMinter transform(final T aMinter) {
+        return aMinter; // If sent locally over event bus, no translation is needed
+    }
+
+    @Override
+    public String name() {
+        return myCodecName;
+    }
+
+    @Override
+    public byte systemCodecID() {
+        return -1; // Always -1
+    }
+
+    /**
+     * Gets the key of a randomized minter's permutation.
+     *
+     * @param aMinter A randomized minter
+     * @return The key of the minter's permutation
+     * @throws IllegalArgumentException If the minter's permutation isn't a {@link FeistelPermutation}
+     */
+    private static long getKey(final RandomizedNoidMinter aMinter) {
+        final Permutation permutation = aMinter.getPermutation();
+
+        if (!(permutation instanceof FeistelPermutation)) {
+            throw new IllegalArgumentException(LOGGER.getMessage(MessageCodes.ARK_050, aMinter.getNamespace()));
+        }
+
+        return ((FeistelPermutation) permutation).getKey();
+    }
+
+    /**
+     * Appends a pattern's compiled tables to a buffer.
+     *
+     * @param aBuffer A buffer
+     * @param aPattern A compiled pattern
+     */
+    private static void appendTables(final Buffer aBuffer, final NoidPattern aPattern) {
+        final int[][] symbols = aPattern.getSymbols();
+        final int[][] targets = aPattern.getTargets();
+
+        aBuffer.appendInt(symbols.length);
+
+        for (int state = 0; state < symbols.length; state++) {
+            aBuffer.appendInt(symbols[state].length);
+
+            for (int index = 0; index < symbols[state].length; index++) {
+                aBuffer.appendByte((byte) symbols[state][index]).appendInt(targets[state][index]);
+            }
+        }
+
+        for (final long[] counts : aPattern.getCounts()) {
+            for (final long count : counts) {
+                aBuffer.appendLong(count);
+            }
+        }
+    }
+
+    /**
+     * Gets a pattern that was appended to a buffer as its regular expression followed by its compiled tables.
+     *
+     * @param aBuffer A buffer
+     * @param aPosition The position in the buffer at which the regular expression's length starts
+     * @param aNoidType The type of NOIDs the pattern matches
+     * @param aNoidLength The length of NOIDs the pattern matches
+     * @return The pattern
+     */
+    private static NoidPattern getPattern(final Buffer aBuffer, final int aPosition, final NoidType aNoidType,
+            final int aNoidLength) {
+        final String regex = getString(aBuffer, aPosition);
+        final int tablesPosition = aPosition + Integer.BYTES + aBuffer.getInt(aPosition);
+        final int stateCount = aBuffer.getInt(tablesPosition);
+        final int[][] symbols = new int[stateCount][];
+        final int[][] targets = new int[stateCount][];
+        final long[][] counts = new long[aNoidLength + 1][stateCount];
+
+        int position = tablesPosition + Integer.BYTES;
+
+        for (int state = 0; state < stateCount; state++) {
+            final int transitionCount = aBuffer.getInt(position);
+
+            symbols[state] = new int[transitionCount];
+            targets[state] = new int[transitionCount];
+            position += Integer.BYTES;
+
+            for (int index = 0; index < transitionCount; index++) {
+                symbols[state][index] = aBuffer.getByte(position) & 0xff;
+                targets[state][index] = aBuffer.getInt(position + 1);
+                position += 1 + Integer.BYTES;
+            }
+        }
+
+        for (final long[] lengthCounts : counts) {
+            for (int state = 0; state < stateCount; state++) {
+                lengthCounts[state] = aBuffer.getLong(position);
+                position += Long.BYTES;
+            }
+        }
+
+        return new NoidPattern(regex, aNoidType, aNoidLength, symbols, targets, counts);
+    }
+
+    /**
+     * Appends a string to a buffer as its length followed by its UTF-8 bytes.
+     *
+     * @param aBuffer A buffer
+     * @param aString A string to append
+     */
+    private static void appendString(final Buffer aBuffer, final String aString) {
+        final byte[] bytes = aString.getBytes(StandardCharsets.UTF_8);
+
+        aBuffer.appendInt(bytes.length).appendBytes(bytes);
+    }
+
+    /**
+     * Gets a string that was appended to a buffer by {@link #appendString(Buffer, String) appendString}.
+     *
+     * @param aBuffer A buffer
+     * @param aPosition The position in the buffer at which the string's length starts
+     * @return The string
+     */
+    private static String getString(final Buffer aBuffer, final int aPosition) {
+        final int start = aPosition + Integer.BYTES;
+
+        return aBuffer.getString(start, start + aBuffer.getInt(aPosition), StandardCharsets.UTF_8.name());
+    }
+}
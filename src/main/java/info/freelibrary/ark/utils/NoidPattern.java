@@ -0,0 +1,966 @@
+
+package info.freelibrary.ark.utils;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.PatternSyntaxException;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.NoidType;
+
+/**
+ * The NOIDs of a {@link NoidType#REGEX_PATTERN REGEX_PATTERN} or {@link NoidType#REGEX_PATTERN_ALL REGEX_PATTERN_ALL}
+ * type and a fixed length that match a regular expression.
+ * <p>
+ * The expression is compiled into a deterministic finite automaton (DFA) over the type's alphabet, and the number of
+ * strings of each length that the DFA accepts from each of its states is counted up front. With those counts, the
+ * exact number of matching NOIDs is known, and the NOID at any index position in their sequence (which is in code
+ * point order, as with NOIDs that aren't constrained by a pattern) can be computed directly, one character at a time,
+ * without generating and discarding any NOIDs that don't match. The index position of a NOID is computed the same way.
+ * </p>
+ * <p>
+ * The expression matches the whole NOID (without its shoulder or checksum). A subset of the usual regular expression
+ * syntax is supported: literal characters, <code>.</code>, <code>\d</code>, character classes (e.g.,
+ * <code>[b-f0-4]</code> or <code>[^xyz]</code>), groups, alternation, and the <code>?</code>, <code>*</code>,
+ * <code>+</code>, and <code>{n,m}</code> quantifiers. Characters that aren't in the type's alphabet never match.
+ * </p>
+ */
+public class NoidPattern implements Serializable {
+
+    /* The <code>serialVersionUID</code> for NoidPattern. */
+    private static final long serialVersionUID = 6182449208871736513L;
+
+    /* The pattern's logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(NoidPattern.class, MessageCodes.BUNDLE);
+
+    /* The largest number of states a pattern's nondeterministic automaton may have. */
+    private static final int MAX_NFA_STATES = 20_000;
+
+    /* The largest number of states a pattern's DFA may have. */
+    private static final int MAX_DFA_STATES = 4_096;
+
+    /* The largest number of repetitions a quantifier may have. */
+    private static final int MAX_REPETITIONS = 1_000;
+
+    /* The DFA's start state. */
+    private static final int START = 0;
+
+    /* The regular expression the pattern was compiled from. */
+    private final String myRegex;
+
+    /* The type of NOIDs the pattern matches. */
+    private final NoidType myNoidType;
+
+    /* The length of NOIDs the pattern matches. */
+    private final int myNoidLength;
+
+    /* The code points that each DFA state has a transition on, in ascending order, omitting dead ends. */
+    private final int[][] mySymbols;
+
+    /* The states that each DFA state's transitions go to, in the same order as its symbols. */
+    private final int[][] myTargets;
+
+    /* The number of strings of each length (up to the NOID length) that each DFA state leads to an accept with. */
+    private final long[][] myCounts;
+
+    /**
+     * Compiles a pattern that matches NOIDs of the supplied type and length.
+     *
+     * @param aRegex A regular expression that the whole NOID (without shoulder or checksum) must match
+     * @param aNoidType A {@link NoidType#REGEX_PATTERN REGEX_PATTERN} or
+     *        {@link NoidType#REGEX_PATTERN_ALL REGEX_PATTERN_ALL} NOID type
+     * @param aNoidLength A NOID length
+     * @throws PatternSyntaxException If the expression is malformed or uses syntax that isn't supported
+     * @throws IllegalArgumentException If the NOID type isn't a pattern type, the NOID length is out of range, the
+     *         expression is too complex to compile, or it doesn't match any NOIDs of the supplied length
+     */
+    public NoidPattern(final String aRegex, final NoidType aNoidType, final int aNoidLength) {
+        final DFA dfa;
+
+        if (aNoidType != NoidType.REGEX_PATTERN && aNoidType != NoidType.REGEX_PATTERN_ALL) {
+            throw new IllegalArgumentException(LOGGER.getMessage(MessageCodes.ARK_075, aNoidType));
+        }
+
+        // The counts table has a row for each length, so the length is checked before anything is compiled
+        if (aNoidLength < 1 || aNoidLength > NoidMinter.MAX_NOID_LENGTH) {
+            throw new IllegalArgumentException(LOGGER.getMessage(MessageCodes.ARK_001));
+        }
+
+        myRegex = aRegex;
+        myNoidType = aNoidType;
+        myNoidLength = aNoidLength;
+
+        dfa = new Parser(aRegex, aNoidType, aNoidLength).compile();
+        myCounts = count(dfa, aNoidLength);
+        mySymbols = new int[dfa.myTransitions.length][];
+        myTargets = new int[dfa.myTransitions.length][];
+
+        // Only the transitions to states that can still reach an accept within the NOID length are kept
+        for (int state = 0; state < dfa.myTransitions.length; state++) {
+            final int[] transitions = dfa.myTransitions[state];
+            final int[] symbols = new int[transitions.length];
+            final int[] targets = new int[symbols.length];
+
+            int liveCount = 0;
+
+            for (int symbol = 0; symbol < transitions.length; symbol++) {
+                final int target = transitions[symbol];
+
+                if (target != -1 && isLive(target)) {
+                    symbols[liveCount] = symbol;
+                    targets[liveCount++] = target;
+                }
+            }
+
+            mySymbols[state] = Arrays.copyOf(symbols, liveCount);
+            myTargets[state] = Arrays.copyOf(targets, liveCount);
+        }
+
+        if (getCount() == 0) {
+            throw new IllegalArgumentException(LOGGER.getMessage(MessageCodes.ARK_073, aRegex, aNoidType, aNoidLength));
+        }
+    }
+
+    /**
+     * Recreates a compiled pattern from its tables (e.g., ones that were sent in a message), without compiling its
+     * regular expression again.
+     *
+     * @param aRegex The regular expression the pattern was compiled from
+     * @param aNoidType The type of NOIDs the pattern matches
+     * @param aNoidLength The length of NOIDs the pattern matches
+     * @param aSymbols The code points of each DFA state's live transitions (see {@link #getSymbols()})
+     * @param aTargets The targets of each DFA state's live transitions (see {@link #getTargets()})
+     * @param aCounts The number of strings of each length that each DFA state accepts (see {@link #getCounts()})
+     */
+    NoidPattern(final String aRegex, final NoidType aNoidType, final int aNoidLength, final int[][] aSymbols,
+            final int[][] aTargets, final long[][] aCounts) {
+        myRegex = aRegex;
+        myNoidType = aNoidType;
+        myNoidLength = aNoidLength;
+        mySymbols = aSymbols;
+        myTargets = aTargets;
+        myCounts = aCounts;
+    }
+
+    /**
+     * Gets the regular expression the pattern was compiled from.
+     *
+     * @return The pattern's regular expression
+     */
+    public String getRegex() {
+        return myRegex;
+    }
+
+    /**
+     * Gets the type of NOIDs the pattern matches.
+     *
+     * @return The pattern's NOID type
+     */
+    public NoidType getNoidType() {
+        return myNoidType;
+    }
+
+    /**
+     * Gets the length of NOIDs the pattern matches.
+     *
+     * @return The pattern's NOID length
+     */
+    public int getNoidLength() {
+        return myNoidLength;
+    }
+
+    /**
+     * Gets the number of NOIDs the pattern matches. The count is exact; if it's too large to be represented as a long,
+     * <code>Long.MAX_VALUE</code> is returned.
+     *
+     * @return The number of NOIDs the pattern matches
+     */
+    public long getCount() {
+        return myCounts[myNoidLength][START];
+    }
+
+    /**
+     * Gets the NOID at the supplied index position in the sequence of NOIDs the pattern matches.
+     *
+     * @param aIndex An index position in the pattern's sequence of NOIDs
+     * @return The bare NOID (without shoulder or checksum) at the supplied index position
+     * @throws IndexOutOfBoundsException If the supplied index isn't in the pattern's sequence of NOIDs
+     */
+    public String unrank(final long aIndex) {
+        final char[] noid = new char[myNoidLength];
+
+        unrank(aIndex, noid, 0);
+        return new String(noid);
+    }
+
+    /**
+     * Writes the NOID at the supplied index position in the sequence of NOIDs the pattern matches into a buffer.
+     *
+     * @param aIndex An index position in the pattern's sequence of NOIDs
+     * @param aBuffer A buffer to write the bare NOID (without shoulder or checksum) into
+     * @param aOffset The position in the buffer at which to write the NOID
+     * @throws IndexOutOfBoundsException If the supplied index isn't in the pattern's sequence of NOIDs
+     */
+    public void unrank(final long aIndex, final char[] aBuffer, final int aOffset) {
+        final long count = getCount();
+
+        long rank = aIndex;
+        int state = START;
+
+        if (aIndex < 0 || aIndex >= count) {
+            throw new IndexOutOfBoundsException(LOGGER.getMessage(MessageCodes.ARK_029, aIndex, count));
+        }
+
+        for (int position = 0; position < myNoidLength; position++) {
+            final long[] counts = myCounts[myNoidLength - position - 1];
+            final int[] targets = myTargets[state];
+
+            int index = 0;
+
+            // Skip past the NOIDs that have each of the lower characters at this position
+            while (rank >= counts[targets[index]]) {
+                rank -= counts[targets[index++]];
+            }
+
+            aBuffer[aOffset + position] = myNoidType.getCharacter(mySymbols[state][index]);
+            state = targets[index];
+        }
+    }
+
+    /**
+     * Gets the index position of the supplied NOID in the sequence of NOIDs the pattern matches. This is the inverse
+     * of {@link #unrank(long) unrank}.
+     *
+     * @param aBareNOID A NOID without a shoulder or checksum
+     * @return The index position of the supplied NOID, or -1 if the pattern doesn't match it (or it's beyond the
+     *         first <code>Long.MAX_VALUE</code> NOIDs the pattern matches)
+     */
+    public long rank(final CharSequence aBareNOID) {
+        long rank = 0;
+        int state = START;
+
+        if (aBareNOID.length() != myNoidLength) {
+            return -1;
+        }
+
+        for (int position = 0; position < myNoidLength; position++) {
+            final int codePoint = myNoidType.getCodePoint(aBareNOID.charAt(position));
+            final long[] counts = myCounts[myNoidLength - position - 1];
+            final int[] symbols = mySymbols[state];
+
+            int index = 0;
+
+            // Count the NOIDs that have each of the lower characters at this position
+            while (index < symbols.length && symbols[index] < codePoint) {
+                rank = add(rank, counts[myTargets[state][index++]]);
+            }
+
+            if (index == symbols.length || symbols[index] != codePoint) {
+                return -1;
+            }
+
+            state = myTargets[state][index];
+        }
+
+        return myCounts[0][state] == 0 || rank == Long.MAX_VALUE ? -1 : rank;
+    }
+
+    @Override
+    public String toString() {
+        return myRegex;
+    }
+
+    /**
+     * Gets the code points that each DFA state has a live transition on. The arrays are the pattern's own, so they
+     * mustn't be changed.
+     *
+     * @return The code points of the DFA's transitions, indexed by state
+     */
+    int[][] getSymbols() {
+        return mySymbols;
+    }
+
+    /**
+     * Gets the states that each DFA state's live transitions go to. The arrays are the pattern's own, so they mustn't
+     * be changed.
+     *
+     * @return The targets of the DFA's transitions, indexed by state
+     */
+    int[][] getTargets() {
+        return myTargets;
+    }
+
+    /**
+     * Gets the number of strings of each length, up to the NOID length, that each DFA state leads to an accept with.
+     * The arrays are the pattern's own, so they mustn't be changed.
+     *
+     * @return The number of strings, indexed by length and state
+     */
+    long[][] getCounts() {
+        return myCounts;
+    }
+
+    /**
+     * Whether a DFA state can reach an accept with a string that's shorter than the NOID length.
+     *
+     * @param aState A DFA state
+     * @return True if the state can reach an accept; else, false
+     */
+    private boolean isLive(final int aState) {
+        for (int length = 0; length < myNoidLength; length++) {
+            if (myCounts[length][aState] != 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Counts the number of strings of each length, up to the supplied length, that each DFA state leads to an accept
+     * with. A string of length <code>n</code> from a state is a transition followed by a string of length
+     * <code>n - 1</code> from the transition's target, so each length's counts are summed from the previous length's.
+     *
+     * @param aDFA A DFA
+     * @param aLength The longest length to count strings of
+     * @return The number of strings, indexed by length and state
+     */
+    private static long[][] count(final DFA aDFA, final int aLength) {
+        final int stateCount = aDFA.myTransitions.length;
+        final long[][] counts = new long[aLength + 1][stateCount];
+
+        // The empty string is the one string of length zero, and it leads to an accept from the accepting states
+        for (int state = 0; state < stateCount; state++) {
+            counts[0][state] = aDFA.myAccepts.get(state) ? 1 : 0;
+        }
+
+        for (int length = 1; length <= aLength; length++) {
+            for (int state = 0; state < stateCount; state++) {
+                long count = 0;
+
+                for (final int target : aDFA.myTransitions[state]) {
+                    if (target != -1) {
+                        count = add(count, counts[length - 1][target]);
+                    }
+                }
+
+                counts[length][state] = count;
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * Adds two non-negative counts, returning <code>Long.MAX_VALUE</code> if their sum is too large to be represented.
+     *
+     * @param aCount A count
+     * @param aAddend Another count
+     * @return The sum of the counts
+     */
+    private static long add(final long aCount, final long aAddend) {
+        final long sum = aCount + aAddend;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    /**
+     * A deterministic finite automaton (DFA) over the code points of a NOID type's alphabet.
+     */
+    private static final class DFA {
+
+        /* The transitions of each state, indexed by state and code point (-1 is a dead end). */
+        private final int[][] myTransitions;
+
+        /* The states that accept. */
+        private final BitSet myAccepts;
+
+        /**
+         * Creates a DFA.
+         *
+         * @param aTransitions The transitions of each state, indexed by state and code point (-1 is a dead end)
+         * @param aAccepts The states that accept
+         */
+        private DFA(final int[][] aTransitions, final BitSet aAccepts) {
+            myTransitions = aTransitions;
+            myAccepts = aAccepts;
+        }
+    }
+
+    /**
+     * A part of a parsed expression, which can add itself to a nondeterministic automaton.
+     */
+    @FunctionalInterface
+    private interface Node {
+
+        /**
+         * Adds the part of the expression to an automaton, ahead of the supplied state.
+         *
+         * @param aNFA A nondeterministic automaton
+         * @param aNext The state that follows a match of the part of the expression
+         * @return The state from which the part of the expression is matched
+         */
+        int addTo(NFA aNFA, int aNext);
+    }
+
+    /**
+     * A nondeterministic finite automaton (NFA), built from a parsed expression back to front. A state has a transition
+     * on a set of code points (as a bit mask, since no alphabet has more than 64 characters), empty transitions, or
+     * neither (the accepting state, which is always state 0).
+     */
+    private static final class NFA {
+
+        /* The code points that each state has a transition on. */
+        private final List<Long> mySymbols = new ArrayList<>();
+
+        /* The state that each state's transition on its code points goes to (-1 if it has none). */
+        private final List<Integer> myTargets = new ArrayList<>();
+
+        /* The states that each state has empty transitions to. */
+        private final List<List<Integer>> myEmptyTargets = new ArrayList<>();
+
+        /* The expression the automaton's built from. */
+        private final String myRegex;
+
+        /**
+         * Creates an automaton that has just its accepting state.
+         *
+         * @param aRegex The expression the automaton's built from
+         */
+        private NFA(final String aRegex) {
+            myRegex = aRegex;
+            addState(0, -1);
+        }
+
+        /**
+         * Adds a state with a transition on a set of code points.
+         *
+         * @param aSymbols The code points the state has a transition on, as a bit mask (or zero for none)
+         * @param aTarget The state the transition goes to (or -1 for none)
+         * @return The new state
+         * @throws IllegalArgumentException If the automaton has too many states
+         */
+        private int addState(final long aSymbols, final int aTarget) {
+            if (mySymbols.size() == MAX_NFA_STATES) {
+                throw new IllegalArgumentException(LOGGER.getMessage(MessageCodes.ARK_074, myRegex));
+            }
+
+            mySymbols.add(aSymbols);
+            myTargets.add(aTarget);
+            myEmptyTargets.add(new ArrayList<>());
+
+            return mySymbols.size() - 1;
+        }
+
+        /**
+         * Adds a state with empty transitions to the supplied states.
+         *
+         * @param aTargets The states the new state has empty transitions to
+         * @return The new state
+         */
+        private int addSplit(final int... aTargets) {
+            final int state = addState(0, -1);
+
+            for (final int target : aTargets) {
+                myEmptyTargets.get(state).add(target);
+            }
+
+            return state;
+        }
+
+        /**
+         * Adds an empty transition between two states.
+         *
+         * @param aState A state
+         * @param aTarget The state its new transition goes to
+         */
+        private void addEmpty(final int aState, final int aTarget) {
+            myEmptyTargets.get(aState).add(aTarget);
+        }
+
+        /**
+         * Adds all the states that can be reached from the supplied ones, without consuming a character, to them.
+         *
+         * @param aStates A set of states
+         * @return The supplied set of states
+         */
+        private BitSet close(final BitSet aStates) {
+            final Deque<Integer> pending = new ArrayDeque<>();
+
+            aStates.stream().forEach(pending::push);
+
+            while (!pending.isEmpty()) {
+                for (final int target : myEmptyTargets.get(pending.pop())) {
+                    if (!aStates.get(target)) {
+                        aStates.set(target);
+                        pending.push(target);
+                    }
+                }
+            }
+
+            return aStates;
+        }
+
+        /**
+         * Converts the automaton into a DFA with the subset construction: each DFA state is a set of the automaton's
+         * states that can be in play at once.
+         *
+         * @param aStart The automaton's start state
+         * @param aRadix The number of characters in the alphabet
+         * @return The DFA
+         * @throws IllegalArgumentException If the DFA has too many states
+         */
+        private DFA toDFA(final int aStart, final int aRadix) {
+            final Map<BitSet, Integer> stateIDs = new HashMap<>();
+            final List<BitSet> stateSets = new ArrayList<>();
+            final List<int[]> transitions = new ArrayList<>();
+            final BitSet accepts = new BitSet();
+            final BitSet start = new BitSet();
+
+            start.set(aStart);
+            stateSets.add(close(start));
+            stateIDs.put(start, START);
+
+            for (int dfaState = 0; dfaState < stateSets.size(); dfaState++) {
+                final BitSet[] moves = new BitSet[aRadix];
+                final int[] targets = new int[aRadix];
+                final BitSet states = stateSets.get(dfaState);
+
+                // Gather where each code point leads from any of the DFA state's states
+                for (int state = states.nextSetBit(0); state >= 0; state = states.nextSetBit(state + 1)) {
+                    final long symbols = mySymbols.get(state);
+
+                    for (int codePoint = 0; codePoint < aRadix; codePoint++) {
+                        if ((symbols >>> codePoint & 1) != 0) {
+                            if (moves[codePoint] == null) {
+                                moves[codePoint] = new BitSet();
+                            }
+
+                            moves[codePoint].set(myTargets.get(state));
+                        }
+                    }
+                }
+
+                for (int codePoint = 0; codePoint < aRadix; codePoint++) {
+                    if (moves[codePoint] == null) {
+                        targets[codePoint] = -1;
+                    } else {
+                        final BitSet move = close(moves[codePoint]);
+
+                        Integer target = stateIDs.get(move);
+
+                        if (target == null) {
+                            if (stateSets.size() == MAX_DFA_STATES) {
+                                throw new IllegalArgumentException(LOGGER.getMessage(MessageCodes.ARK_074, myRegex));
+                            }
+
+                            target = stateSets.size();
+                            stateIDs.put(move, target);
+                            stateSets.add(move);
+                        }
+
+                        targets[codePoint] = target;
+                    }
+                }
+
+                // A DFA state accepts if any of its states is the automaton's accepting state
+                accepts.set(dfaState, states.get(0));
+                transitions.add(targets);
+            }
+
+            return new DFA(transitions.toArray(new int[0][]), accepts);
+        }
+    }
+
+    /**
+     * A recursive descent parser of the supported regular expression syntax, which compiles an expression into a DFA.
+     */
+    private static final class Parser {
+
+        /* The expression being parsed. */
+        private final String myRegex;
+
+        /* The type of NOIDs the expression matches. */
+        private final NoidType myNoidType;
+
+        /* The length of NOIDs the expression matches. */
+        private final int myNoidLength;
+
+        /* The position in the expression of the next character to parse. */
+        private int myPosition;
+
+        /**
+         * Creates a parser of the supplied expression.
+         *
+         * @param aRegex A regular expression
+         * @param aNoidType The type of NOIDs the expression matches
+         * @param aNoidLength The length of NOIDs the expression matches
+         */
+        private Parser(final String aRegex, final NoidType aNoidType, final int aNoidLength) {
+            myRegex = aRegex;
+            myNoidType = aNoidType;
+            myNoidLength = aNoidLength;
+        }
+
+        /**
+         * Compiles the expression into a DFA.
+         *
+         * @return The DFA
+         * @throws PatternSyntaxException If the expression is malformed or uses syntax that isn't supported
+         * @throws IllegalArgumentException If the expression is too complex to compile
+         */
+        private DFA compile() {
+            final Node expression = parseAlternation();
+            final NFA nfa = new NFA(myRegex);
+
+            if (myPosition < myRegex.length()) {
+                throw error(); // An unmatched closing parenthesis
+            }
+
+            return nfa.toDFA(expression.addTo(nfa, 0), myNoidType.getCharacterCount());
+        }
+
+        /**
+         * Parses alternatives separated by <code>|</code>.
+         *
+         * @return The parsed alternation
+         */
+        private Node parseAlternation() {
+            final List<Node> alternatives = new ArrayList<>();
+
+            alternatives.add(parseSequence());
+
+            while (myPosition < myRegex.length() && myRegex.charAt(myPosition) == '|') {
+                myPosition++;
+                alternatives.add(parseSequence());
+            }
+
+            if (alternatives.size() == 1) {
+                return alternatives.get(0);
+            }
+
+            return (nfa, next) -> {
+                final int split = nfa.addSplit();
+
+                for (final Node alternative : alternatives) {
+                    nfa.addEmpty(split, alternative.addTo(nfa, next));
+                }
+
+                return split;
+            };
+        }
+
+        /**
+         * Parses a sequence of quantified atoms, up to the end of an alternative.
+         *
+         * @return The parsed sequence
+         */
+        private Node parseSequence() {
+            final List<Node> nodes = new ArrayList<>();
+
+            while (myPosition < myRegex.length()) {
+                final char character = myRegex.charAt(myPosition);
+
+                if (character == '|' || character == ')') {
+                    break;
+                }
+
+                // The expression always matches the whole NOID, so anchors at its ends are redundant
+                if (character == '^' && myPosition == 0 || character == '$' && myPosition == myRegex.length() - 1) {
+                    myPosition++;
+                } else {
+                    nodes.add(parseQuantifiers(parseAtom()));
+                }
+            }
+
+            return (nfa, next) -> {
+                int state = next;
+
+                for (int index = nodes.size() - 1; index >= 0; index--) {
+                    state = nodes.get(index).addTo(nfa, state);
+                }
+
+                return state;
+            };
+        }
+
+        /**
+         * Parses any quantifiers that follow an atom.
+         *
+         * @param aAtom A parsed atom
+         * @return The quantified atom
+         */
+        private Node parseQuantifiers(final Node aAtom) {
+            Node node = aAtom;
+
+            while (myPosition < myRegex.length()) {
+                final char character = myRegex.charAt(myPosition);
+
+                if (character == '*') {
+                    node = repeat(node, 0, -1);
+                } else if (character == '+') {
+                    node = repeat(node, 1, -1);
+                } else if (character == '?') {
+                    node = repeat(node, 0, 1);
+                } else if (character == '{') {
+                    final int min;
+                    final int max;
+
+                    myPosition++;
+                    min = parseNumber();
+
+                    if (myPosition < myRegex.length() && myRegex.charAt(myPosition) == ',') {
+                        myPosition++;
+                        max = myPosition < myRegex.length() && myRegex.charAt(myPosition) == '}' ? -1 : parseNumber();
+                    } else {
+                        max = min;
+                    }
+
+                    if (myPosition == myRegex.length() || myRegex.charAt(myPosition) != '}' || max != -1 && max < min) {
+                        throw error();
+                    }
+
+                    node = repeat(node, min, max);
+                } else {
+                    break;
+                }
+
+                myPosition++;
+            }
+
+            return node;
+        }
+
+        /**
+         * Parses a group, character class, escape, or literal character.
+         *
+         * @return The parsed atom
+         */
+        private Node parseAtom() {
+            final char character = myRegex.charAt(myPosition++);
+            final long symbols;
+
+            switch (character) {
+                case '(':
+                    return parseGroup();
+                case '[':
+                    symbols = parseClass();
+                    break;
+                case '.':
+                    symbols = getSymbols(Character.MIN_VALUE, Character.MAX_VALUE);
+                    break;
+                case '\\':
+                    symbols = parseEscape();
+                    break;
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                    myPosition--;
+                    throw error(); // A quantifier without anything to quantify
+                default:
+                    symbols = getSymbols(character, character);
+            }
+
+            return (nfa, next) -> nfa.addState(symbols, next);
+        }
+
+        /**
+         * Parses a group, after its opening parenthesis. A group may be marked as non-capturing, though nothing is
+         * captured either way.
+         *
+         * @return The parsed group
+         */
+        private Node parseGroup() {
+            final Node group;
+
+            if (myRegex.startsWith("?:", myPosition)) {
+                myPosition += 2;
+            }
+
+            group = parseAlternation();
+
+            if (myPosition == myRegex.length() || myRegex.charAt(myPosition) != ')') {
+                throw error();
+            }
+
+            myPosition++;
+            return group;
+        }
+
+        /**
+         * Parses a character class, after its opening bracket.
+         *
+         * @return The code points of the characters in the class, as a bit mask
+         */
+        private long parseClass() {
+            final boolean isNegated = myPosition < myRegex.length() && myRegex.charAt(myPosition) == '^';
+
+            long symbols = 0;
+
+            if (isNegated) {
+                myPosition++;
+            }
+
+            while (true) {
+                final char character;
+
+                if (myPosition == myRegex.length()) {
+                    throw error();
+                }
+
+                character = myRegex.charAt(myPosition++);
+
+                if (character == ']') {
+                    break;
+                }
+
+                if (character == '\\') {
+                    symbols |= parseEscape();
+                } else if (myPosition + 1 < myRegex.length() && myRegex.charAt(myPosition) == '-' &&
+                        myRegex.charAt(myPosition + 1) != ']') {
+                    final char last = myRegex.charAt(myPosition + 1);
+
+                    if (last < character) {
+                        throw error();
+                    }
+
+                    symbols |= getSymbols(character, last);
+                    myPosition += 2;
+                } else {
+                    symbols |= getSymbols(character, character);
+                }
+            }
+
+            return isNegated ? getSymbols(Character.MIN_VALUE, Character.MAX_VALUE) & ~symbols : symbols;
+        }
+
+        /**
+         * Parses an escape, after its backslash. Besides <code>\d</code>, only characters that aren't letters or digits
+         * can be escaped.
+         *
+         * @return The code points of the escaped characters, as a bit mask
+         */
+        private long parseEscape() {
+            final char character;
+
+            if (myPosition == myRegex.length()) {
+                throw error();
+            }
+
+            character = myRegex.charAt(myPosition++);
+
+            if (character == 'd') {
+                return getSymbols('0', '9');
+            }
+
+            if (Character.isLetterOrDigit(character)) {
+                myPosition--;
+                throw error();
+            }
+
+            return getSymbols(character, character);
+        }
+
+        /**
+         * Parses a quantifier's number of repetitions.
+         *
+         * @return The number of repetitions
+         */
+        private int parseNumber() {
+            final int start = myPosition;
+            final int number;
+
+            while (myPosition < myRegex.length() && Character.isDigit(myRegex.charAt(myPosition))) {
+                myPosition++;
+            }
+
+            if (myPosition == start || myPosition - start > 4) {
+                throw error();
+            }
+
+            number = Integer.parseInt(myRegex.substring(start, myPosition));
+
+            if (number > MAX_REPETITIONS) {
+                throw error();
+            }
+
+            return number;
+        }
+
+        /**
+         * Repeats a node between a minimum and maximum number of times.
+         *
+         * @param aNode A node
+         * @param aMin The minimum number of repetitions
+         * @param aMax The maximum number of repetitions, or -1 for no maximum
+         * @return The repeated node
+         */
+        private Node repeat(final Node aNode, final int aMin, final int aMax) {
+            // Repetitions past the NOID length can only match empty strings, so there's no need to add them
+            final int max = aMax == -1 ? -1 : Math.min(aMax, Math.max(aMin, myNoidLength));
+
+            return (nfa, next) -> {
+                int state = next;
+
+                if (max == -1) {
+                    final int loop = nfa.addSplit(next);
+
+                    nfa.addEmpty(loop, aNode.addTo(nfa, loop));
+                    state = loop;
+                } else {
+                    // Each optional repetition can be skipped straight to the end, so they're nested: (x(x)?)?
+                    for (int count = aMin; count < max; count++) {
+                        state = nfa.addSplit(next, aNode.addTo(nfa, state));
+                    }
+                }
+
+                for (int count = 0; count < aMin; count++) {
+                    state = aNode.addTo(nfa, state);
+                }
+
+                return state;
+            };
+        }
+
+        /**
+         * Gets the code points of the characters in the NOID type's alphabet that fall in a range.
+         *
+         * @param aFirst The first character in the range
+         * @param aLast The last character in the range
+         * @return The code points of the characters in the range, as a bit mask
+         */
+        private long getSymbols(final char aFirst, final char aLast) {
+            long symbols = 0;
+
+            for (int codePoint = 0; codePoint < myNoidType.getCharacterCount(); codePoint++) {
+                final char character = myNoidType.getCharacter(codePoint);
+
+                if (character >= aFirst && character <= aLast) {
+                    symbols |= 1L << codePoint;
+                }
+            }
+
+            return symbols;
+        }
+
+        /**
+         * Creates an exception for a syntax error at the current position in the expression.
+         *
+         * @return A pattern syntax exception
+         */
+        private PatternSyntaxException error() {
+            return new PatternSyntaxException(LOGGER.getMessage(MessageCodes.ARK_072), myRegex,
+                    Math.min(myPosition, myRegex.length() - 1));
+        }
+    }
+}
@@ -0,0 +1,231 @@
+
+package info.freelibrary.ark.utils;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.verticles.NamespaceMintingVerticle;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.json.JsonArray;
+
+/**
+ * A bounded, per-namespace reservoir of NOIDs that have been minted (i.e., leased from the minting verticle) but not
+ * yet issued.
+ * <p>
+ * NOIDs are leased in batches, so the minting verticle advances a namespace's cursor past them before they're put in
+ * the reservoir. A NOID that's issued from the reservoir therefore costs no round trip to the minting verticle, and
+ * NOIDs that are in the reservoir when the server stops (or crashes) are skipped, never reissued. When a namespace's
+ * NOIDs drop below the low-water mark, a refill is requested in the background; a request that finds the reservoir
+ * empty waits for the refill.
+ * </p>
+ * <p>
+ * The reservoir isn't thread-safe, and doesn't need to be: it should only be used from the context (e.g., the event
+ * loop) that created it, on which the replies to its refill requests are also handled.
+ * </p>
+ */
+public class NoidReservoir {
+
+    /* The logger for the NOID reservoir. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(NoidReservoir.class, MessageCodes.BUNDLE);
+
+    /* The Vert.x instance used to request refills. */
+    private final Vertx myVertx;
+
+    /* The minting verticle's action for leasing NOIDs. */
+    private final String myAction;
+
+    /* The largest number of NOIDs the reservoir holds for a namespace. */
+    private final int myCapacity;
+
+    /* The number of NOIDs below which a namespace's NOIDs are refilled. */
+    private final int myLowWater;
+
+    /* The reservoir's NOIDs, by namespace. */
+    private final Map<String, Pool> myPools = new HashMap<>();
+
+    /**
+     * Creates a new NOID reservoir.
+     *
+     * @param aVertx A Vert.x instance
+     * @param aAction The minting verticle's action for leasing NOIDs
+     * @param aCapacity The largest number of NOIDs to hold for a namespace; if it's zero, NOIDs are only leased for
+     *        requests that are waiting for them
+     * @param aLowWater The number of NOIDs below which a namespace's NOIDs are refilled
+     */
+    public NoidReservoir(final Vertx aVertx, final String aAction, final int aCapacity, final int aLowWater) {
+        myCapacity = Math.max(0, aCapacity);
+        myLowWater = Math.min(myCapacity, Math.max(0, aLowWater));
+        myAction = aAction;
+        myVertx = aVertx;
+    }
+
+    /**
+     * Gets the next NOID in the supplied namespace. If the reservoir has one, the returned future is already complete.
+     *
+     * @param aNamespace A namespace
+     * @return A future that completes with the next NOID, or fails if a NOID can't be leased (e.g., because the
+     *         namespace doesn't exist or has run out of NOIDs)
+     */
+    public Future<String> next(final String aNamespace) {
+        final Pool pool = myPools.computeIfAbsent(aNamespace, Pool::new);
+        final String noid = pool.myNoids.poll();
+        final Promise<String> promise;
+
+        if (noid != null) {
+            if (pool.myNoids.size() < myLowWater) {
+                refill(pool);
+            }
+
+            return Future.succeededFuture(noid);
+        }
+
+        promise = Promise.promise();
+        pool.myWaiters.add(promise);
+        refill(pool);
+
+        return promise.future();
+    }
+
+    /**
+     * Gets the headers of the minting verticle's latest reply to a request to lease NOIDs in the supplied namespace.
+     *
+     * @param aNamespace A namespace
+     * @return The reply's headers, or null if no NOIDs have been leased in the namespace
+     */
+    public MultiMap getHeaders(final String aNamespace) {
+        final Pool pool = myPools.get(aNamespace);
+        return pool == null ? null : pool.myHeaders;
+    }
+
+    /**
+     * Gets the number of NOIDs the reservoir holds for the supplied namespace.
+     *
+     * @param aNamespace A namespace
+     * @return The number of NOIDs the reservoir holds for the namespace
+     */
+    public int size(final String aNamespace) {
+        final Pool pool = myPools.get(aNamespace);
+        return pool == null ? 0 : pool.myNoids.size();
+    }
+
+    /**
+     * Requests a refill of the supplied pool, unless one is already underway. Enough NOIDs are leased to satisfy the
+     * waiting requests and fill the pool.
+     *
+     * @param aPool A namespace's pool of NOIDs
+     */
+    private void refill(final Pool aPool) {
+        final DeliveryOptions options;
+        final int count;
+
+        if (aPool.isRefilling) {
+            return;
+        }
+
+        aPool.isRefilling = true;
+        count = myCapacity - aPool.myNoids.size() + aPool.myWaiters.size();
+        options = new DeliveryOptions().addHeader(NamespaceMintingVerticle.ACTION, myAction);
+        options.addHeader(NamespaceMintingVerticle.COUNT, Integer.toString(count));
+
+        MintingLanes.get(myVertx).<JsonArray>request(myVertx, aPool.myNamespace, aPool.myNamespace, options)
+                .onComplete(response -> {
+                    aPool.isRefilling = false;
+
+                    if (response.succeeded()) {
+                        fill(aPool, response.result());
+                    } else {
+                        drain(aPool, response.cause());
+                    }
+                });
+    }
+
+    /**
+     * Fills a pool with newly leased NOIDs, handing them to any waiting requests first.
+     *
+     * @param aPool A namespace's pool of NOIDs
+     * @param aReply The minting verticle's reply with the leased NOIDs
+     */
+    private void fill(final Pool aPool, final Message<JsonArray> aReply) {
+        final JsonArray noids = aReply.body();
+
+        aPool.myHeaders = aReply.headers();
+
+        for (int index = 0; index < noids.size(); index++) {
+            final Promise<String> waiter = aPool.myWaiters.poll();
+
+            if (waiter != null) {
+                waiter.complete(noids.getString(index));
+            } else {
+                aPool.myNoids.add(noids.getString(index));
+            }
+        }
+
+        LOGGER.trace(MessageCodes.ARK_056, noids.size(), aPool.myNamespace, aPool.myNoids.size());
+
+        // Requests that arrived while the refill was underway (or that a short batch couldn't satisfy) need another
+        if (!aPool.myWaiters.isEmpty()) {
+            refill(aPool);
+        }
+    }
+
+    /**
+     * Fails the requests that are waiting on a pool whose refill failed. An empty pool is dropped, so a request for a
+     * namespace that doesn't exist doesn't leave a pool behind.
+     *
+     * @param aPool A namespace's pool of NOIDs
+     * @param aCause The cause of the failed refill
+     */
+    private void drain(final Pool aPool, final Throwable aCause) {
+        Promise<String> waiter;
+
+        while ((waiter = aPool.myWaiters.poll()) != null) {
+            waiter.fail(aCause);
+        }
+
+        if (aPool.myNoids.isEmpty()) {
+            myPools.remove(aPool.myNamespace);
+        }
+    }
+
+    /**
+     * A namespace's pool of NOIDs.
+     */
+    private static final class Pool {
+
+        /* The namespace the pool's NOIDs are from. */
+        private final String myNamespace;
+
+        /* The NOIDs that have been leased but not issued. */
+        private final Queue<String> myNoids = new ArrayDeque<>();
+
+        /* The requests that are waiting for NOIDs. */
+        private final Queue<Promise<String>> myWaiters = new ArrayDeque<>();
+
+        /* The headers of the latest reply to a request to lease NOIDs. */
+        private MultiMap myHeaders;
+
+        /* Whether a refill is underway. */
+        private boolean isRefilling;
+
+        /**
+         * Creates a new, empty pool of NOIDs.
+         *
+         * @param aNamespace The namespace the pool's NOIDs are from
+         */
+        private Pool(final String aNamespace) {
+            myNamespace = aNamespace;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+
+package info.freelibrary.ark.utils;
+
+import java.io.Serializable;
+
+/**
+ * A permutation of the index positions <code>[0, size)</code>. A randomized minter uses a permutation to map each
+ * position in its randomized sequence to the sequential index position of the NOID minted at that point.
+ */
+public interface Permutation extends Serializable {
+
+    /**
+     * Gets the number of index positions that are permuted.
+     *
+     * @return The number of index positions that are permuted
+     */
+    long size();
+
+    /**
+     * Gets the value the supplied index position is mapped to.
+     *
+     * @param aIndex An index position in <code>[0, size)</code>
+     * @return The value the index position is mapped to, also in <code>[0, size)</code>
+     * @throws IndexOutOfBoundsException If the supplied index position is out of range
+     */
+    long permute(long aIndex);
+
+    /**
+     * Gets the index position that is mapped to the supplied value. This is the inverse of {@link #permute(long)}.
+     *
+     * @param aValue A permuted value in <code>[0, size)</code>
+     * @return The index position that maps to the supplied value
+     * @throws IndexOutOfBoundsException If the supplied value is out of range
+     */
+    long invert(long aValue);
+}
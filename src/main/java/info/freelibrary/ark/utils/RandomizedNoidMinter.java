@@ -1,33 +1,15 @@
 
 package info.freelibrary.ark.utils;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.io.Serializable;
-import java.nio.ByteBuffer;
-import java.nio.MappedByteBuffer;
-import java.nio.channels.AsynchronousFileChannel;
-import java.nio.channels.FileChannel;
-import java.nio.channels.FileLock;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
-import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.Locale;
+import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.concurrent.ExecutionException;
 
-import info.freelibrary.util.I18nRuntimeException;
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
-import info.freelibrary.util.Stopwatch;
 
-import info.freelibrary.ark.Config;
 import info.freelibrary.ark.MessageCodes;
 import info.freelibrary.ark.NoidType;
 
@@ -36,11 +18,13 @@ import io.netty.util.internal.ThreadLocalRandom;
 /**
  * A NOID minter that randomizes its NOIDs.
  * <p>
- * To randomize, the minter first writes all possible NOIDs to an array file (which might take some time, depending on
- * NOID type and length) and then uses a modified LCG algorithm found at https://stackoverflow.com/a/29158495/171452 to
- * iterate over all possible indices. For each index position, the minter reads the NOID associated with that index
- * position from the file. If a shoulder and checksum are desired, these are added to the NOID before it is returned by
- * the minter.
+ * To randomize, the minter uses a {@link Permutation} (by default, a randomly keyed {@link FeistelPermutation}) to map
+ * each position in its randomized sequence to an index position in the sequence of all possible NOIDs. The minter
+ * then computes the NOID at that index position (see {@link NoidMinter#unrank(NoidType, int, long) unrank}). If a
+ * shoulder and checksum are desired, these are added to the NOID before it is returned by the minter. Since the
+ * permutation can be computed in either direction, the minter can {@link #seek(long) seek} to any position in its
+ * sequence and can find the position at which any of its NOIDs was minted. A minter whose NOIDs must match a
+ * {@link NoidPattern} permutes the index positions of just the NOIDs that match it.
  * </p>
  */
 public class RandomizedNoidMinter extends NoidMinter implements Iterator<String>, Serializable, AutoCloseable {
@@ -51,14 +35,8 @@ public class RandomizedNoidMinter extends NoidMinter implements Iterator<String>
     /* The <code>serialVersionUID</code> for RandomizedNoidMinter. */
     private static final long serialVersionUID = 2138657523643562090L;
 
-    /* The linear congruential generator (LCG) increment (often referred to as 'c'). */
-    private static final int DEFAULT_INCREMENT = 1013904223;
-
-    /* The LCG multiplier (often referred to as 'a'). */
-    private static final int DEFAULT_MULTIPLIER = 1664525;
-
-    /* The byte buffer into which NOIDs are read. */
-    private final ByteBuffer myByteBuffer;
+    /* The largest number of NOIDs the minter can randomize. */
+    private static final long MAX_NOID_COUNT = 1L << 62;
 
     /* The unique name for this minter. */
     private final String myMinterType;
@@ -66,37 +44,20 @@ public class RandomizedNoidMinter extends NoidMinter implements Iterator<String>
     /* The total number of possible NOIDs for this minter. */
     private final long myTotalNoidCount;
 
-    /* The length of NOIDs in the NAF. */
-    private final int myNoidLength;
-
-    /* The key file associated with this minter type. */
-    private final Path myKeyFile;
-
-    /* The LCG modulus (often referred to as 'm'). */
-    private final long myModulus;
+    /* The permutation that randomizes the order of the minted NOIDs. */
+    private final Permutation myPermutation;
 
-    /* The NOID array file. */
-    private AsynchronousFileChannel myNAF;
-
-    /* If the minter has a next NOID. */
-    private boolean hasNextNOID = true;
-
-    /* The next value in the LCG sequence. */
+    /* The position of the next NOID in the minter's randomized sequence. */
     private long myIndex;
 
-    /* The LCG seed. */
-    private long mySeed;
-
     /**
      * Creates a new randomized NOID minter.
      *
      * @param aNamespace A namespace (i.e. name) for the newly created minter
      * @param aNoidType A type of NOID to be minted
      * @param aNoidLength The length of NOIDs to be minted (minus shoulder and checksum character)
-     * @throws IOException If there is trouble reading or writing NOIDs from a random access file
      */
-    public RandomizedNoidMinter(final String aNamespace, final NoidType aNoidType, final int aNoidLength)
-            throws IOException {
+    public RandomizedNoidMinter(final String aNamespace, final NoidType aNoidType, final int aNoidLength) {
         this(aNamespace, aNoidType, null, aNoidLength);
     }
 
@@ -107,10 +68,9 @@ public class RandomizedNoidMinter extends NoidMinter implements Iterator<String>
      * @param aNoidType A type of NOID to be minted
      * @param aNoidLength The length of NOIDs to be minted (minus shoulder and checksum character)
      * @param aChecksumRequired True if a checksum should be generated; else, false
-     * @throws IOException If there is trouble reading or writing NOIDs from a random access file
      */
     public RandomizedNoidMinter(final String aNamespace, final NoidType aNoidType, final int aNoidLength,
-            final boolean aChecksumRequired) throws IOException {
+            final boolean aChecksumRequired) {
         this(aNamespace, aNoidType, null, aNoidLength, aChecksumRequired);
     }
 
@@ -121,10 +81,9 @@ public class RandomizedNoidMinter extends NoidMinter implements Iterator<String>
      * @param aNoidType A type of NOID to be minted
      * @param aShoulder A shoulder (i.e. prefix) for the minted NOID
      * @param aNoidLength The length of NOIDs to be minted (minus shoulder and checksum character)
-     * @throws IOException If there is trouble reading or writing NOIDs from a random access file
      */
     public RandomizedNoidMinter(final String aNamespace, final NoidType aNoidType, final String aShoulder,
-            final int aNoidLength) throws IOException {
+            final int aNoidLength) {
         this(aNamespace, aNoidType, aShoulder, aNoidLength, true);
     }
 
@@ -136,44 +95,98 @@ public class RandomizedNoidMinter extends NoidMinter implements Iterator<String>
      * @param aShoulder A shoulder (i.e. prefix) for the minted NOID
      * @param aNoidLength The length of NOIDs to be minted (minus shoulder and checksum character)
      * @param aChecksumRequired Whether the NOID should have a checksum character at the end
-     * @throws IOException If there is trouble reading or writing NOIDs from a random access file
      */
     public RandomizedNoidMinter(final String aNamespace, final NoidType aNoidType, final String aShoulder,
-            final int aNoidLength, final boolean aChecksumRequired) throws IOException {
-        super(aNamespace, aNoidType, null, aNoidLength, false);
+            final int aNoidLength, final boolean aChecksumRequired) {
+        this(aNamespace, aNoidType, aShoulder, aNoidLength, aChecksumRequired,
+                new FeistelPermutation(aNoidType.getNoidCount(aNoidLength), ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Creates a new randomized NOID minter that uses the supplied permutation to order its NOIDs. Minters created with
+     * the same permutation (e.g., a {@link FeistelPermutation} with the same key) mint NOIDs in the same order.
+     *
+     * @param aNamespace A namespace (i.e. name) for the newly created minter
+     * @param aNoidType A type of NOID to be minted
+     * @param aShoulder A shoulder (i.e. prefix) for the minted NOID
+     * @param aNoidLength The length of NOIDs to be minted (minus shoulder and checksum character)
+     * @param aChecksumRequired Whether the NOID should have a checksum character at the end
+     * @param aPermutation A permutation of the index positions of all the NOIDs the minter can mint
+     * @throws IllegalArgumentException If the permutation's size doesn't match the number of NOIDs that can be minted
+     */
+    public RandomizedNoidMinter(final String aNamespace, final NoidType aNoidType, final String aShoulder,
+            final int aNoidLength, final boolean aChecksumRequired, final Permutation aPermutation) {
+        this(aNamespace, aNoidType, aShoulder, aNoidLength, aChecksumRequired, null, aPermutation);
+    }
+
+    /**
+     * Creates a new randomized NOID minter that mints just the NOIDs that match a pattern. The NOIDs' type and length
+     * are the pattern's.
+     *
+     * @param aNamespace A namespace (i.e. name) for the newly created minter
+     * @param aPattern A pattern the minted NOIDs (minus shoulder and checksum character) match
+     * @param aShoulder A shoulder (i.e. prefix) for the minted NOID
+     * @param aChecksumRequired Whether the NOID should have a checksum character at the end
+     * @throws IllegalArgumentException If the pattern matches too many NOIDs to randomize
+     */
+    public RandomizedNoidMinter(final String aNamespace, final NoidPattern aPattern, final String aShoulder,
+            final boolean aChecksumRequired) {
+        this(aNamespace, aPattern, aShoulder, aChecksumRequired,
+                new FeistelPermutation(aPattern.getCount(), ThreadLocalRandom.current().nextLong()));
+    }
+
+    /**
+     * Creates a new randomized NOID minter that mints just the NOIDs that match a pattern, in the order of the
+     * supplied permutation.
+     *
+     * @param aNamespace A namespace (i.e. name) for the newly created minter
+     * @param aPattern A pattern the minted NOIDs (minus shoulder and checksum character) match
+     * @param aShoulder A shoulder (i.e. prefix) for the minted NOID
+     * @param aChecksumRequired Whether the NOID should have a checksum character at the end
+     * @param aPermutation A permutation of the index positions of all the NOIDs the pattern matches
+     * @throws IllegalArgumentException If the permutation's size doesn't match the number of NOIDs that can be minted
+     */
+    public RandomizedNoidMinter(final String aNamespace, final NoidPattern aPattern, final String aShoulder,
+            final boolean aChecksumRequired, final Permutation aPermutation) {
+        this(aNamespace, aPattern.getNoidType(), aShoulder, aPattern.getNoidLength(), aChecksumRequired, aPattern,
+                aPermutation);
+    }
+
+    /**
+     * Creates a new randomized NOID minter. This is how a minter that's been sent in a message, or copied, is
+     * recreated with its pattern and permutation.
+     *
+     * @param aNamespace A namespace (i.e. name) for the newly created minter
+     * @param aNoidType A type of NOID to be minted
+     * @param aShoulder A shoulder (i.e. prefix) for the minted NOID
+     * @param aNoidLength The length of NOIDs to be minted (minus shoulder and checksum character)
+     * @param aChecksumRequired Whether the NOID should have a checksum character at the end
+     * @param aPattern A pattern the minted NOIDs match, or null if they can be any NOIDs of the type and length
+     * @param aPermutation A permutation of the index positions of all the NOIDs the minter can mint
+     * @throws IllegalArgumentException If the permutation's size doesn't match the number of NOIDs that can be minted
+     */
+    RandomizedNoidMinter(final String aNamespace, final NoidType aNoidType, final String aShoulder,
+            final int aNoidLength, final boolean aChecksumRequired, final NoidPattern aPattern,
+            final Permutation aPermutation) {
+        super(aNamespace, aNoidType, aShoulder, aNoidLength, aChecksumRequired, aPattern);
 
         // The unique name for this minter type
         myMinterType = aNoidType.toString() + '-' + aNoidLength;
 
-        // The length of NOIDs generated by this minter
-        myNoidLength = aNoidLength;
-
         // Get the total number of NOIDs that this minter can mint
-        myTotalNoidCount = aNoidType.getNoidCount(aNoidLength);
+        myTotalNoidCount = getSize();
 
         // Set a max on the number of NOIDs we can randomize
-        if (myTotalNoidCount <= 0 || myTotalNoidCount > Math.pow(2, 62)) {
+        if (myTotalNoidCount <= 0 || myTotalNoidCount > MAX_NOID_COUNT) {
             throw new IllegalArgumentException(LOGGER.getMessage(MessageCodes.ARK_026, myTotalNoidCount));
         }
 
-        // The .naf extension is for our "NOID array file" format; it's just a fixed size array of bare NOIDs
-        myKeyFile = Paths.get(getDbFilesDir(), myMinterType + ".naf");
-
-        // If key file does not already exist, create it; this may take awhile, depending on NOID type/length
-        if (!myKeyFile.toFile().exists()) {
-            createKeyFile(aNoidType, aNoidLength);
+        if (aPermutation.size() != myTotalNoidCount) {
+            throw new IllegalArgumentException(
+                    LOGGER.getMessage(MessageCodes.ARK_032, aPermutation.size(), myTotalNoidCount));
         }
 
-        // Create a byte buffer for NOIDs we read from the NAF
-        myByteBuffer = ByteBuffer.allocate(myNoidLength);
-
-        // Initialize the linear congruential generator (LCG)
-        myModulus = (long) Math.pow(2, Math.ceil(Math.log(myTotalNoidCount) / Math.log(2)));
-        myIndex = mySeed = ThreadLocalRandom.current().nextInt((int) Math.min(myTotalNoidCount, Integer.MAX_VALUE));
-
-        // We can set these now that we've used the underlying minter to give us the bare NOIDs
-        hasChecksums = aChecksumRequired;
-        myShoulder = aShoulder;
+        myPermutation = aPermutation;
     }
 
     @Override
@@ -183,162 +196,87 @@ public class RandomizedNoidMinter extends NoidMinter implements Iterator<String>
 
     @Override
     public boolean hasNext() {
-        return hasNextNOID;
+        return myIndex < myTotalNoidCount;
     }
 
     @Override
     public String next() {
-        if (!hasNextNOID) {
+        if (!hasNext()) {
             throw new NoSuchElementException();
         }
 
-        myIndex = (DEFAULT_MULTIPLIER * myIndex + DEFAULT_INCREMENT) % myModulus;
-
-        while (myIndex >= myTotalNoidCount) {
-            myIndex = (DEFAULT_MULTIPLIER * myIndex + DEFAULT_INCREMENT) % myModulus;
-        }
-
-        if (myIndex == mySeed) {
-            hasNextNOID = false;
-        }
-
-        return getNoidFromNAF(myIndex);
+        return getNOID(myPermutation.permute(myIndex++));
     }
 
     /**
-     * Gets the bare NOID at the supplied index position from the underlying sequential NAF. This index is not the index
-     * of the randomized minter, but a sequential index position of the NOID in the NOID array file.
+     * Gets a batch of NOIDs. If there aren't enough NOIDs left to satisfy the request, the ones that are left are
+     * returned.
      *
-     * @param aIndex An index position to use when retrieving from the NAF
-     * @return The requested NOID
+     * @param aCount A requested number of NOIDs
+     * @return A list containing the requested NOIDs
      */
-    public String getNOID(final long aIndex) {
-        return getNoidFromNAF(aIndex);
-    }
-
     @Override
-    public String toString() {
-        return LOGGER.getMessage(MessageCodes.ARK_028, RandomizedNoidMinter.class.getSimpleName(), myIndex, myKeyFile);
+    public List<String> next(final int aCount) {
+        final int count = (int) Math.max(0, Math.min(aCount, myTotalNoidCount - myIndex));
+        final List<String> noids = new ArrayList<>(count);
+
+        for (int index = 0; index < count; index++) {
+            noids.add(getNOID(myPermutation.permute(myIndex++)));
+        }
+
+        return noids;
     }
 
     @Override
-    public void close() throws Exception {
-        if (myNAF != null && myNAF.isOpen()) {
-            myNAF.close();
+    public void seek(final long aIndex) {
+        if (aIndex < 0 || aIndex > myTotalNoidCount) {
+            throw new IndexOutOfBoundsException(LOGGER.getMessage(MessageCodes.ARK_029, aIndex, myTotalNoidCount));
         }
+
+        myIndex = aIndex;
     }
 
     /**
-     * Gets a NOID from the NAF.
+     * Gets the position in the minter's randomized sequence at which the supplied NOID is minted. The supplied NOID
+     * should include the minter's shoulder and checksum, if it has them.
      *
-     * @param aIndex An index position to use when retrieving a NOID from the NAF
-     * @param aByteBuffer A byte buffer into which to write the NOID
-     * @return The requested NOID
-     * @throws NoSuchElementException If there isn't an NOID available
+     * @param aNOID A NOID minted by this minter
+     * @return The position of the supplied NOID in the minter's randomized sequence
+     * @throws IllegalArgumentException If the supplied NOID couldn't have been minted by this minter
      */
-    private String getNoidFromNAF(final long aIndex) throws NoSuchElementException {
-        try {
-            if (myNAF == null || !myNAF.isOpen()) {
-                myNAF = AsynchronousFileChannel.open(myKeyFile, StandardOpenOption.READ);
-            }
-
-            if (myNAF.read(myByteBuffer.clear(), aIndex * myNoidLength).get().equals(myNoidLength)) {
-                return mint(new String(myByteBuffer.array(), StandardCharsets.UTF_8));
-            } else {
-                final String executionExceptionMessage = LOGGER.getMessage(MessageCodes.ARK_023, myKeyFile);
-                final String ioExceptionMessage = LOGGER.getMessage(MessageCodes.ARK_024, aIndex);
-
-                throw new ExecutionException(executionExceptionMessage, new IOException(ioExceptionMessage));
-            }
-        } catch (final ExecutionException | InterruptedException details) {
-            throw new I18nRuntimeException(details);
-        } catch (final IOException details) {
-            LOGGER.error(details, details.getMessage());
-            throw new NoSuchElementException(details.getMessage());
-        }
+    @Override
+    public long rank(final String aNOID) {
+        return myPermutation.invert(super.rank(aNOID));
     }
 
     /**
-     * Get the directory for database files from: 1) a <code>DB_FILES_DIR</code> environmental property, or 2) a
-     * <code>db.files.dir</code> system property, or 3) the <code>java.io.tmpdir</code> system property.
+     * Gets the permutation that determines the order of the minter's NOIDs.
      *
-     * @return The location of the directory used for database files
+     * @return The minter's permutation
      */
-    private String getDbFilesDir() {
-        final String dbDirSysProperty = System.getProperty(Config.DB_FILES_DIR);
-        final String dbDirEnvProperty = System.getenv(Config.DB_FILES_DIR.toUpperCase(Locale.US).replace(".", "_"));
-
-        if (dbDirEnvProperty == null && dbDirSysProperty == null) {
-            return System.getProperty("java.io.tmpdir");
-        } else if (dbDirEnvProperty != null) {
-            return dbDirEnvProperty;
-        } else {
-            return dbDirSysProperty;
-        }
+    public Permutation getPermutation() {
+        return myPermutation;
     }
 
     /**
-     * Creates a key file for our randomized minter. Keeping billions of NOIDs in memory isn't great, but to randomize
-     * them without doing that we'll need something to iterate over. This method writes a NAF (NOID array) file to disk
-     * so that we can use that to iterate over base NOID values, adding a requested shoulder and/or checksum as needed.
+     * Gets the NOID at the supplied index position in the sequence of all possible NOIDs. This index is not the index
+     * of the randomized minter, but a sequential index position.
      *
-     * @param aNoidType The type of NOIDs in this key file
-     * @param aNoidLength A length of NOIDs in this key file
-     * @throws FileNotFoundException If the path to the supplied file cannot be found
-     * @throws IOException If there is trouble reading or writing to the key file
+     * @param aIndex A sequential index position
+     * @return The requested NOID
      */
-    private void createKeyFile(final NoidType aNoidType, final int aNoidLength)
-            throws FileNotFoundException, IOException {
-        try (RandomAccessFile file = new RandomAccessFile(myKeyFile.toFile(), "rw");
-                FileChannel fileChannel = file.getChannel()) {
-            final NumberFormat formatter = NumberFormat.getNumberInstance(Locale.US);
-            final long totalBytes = aNoidLength * myTotalNoidCount;
-            final String totalNoidCount = formatter.format(myTotalNoidCount);
-            final FileLock fileChannelLock = fileChannel.lock();
-            final int iterationByteCount;
-            final int iterationCount;
-            final Stopwatch timer;
-
-            long startIndex = 0;
-            MappedByteBuffer byteBuffer;
-
-            // Find out if we're using the max integer size or something smaller for our batch size
-            if (totalBytes < Integer.MAX_VALUE) {
-                iterationByteCount = (int) totalBytes;
-                iterationCount = 1;
-            } else {
-                iterationByteCount = Integer.MAX_VALUE - 1;
-                iterationCount = (int) Math.ceil(totalBytes / (double) iterationByteCount);
-            }
-
-            fileChannel.truncate(0);
-            timer = new Stopwatch().start();
-
-            for (int index = 0; index < iterationCount; index++) {
-                LOGGER.debug(MessageCodes.ARK_021, startIndex, iterationByteCount);
-                byteBuffer = fileChannel.map(FileChannel.MapMode.READ_WRITE, startIndex, iterationByteCount);
-
-                for (int byteCount = iterationByteCount; hasMoreBytes(byteCount); byteCount -= aNoidLength) {
-                    startIndex += aNoidLength;
-                    byteBuffer.put(UTF_8.encode(super.next()));
-                }
-            }
-
-            fileChannel.truncate(startIndex);
-            fileChannelLock.release();
-            fileChannel.close();
-
-            LOGGER.info(MessageCodes.ARK_020, totalNoidCount, myKeyFile, timer.stop().getSeconds());
-        }
+    public String getNOID(final long aIndex) {
+        return mint(unrank(aIndex));
     }
 
-    /**
-     * Determines whether there are more bytes to be read by checking the iterator and the byte count.
-     *
-     * @param aByteCount A number of bytes to be read
-     * @return True if there are more bytes to be read; else, false
-     */
-    private boolean hasMoreBytes(final int aByteCount) {
-        return super.hasNext() && aByteCount > 0;
+    @Override
+    public String toString() {
+        return LOGGER.getMessage(MessageCodes.ARK_028, RandomizedNoidMinter.class.getSimpleName(), myIndex,
+                myMinterType);
+    }
+
+    @Override
+    public void close() throws Exception {
+        // The minter computes its NOIDs, so it doesn't hold any resources
     }
 }
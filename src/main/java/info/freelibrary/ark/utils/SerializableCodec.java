@@ -9,22 +9,19 @@ import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
-import info.freelibrary.util.Logger;
-import info.freelibrary.util.LoggerFactory;
-
-import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.util.I18nRuntimeException;
 
 import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.MessageCodec;
 
 /**
- * A message codec for serializable objects.
+ * A message codec for serializable objects. Objects are encoded with Java serialization, so this codec is general but
+ * comparatively slow and verbose; {@link NoidMinterCodec} should be used for NOID minters.
+ *
+ * @param <T> The type of serializable object the codec is registered for
  */
 public class SerializableCodec<T> implements MessageCodec<T, T> {
 
-    /* The codec's logger. */
-    private static final Logger LOGGER = LoggerFactory.getLogger(SerializableCodec.class, MessageCodes.BUNDLE);
-
     /* The name of the codec. */
     private final String myCodecName;
 
@@ -37,6 +34,13 @@ public class SerializableCodec<T> implements MessageCodec<T, T> {
         myCodecName = aSerializable.getSimpleName() + "Codec";
     }
 
+    /**
+     * Encodes a serializable object into the supplied buffer.
+     *
+     * @param aBuffer A buffer to which the encoded object is appended
+     * @param aSerializable A serializable object
+     * @throws I18nRuntimeException If the object can't be serialized
+     */
     @Override
     public void encodeToWire(final Buffer aBuffer, final T aSerializable) {
         try (ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
@@ -51,10 +55,18 @@ public class SerializableCodec<T> implements MessageCodec<T, T> {
             aBuffer.appendInt(bytes.length);
             aBuffer.appendBytes(bytes);
         } catch (final IOException details) {
-            LOGGER.error(details, details.getMessage());
+            throw new I18nRuntimeException(details);
         }
     }
 
+    /**
+     * Decodes a serializable object from the supplied buffer.
+     *
+     * @param aPosition The position in the buffer at which the encoded object starts
+     * @param aBuffer A buffer
+     * @return The decoded object
+     * @throws I18nRuntimeException If the object can't be deserialized
+     */
     @Override
     @SuppressWarnings("unchecked")
     public T decodeFromWire(final int aPosition, final Buffer aBuffer) {
@@ -64,10 +76,8 @@ public class SerializableCodec<T> implements MessageCodec<T, T> {
         try (ObjectInputStream byteStream = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
             return (T) byteStream.readObject();
         } catch (IOException | ClassNotFoundException details) {
-            LOGGER.error(details, details.getMessage());
+            throw new I18nRuntimeException(details);
         }
-
-        return null;
     }
 
     @Override
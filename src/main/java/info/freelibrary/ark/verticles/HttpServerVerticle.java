@@ -0,0 +1,46 @@
+
+package info.freelibrary.ark.verticles;
+
+import info.freelibrary.ark.Config;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.Promise;
+import io.vertx.core.http.HttpServer;
+import io.vertx.ext.web.Router;
+
+/**
+ * A verticle that serves Covenant's API from an HTTP server. Several instances can be deployed to share the listening
+ * port, each on its own event loop; they all share the router that the main verticle built from the API
+ * specification.
+ */
+public class HttpServerVerticle extends AbstractVerticle {
+
+    /* The router that handles the server's requests. */
+    private final Router myRouter;
+
+    /* The verticle's HTTP server. */
+    private HttpServer myServer;
+
+    /**
+     * Creates a new HTTP server verticle.
+     *
+     * @param aRouter The router that handles the server's requests
+     */
+    public HttpServerVerticle(final Router aRouter) {
+        myRouter = aRouter;
+    }
+
+    /**
+     * Starts an HTTP server on the configured port.
+     */
+    @Override
+    public void start(final Promise<Void> aPromise) {
+        myServer = vertx.createHttpServer().requestHandler(myRouter);
+        myServer.listen(config().getInteger(Config.HTTP_PORT)).<Void>mapEmpty().onComplete(aPromise);
+    }
+
+    @Override
+    public void stop(final Promise<Void> aPromise) {
+        myServer.close().onComplete(aPromise);
+    }
+}
@@ -1,7 +1,13 @@
 
 package info.freelibrary.ark.verticles;
 
-import java.util.concurrent.TimeUnit;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
 
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
@@ -9,25 +15,41 @@ import info.freelibrary.util.LoggerFactory;
 import info.freelibrary.ark.Config;
 import info.freelibrary.ark.MessageCodes;
 import info.freelibrary.ark.Op;
+import info.freelibrary.ark.handlers.LaneMetricsHandler;
 import info.freelibrary.ark.handlers.MintArkHandler;
 import info.freelibrary.ark.handlers.MintArkNamespaceHandler;
 import info.freelibrary.ark.handlers.MintNoidHandler;
 import info.freelibrary.ark.handlers.MintNoidNamespaceHandler;
+import info.freelibrary.ark.handlers.NoidLeaseHandler;
 import info.freelibrary.ark.handlers.PageHandler;
+import info.freelibrary.ark.handlers.ValidateHandler;
+import info.freelibrary.ark.utils.BackgroundJobs;
+import info.freelibrary.ark.utils.MintingLanes;
+import info.freelibrary.ark.utils.NoidMinter;
+import info.freelibrary.ark.utils.NoidMinterCodec;
+import info.freelibrary.ark.utils.RandomizedNoidMinter;
 
 import io.vertx.config.ConfigRetriever;
 import io.vertx.core.AbstractVerticle;
-import io.vertx.core.AsyncResult;
 import io.vertx.core.DeploymentOptions;
-import io.vertx.core.Handler;
+import io.vertx.core.Future;
 import io.vertx.core.Promise;
-import io.vertx.core.http.HttpServer;
+import io.vertx.core.ThreadingModel;
+import io.vertx.core.eventbus.EventBus;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.openapi.RouterBuilder;
 
 /**
  * Main verticle that starts the application.
+ * <p>
+ * The API specification is parsed, and its router built, just once; the router is then shared by a configurable
+ * number of HTTP server verticles (one per core, by default) that listen on the same port, so requests are handled
+ * on several event loops. Namespace state is partitioned across {@link MintingLanes}: each namespace is owned by the
+ * {@link NamespaceMintingVerticle} of the lane it's hashed onto, and all the server instances send the namespace's
+ * requests to that lane. The lanes share the namespace database, which this verticle opens and closes. Long-running
+ * jobs, like materializing a namespace, are run as {@link BackgroundJobs}, so they don't hold up the lanes' mints.
+ * </p>
  */
 public class MainVerticle extends AbstractVerticle {
 
@@ -35,7 +57,14 @@ public class MainVerticle extends AbstractVerticle {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MainVerticle.class, MessageCodes.BUNDLE);
 
-    private HttpServer myServer;
+    /* The first Java version with virtual threads. */
+    private static final int VIRTUAL_THREAD_JAVA_VERSION = 21;
+
+    /* The namespace database, which is shared by the minting lanes. */
+    private DB myDb;
+
+    /* The executor for long-running jobs, which is shared by the minting lanes. */
+    private BackgroundJobs myJobs;
 
     /**
      * Starts a Web server.
@@ -57,11 +86,20 @@ public class MainVerticle extends AbstractVerticle {
 
     @Override
     public void stop(final Promise<Void> aPromise) {
-        myServer.close(close -> {
-            if (close.succeeded()) {
-                aPromise.complete();
+        final Future<Void> jobsClosed = myJobs == null ? Future.succeededFuture() : myJobs.close();
+
+        // The minting lanes, which are child deployments, have already been stopped
+        jobsClosed.onComplete(closed -> {
+            if (myDb != null && !myDb.isClosed()) {
+                vertx.executeBlocking(() -> {
+                    synchronized (myDb) {
+                        myDb.close();
+                    }
+
+                    return null;
+                }).<Void>mapEmpty().onComplete(aPromise);
             } else {
-                aPromise.fail(close.cause());
+                aPromise.complete();
             }
         });
     }
@@ -73,79 +111,158 @@ public class MainVerticle extends AbstractVerticle {
      * @param aPromise A startup promise
      */
     private void configureServer(final JsonObject aConfig, final Promise<Void> aPromise) {
-        final int port = aConfig.getInteger(Config.HTTP_PORT);
+        final int laneCount = aConfig.getInteger(Config.MINTING_LANES, Runtime.getRuntime().availableProcessors());
+        final int queueLimit = aConfig.getInteger(Config.MINTING_QUEUE_LIMIT, MintingLanes.DEFAULT_QUEUE_LIMIT);
+        final MintingLanes lanes = new MintingLanes(laneCount, queueLimit).share(vertx);
+        final int jobLimit = aConfig.getInteger(Config.BACKGROUND_JOBS, BackgroundJobs.DEFAULT_JOB_LIMIT);
+        final int jobQueueLimit = aConfig.getInteger(Config.BACKGROUND_QUEUE_LIMIT, BackgroundJobs.DEFAULT_QUEUE_LIMIT);
+        final EventBus eventBus = vertx.eventBus();
+
+        myJobs = new BackgroundJobs(vertx, jobLimit, jobQueueLimit).share(vertx);
+
+        // Register the codecs we'll use for sending minters to the lanes
+        eventBus.registerDefaultCodec(NoidMinter.class, new NoidMinterCodec<>(NoidMinter.class));
+        eventBus.registerDefaultCodec(RandomizedNoidMinter.class, new NoidMinterCodec<>(RandomizedNoidMinter.class));
 
         RouterBuilder.create(vertx, API_SPEC).onSuccess(routerBuilder -> {
-            final Router router;
+            final Router router = Router.router(vertx);
+            final Router apiRouter;
 
-            // Associate handlers with OpenAPI operation IDs
+            // Associate handlers with OpenAPI operation IDs; they're shared by all the server instances
             routerBuilder.operation(Op.MINT_ARK_NAMESPACE).handler(new MintArkNamespaceHandler(vertx));
             routerBuilder.operation(Op.MINT_NOID_NAMESPACE).handler(new MintNoidNamespaceHandler(vertx));
-            routerBuilder.operation(Op.MINT_NOID).handler(new MintNoidHandler(vertx));
-            routerBuilder.operation(Op.MINT_ARK).handler(new MintArkHandler(vertx));
+            routerBuilder.operation(Op.MINT_NOID).handler(new MintNoidHandler(vertx, aConfig));
+            routerBuilder.operation(Op.MINT_ARK).handler(new MintArkHandler(vertx, aConfig));
+            routerBuilder.operation(Op.LEASE_NOIDS).handler(new NoidLeaseHandler(vertx, Op.LEASE_NOIDS));
+            routerBuilder.operation(Op.RETURN_NOID_LEASE).handler(new NoidLeaseHandler(vertx, Op.RETURN_NOID_LEASE));
+            routerBuilder.operation(Op.GET_LEASE_METRICS).handler(new NoidLeaseHandler(vertx, Op.GET_LEASE_METRICS));
+            routerBuilder.operation(Op.GET_LANE_METRICS).handler(new LaneMetricsHandler(lanes, myJobs));
 
             // Create the router from the OpenAPI specification
-            router = routerBuilder.createRouter();
+            apiRouter = routerBuilder.createRouter();
 
             // Set up page handlers
-            router.get("/admin").handler(new PageHandler());
-            router.get("/").handler(new PageHandler());
+            apiRouter.get("/admin").handler(new PageHandler());
+            apiRouter.get("/").handler(new PageHandler());
+
+            // Identifiers to validate are streamed, so they're routed before the API router reads the request's body
+            router.post("/validate").handler(new ValidateHandler(vertx));
+            router.route("/*").subRouter(apiRouter);
 
-            // Start the Covenant server
-            myServer = vertx.createHttpServer().requestHandler(router);
-            myServer.listen(port, new StartupHandler(port, aPromise));
+            // Start the namespace minting lanes, and then the servers that send them requests
+            openDatabase(aConfig).compose(db -> deployLanes(aConfig, lanes, db))
+                    .compose(laneDeployments -> deployServers(aConfig, router)).onSuccess(serverDeployment -> {
+                        LOGGER.info(MessageCodes.ARK_007, aConfig.getInteger(Config.HTTP_PORT));
+                        aPromise.complete();
+                    }).onFailure(aPromise::fail);
         }).onFailure(aPromise::fail);
     }
 
     /**
-     * A handler for a newly started server.
+     * Opens the namespace database, creating it if it doesn't exist yet.
+     *
+     * @param aConfig The application's configuration
+     * @return The namespace database
+     */
+    private Future<DB> openDatabase(final JsonObject aConfig) {
+        return vertx.executeBlocking(() -> {
+            final File dbFile = NamespaceMintingVerticle.getDbFile(aConfig);
+
+            myDb = DBMaker.fileDB(dbFile).transactionEnable().make();
+            LOGGER.debug(MessageCodes.ARK_046, dbFile);
+
+            return myDb;
+        });
+    }
+
+    /**
+     * Deploys a namespace minting verticle for each of the minting lanes. Each lane handles its events one at a time,
+     * on a worker thread of its own or on virtual threads (see {@link #getBlockingOptions(JsonObject, String)}), so the
+     * operations on its namespaces are handled in order while other lanes' proceed in parallel. Long jobs are run off
+     * the lanes, so the lanes' workers keep the default limit on how long they can be blocked.
+     *
+     * @param aConfig The application's configuration
+     * @param aLanes The minting lanes
+     * @param aDb The namespace database, which is shared by the lanes
+     * @return The IDs of the lanes' deployments
      */
-    private final class StartupHandler implements Handler<AsyncResult<HttpServer>> {
-
-        /**
-         * The port at which the server should be started.
-         */
-        private final int myPort;
-
-        /**
-         * A promise that the application startup will happen.
-         */
-        private final Promise<Void> myPromise;
-
-        /**
-         * Creates a new startup handler.
-         *
-         * @param aPort A port
-         * @param aPromise A startup promise
-         */
-        private StartupHandler(final int aPort, final Promise<Void> aPromise) {
-            myPromise = aPromise;
-            myPort = aPort;
+    private Future<Object> deployLanes(final JsonObject aConfig, final MintingLanes aLanes, final DB aDb) {
+        final List<Future<String>> deployments = new ArrayList<>(aLanes.size());
+
+        for (int index = 0; index < aLanes.size(); index++) {
+            final DeploymentOptions nsMintingOpts = getBlockingOptions(aConfig, aLanes.getAddress(index));
+            final int lane = index;
+
+            deployments.add(vertx.deployVerticle(() -> new NamespaceMintingVerticle(lane, aDb), nsMintingOpts));
         }
 
-        @Override
-        public void handle(final AsyncResult<HttpServer> aStartup) {
-            if (aStartup.succeeded()) {
-                final DeploymentOptions nsMintingOpts = new DeploymentOptions().setConfig(config());
-                final String nsMintingVerticleName = NamespaceMintingVerticle.class.getName();
+        return Future.all(deployments).map(all -> deployments);
+    }
 
-                nsMintingOpts.setWorker(true).setWorkerPoolName(nsMintingVerticleName).setWorkerPoolSize(1);
-                nsMintingOpts.setMaxWorkerExecuteTime(10).setMaxWorkerExecuteTimeUnit(TimeUnit.MINUTES);
+    /**
+     * Gets the deployment options for a verticle that blocks on I/O, like a minting lane. In the worker threading
+     * model, the verticle gets a worker pool of its own, with a single thread; on virtual threads, it doesn't need one,
+     * since a virtual thread that blocks doesn't hold on to a platform thread. Either way, the verticle's events are
+     * handled one at a time, in order.
+     *
+     * @param aConfig The application's configuration
+     * @param aPoolName The name of the verticle's worker pool, if it's deployed on worker threads
+     * @return The verticle's deployment options
+     */
+    public static DeploymentOptions getBlockingOptions(final JsonObject aConfig, final String aPoolName) {
+        final DeploymentOptions options = new DeploymentOptions().setConfig(aConfig);
 
-                LOGGER.info(MessageCodes.ARK_007, myPort);
+        if (getBlockingThreadingModel(aConfig) == ThreadingModel.VIRTUAL_THREAD) {
+            return options.setThreadingModel(ThreadingModel.VIRTUAL_THREAD);
+        }
 
-                // If the server startup succeeds, deploy verticles into the server
-                vertx.deployVerticle(nsMintingVerticleName, nsMintingOpts, deployment -> {
-                    if (deployment.succeeded()) {
-                        myPromise.complete();
-                    } else {
-                        myPromise.fail(deployment.cause());
-                    }
-                });
-            } else {
-                myPromise.fail(aStartup.cause());
-            }
+        return options.setThreadingModel(ThreadingModel.WORKER).setWorkerPoolName(aPoolName).setWorkerPoolSize(1);
+    }
+
+    /**
+     * Gets the configured threading model for verticles that block on I/O. Virtual threads are only used if the JVM
+     * supports them; otherwise, or if the configured model isn't one that may block, worker threads are used.
+     *
+     * @param aConfig The application's configuration
+     * @return The threading model for verticles that block on I/O
+     */
+    public static ThreadingModel getBlockingThreadingModel(final JsonObject aConfig) {
+        final String modelName = aConfig.getString(Config.BLOCKING_THREADING_MODEL, ThreadingModel.WORKER.name());
+        final ThreadingModel model;
+
+        try {
+            model = ThreadingModel.valueOf(modelName.trim().toUpperCase(Locale.US));
+        } catch (final IllegalArgumentException details) {
+            LOGGER.warn(MessageCodes.ARK_067, modelName);
+            return ThreadingModel.WORKER;
         }
 
+        if (model == ThreadingModel.EVENT_LOOP) {
+            LOGGER.warn(MessageCodes.ARK_067, modelName);
+            return ThreadingModel.WORKER;
+        }
+
+        if (model == ThreadingModel.VIRTUAL_THREAD && Runtime.version().feature() < VIRTUAL_THREAD_JAVA_VERSION) {
+            LOGGER.warn(MessageCodes.ARK_068, Runtime.version().feature());
+            return ThreadingModel.WORKER;
+        }
+
+        return model;
+    }
+
+    /**
+     * Deploys the configured number of HTTP server verticles, which share the supplied router and the listening port.
+     *
+     * @param aConfig The application's configuration
+     * @param aRouter The application's router
+     * @return The ID of the server verticles' deployment
+     */
+    private Future<String> deployServers(final JsonObject aConfig, final Router aRouter) {
+        final int instances = aConfig.getInteger(Config.HTTP_INSTANCES, Runtime.getRuntime().availableProcessors());
+        final DeploymentOptions serverOpts = new DeploymentOptions().setConfig(aConfig);
+
+        serverOpts.setInstances(Math.max(1, instances));
+
+        return vertx.deployVerticle(() -> new HttpServerVerticle(aRouter), serverOpts);
     }
 }
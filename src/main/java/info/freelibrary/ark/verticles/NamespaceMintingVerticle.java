@@ -1,31 +1,71 @@
 
 package info.freelibrary.ark.verticles;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
-import org.mapdb.BTreeMap;
 import org.mapdb.DB;
 import org.mapdb.DBException;
 import org.mapdb.DBMaker;
+import org.mapdb.HTreeMap;
 import org.mapdb.Serializer;
 
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
 import info.freelibrary.util.Stopwatch;
 
+import info.freelibrary.ark.Config;
+import info.freelibrary.ark.HTTP;
 import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.Namespace;
 import info.freelibrary.ark.Op;
+import info.freelibrary.ark.utils.BackgroundJobs;
+import info.freelibrary.ark.utils.CursorStore;
+import info.freelibrary.ark.utils.LeaseLedger;
+import info.freelibrary.ark.utils.MintingLanes;
+import info.freelibrary.ark.utils.NamespaceUtils;
 import info.freelibrary.ark.utils.NoidMinter;
-import info.freelibrary.ark.utils.SerializableCodec;
 
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Promise;
-import io.vertx.core.eventbus.EventBus;
+import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
 /**
  * A verticle that mints new NOIDs, ARKs, and their namespaces.
+ * <p>
+ * Namespace work is partitioned across several instances of the verticle, its {@link MintingLanes lanes}: each
+ * instance has a worker thread of its own and handles the namespaces that are hashed onto its lane, so its minters
+ * and cursors are never shared with another thread. The lanes share the namespace database, which they only write to
+ * while holding its lock.
+ * </p>
+ * <p>
+ * Namespaces are lazy: creating one persists just its specification and a cursor (the index position of the next NOID
+ * in its minter's sequence), and NOIDs are minted on demand by seeking a minter to the cursor. Creating a namespace is
+ * therefore quick, whatever its size, and the storage it uses doesn't depend on the number of NOIDs it could mint. A
+ * namespace can optionally be materialized when it's created, which also writes all of its NOIDs to a sorted table in
+ * a database file of its own (so the shared database isn't locked while they're written). Materializing a namespace
+ * can take a long time, so it's handed off to the {@link BackgroundJobs}; the lane keeps minting while it runs, and
+ * the namespace is stored once it's done.
+ * </p>
+ * <p>
+ * Cursors are kept in a {@link CursorStore}, which commits their advances in groups. A minted NOID is only returned
+ * once its cursor advance has been committed, so after a crash minting resumes past the last NOID that was returned.
+ * </p>
+ * <p>
+ * A client can also lease a block of a namespace's index positions (permutation positions, in a randomized namespace)
+ * and mint their NOIDs itself, from the namespace's specification. Leasing a block just advances the namespace's
+ * cursor past it, so its cost doesn't depend on the block's size. Leases are tracked in a {@link LeaseLedger}.
+ * </p>
  */
 public class NamespaceMintingVerticle extends AbstractVerticle {
 
@@ -34,51 +74,149 @@ public class NamespaceMintingVerticle extends AbstractVerticle {
      */
     public static final String ACTION = "covenant.minting.action";
 
+    /**
+     * The property that determines whether a new namespace's NOIDs should all be written when it's created.
+     */
+    public static final String MATERIALIZE = "covenant.minting.materialize";
+
+    /**
+     * The property that sets the number of NOIDs to mint in a batch. If it's set, the NOIDs are returned in an array.
+     */
+    public static final String COUNT = "covenant.minting.count";
+
+    /**
+     * The property that carries an ARK namespace's NAAN, both when the namespace is created and in replies to requests
+     * to mint its ARKs.
+     */
+    public static final String NAAN = "covenant.minting.naan";
+
+    /**
+     * The property that asks for a batch to be returned as a minter, positioned at the batch's first NOID, rather than
+     * as an array of NOIDs. The reply's count property has the number of NOIDs in the batch.
+     */
+    public static final String STREAM = "covenant.minting.stream";
+
     /**
      * The logger for the minting verticle.
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(NamespaceMintingVerticle.class, MessageCodes.BUNDLE);
 
+    /* The name of the database file that holds the namespaces. */
+    private static final String DB_FILE = "covenant.db";
+
+    /* The extension of a database file. */
+    private static final String DB_EXT = ".db";
+
+    /* The name of the table of namespace specifications. */
+    private static final String NAMESPACES = "covenant.namespaces";
+
+    /* The default number of milliseconds that cursor advances are collected before they're committed. */
+    private static final long DEFAULT_COMMIT_WINDOW = 5;
+
+    /* The default largest number of cursor advances that are committed together. */
+    private static final int DEFAULT_COMMIT_GROUP = 1000;
+
+    /* The default number of seconds a lease of index positions lasts. */
+    private static final long DEFAULT_LEASE_TTL = 3600;
+
+    /* The prefix of the names of a materialized namespace's table of NOIDs and its database file. */
+    private static final String NOIDS = "covenant.noids.";
+
+    /* The minters of the namespaces that have been minted from, positioned at their namespaces' cursors. */
+    private final Map<String, NoidMinter> myMinters = new HashMap<>();
+
+    /* The NAANs of the ARK namespaces that have been minted from. */
+    private final Map<String, String> myNaans = new HashMap<>();
+
+    /* The namespaces that are being built in the background. */
+    private final Set<String> myBuilds = new HashSet<>();
+
+    /* The lane whose namespaces the verticle handles. */
+    private final int myLane;
+
+    /* The namespace database, which is shared with the other lanes. */
     private final DB myDb;
 
+    /* The specifications of the namespaces, as JSON. */
+    private HTreeMap<String, String> myNamespaces;
+
+    /* The index position of the next NOID to mint in each namespace. */
+    private CursorStore myCursors;
+
+    /* The outstanding leases of namespaces' index positions. */
+    private LeaseLedger myLeases;
+
     /**
-     * Creates a new minting verticle.
+     * Creates a minting verticle for one of the minting lanes.
+     *
+     * @param aLane The lane whose namespaces the verticle handles
+     * @param aDb The namespace database, which is shared with the other lanes
      */
-    public NamespaceMintingVerticle() {
-        myDb = DBMaker.fileDB("/tmp/test-" + UUID.randomUUID().toString() + "-.db").transactionEnable().make();
+    public NamespaceMintingVerticle(final int aLane, final DB aDb) {
+        myLane = aLane;
+        myDb = aDb;
     }
 
     @Override
     public void start(final Promise<Void> aPromise) {
-        final EventBus eventBus;
+        final JsonObject config = config();
+        final MintingLanes lanes = MintingLanes.get(vertx);
 
         try {
             super.start();
 
-            // Get the Vert.x event bus
-            eventBus = vertx.eventBus();
+            synchronized (myDb) {
+                myNamespaces = myDb.hashMap(NAMESPACES, Serializer.STRING, Serializer.STRING).createOrOpen();
+                myDb.commit();
+            }
 
-            // Register the codec we'll use for sharing minters
-            eventBus.registerDefaultCodec(NoidMinter.class, new SerializableCodec<>(NoidMinter.class));
+            myCursors = new CursorStore(vertx, myDb, config.getLong(Config.CURSOR_COMMIT_WINDOW, DEFAULT_COMMIT_WINDOW),
+                    config.getInteger(Config.CURSOR_COMMIT_GROUP, DEFAULT_COMMIT_GROUP));
+            myLeases = new LeaseLedger(vertx, config.getLong(Config.LEASE_TTL, DEFAULT_LEASE_TTL) * 1000);
 
-            // Receive minting messages
-            eventBus.<NoidMinter>consumer(NamespaceMintingVerticle.class.getName(), request -> {
-                final NoidMinter minter = request.body();
+            LOGGER.debug(MessageCodes.ARK_064, myLane, lanes.size());
 
+            // Receive the minting messages for the lane's namespaces
+            vertx.eventBus().<Object>consumer(lanes.getAddress(myLane), request -> {
                 try {
                     switch (request.headers().get(NamespaceMintingVerticle.ACTION)) {
                         case Op.MINT_NOID_NAMESPACE:
-                            mintNoidNamespace(minter, request);
+                        case Op.MINT_ARK_NAMESPACE:
+                            mintNoidNamespace((NoidMinter) request.body(), request);
+                            break;
+                        case Op.MINT_NOID:
+                            mintNoid((String) request.body(), request, new DeliveryOptions());
+                            break;
+                        case Op.MINT_ARK:
+                            mintArk((String) request.body(), request);
+                            break;
+                        case Op.LEASE_NOIDS:
+                            leaseNoids((JsonObject) request.body(), request);
+                            break;
+                        case Op.RETURN_NOID_LEASE:
+                            returnNoidLease((JsonObject) request.body(), request);
+                            break;
+                        case Op.GET_LEASE_METRICS:
+                            request.reply(myLeases.getMetrics());
                             break;
                         default:
                             request.reply(new JsonObject());
                     }
                 } catch (final DBException details) {
+                    // Discard the uncommitted changes and any minters that got ahead of their persisted cursors
+                    myCursors.rollback(details);
+                    myMinters.clear();
+
                     LOGGER.error(details, details.getMessage());
-                    request.fail(500, details.getMessage());
-                }
+                    request.fail(HTTP.INTERNAL_SERVER_ERROR, details.getMessage());
+                } catch (final RuntimeException details) {
+                    // Anything else that goes wrong still gets a reply, so the request doesn't wait until it times out
+                    final String action = request.headers().get(ACTION);
+                    final String message = LOGGER.getMessage(MessageCodes.ARK_082, action, details);
 
-                System.out.println("received " + minter.getNamespace());
+                    LOGGER.error(details, message);
+                    request.fail(HTTP.INTERNAL_SERVER_ERROR, message);
+                }
             });
 
             aPromise.complete();
@@ -87,28 +225,377 @@ public class NamespaceMintingVerticle extends AbstractVerticle {
         }
     }
 
-    private void mintNoidNamespace(final NoidMinter aMinter, final Message<NoidMinter> aRequest) throws DBException {
-        final String collection = aMinter.getNamespace();
+    @Override
+    public void stop(final Promise<Void> aPromise) {
+        // The database is closed by the main verticle, once all the lanes have stopped
+        if (myCursors != null && !myDb.isClosed()) {
+            myCursors.commit();
+        }
 
-        if (!myDb.exists(collection)) {
-            final Stopwatch timer = new Stopwatch().start();
-            final DB.TreeMapSink<String, String> dbSink =
-                    myDb.treeMap(collection, Serializer.STRING_ASCII, Serializer.STRING).createFromSink();
+        aPromise.complete();
+    }
+
+    /**
+     * Creates a new NOID namespace from the supplied minter. Only the namespace's specification and cursor are stored,
+     * unless the request asks for the namespace to be materialized. If the request has a NAAN, the namespace is an ARK
+     * namespace and its NAAN is stored with its specification.
+     *
+     * @param aMinter A minter for the new namespace
+     * @param aRequest The request to create the namespace
+     * @throws DBException If the namespace can't be stored
+     */
+    private void mintNoidNamespace(final NoidMinter aMinter, final Message<Object> aRequest) throws DBException {
+        final String namespace = aMinter.getNamespace();
+        final JsonObject spec;
+
+        if (myNamespaces.containsKey(namespace) || myBuilds.contains(namespace)) {
+            aRequest.fail(HTTP.CONFLICT, LOGGER.getMessage(MessageCodes.ARK_040, namespace));
+            return;
+        }
+
+        spec = NamespaceUtils.toJson(aMinter);
+
+        if (aRequest.headers().contains(NAAN)) {
+            spec.put(Namespace.NAAN, aRequest.headers().get(NAAN));
+        }
+
+        if (!Boolean.parseBoolean(aRequest.headers().get(MATERIALIZE))) {
+            storeNamespace(aMinter, spec, aRequest);
+            return;
+        }
+
+        // A materialized namespace is built in the background, and isn't stored until its build has finished
+        LOGGER.debug(MessageCodes.ARK_066, namespace);
+        myBuilds.add(namespace);
+
+        BackgroundJobs.get(vertx).submit(() -> materialize(aMinter)).onComplete(build -> {
+            myBuilds.remove(namespace);
+
+            try {
+                if (build.succeeded()) {
+                    storeNamespace(aMinter, spec, aRequest);
+                } else {
+                    LOGGER.error(build.cause(), build.cause().getMessage());
+                    aRequest.fail(getStatusCode(build.cause()), build.cause().getMessage());
+                }
+            } catch (final DBException details) {
+                LOGGER.error(details, details.getMessage());
+                aRequest.fail(HTTP.INTERNAL_SERVER_ERROR, details.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Stores a new namespace's specification and cursor, and replies to the request to create it.
+     *
+     * @param aMinter A minter for the new namespace
+     * @param aSpec The new namespace's specification
+     * @param aRequest The request to create the namespace
+     * @throws DBException If the namespace can't be stored
+     */
+    private void storeNamespace(final NoidMinter aMinter, final JsonObject aSpec, final Message<Object> aRequest)
+            throws DBException {
+        final String namespace = aMinter.getNamespace();
+
+        synchronized (myDb) {
+            try {
+                myNamespaces.put(namespace, aSpec.encode());
+                myCursors.put(namespace, aMinter.getIndex());
+                myDb.commit();
+            } catch (final DBException details) {
+                // Roll back before another lane can commit the namespace's partial creation
+                myDb.rollback();
+                throw details;
+            }
+        }
+
+        LOGGER.debug(MessageCodes.ARK_044, namespace, aSpec.encode());
+        aRequest.reply(aSpec);
+    }
+
+    /**
+     * Gets the status code for a failed background job. A job that couldn't be queued carries its own status code.
+     *
+     * @param aFailure The cause of the failure
+     * @return An HTTP status code
+     */
+    private int getStatusCode(final Throwable aFailure) {
+        if (aFailure instanceof ReplyException && ((ReplyException) aFailure).failureCode() > 0) {
+            return ((ReplyException) aFailure).failureCode();
+        }
+
+        return HTTP.INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * Mints the next NOID, or the next batch of NOIDs, in the supplied namespace. The namespace's cursor is committed
+     * (in a group with other advances) before the NOIDs are returned, so a NOID is never minted twice. A batch costs a
+     * single cursor advance, however many NOIDs it holds; if there aren't enough NOIDs left to fill it, the ones that
+     * are left are returned. A batch that's to be streamed is returned as a copy of the minter, positioned at the
+     * batch's first NOID, so that its NOIDs are minted by the requester rather than on the namespace's lane.
+     *
+     * @param aNamespace A NOID namespace
+     * @param aRequest The request to mint a NOID or, if it has a count, a batch of NOIDs
+     * @param aReplyOptions The options with which to reply with the NOIDs
+     * @throws DBException If the namespace's cursor can't be stored
+     */
+    private void mintNoid(final String aNamespace, final Message<Object> aRequest,
+            final DeliveryOptions aReplyOptions) throws DBException {
+        final String count = aRequest.headers().get(COUNT);
+        final long batchSize = count == null ? 1 : getCount(count);
+        final NoidMinter minter = getMinter(aNamespace);
+        final Object noids;
+
+        if (batchSize < 1) {
+            aRequest.fail(HTTP.BAD_REQUEST, LOGGER.getMessage(MessageCodes.ARK_078, count));
+        } else if (minter == null) {
+            aRequest.fail(HTTP.NOT_FOUND, LOGGER.getMessage(MessageCodes.ARK_041, aNamespace));
+        } else if (!minter.hasNext()) {
+            aRequest.fail(HTTP.CONFLICT, LOGGER.getMessage(MessageCodes.ARK_042, aNamespace));
+        } else {
+            if (count == null) {
+                noids = minter.next();
+            } else if (Boolean.parseBoolean(aRequest.headers().get(STREAM))) {
+                final long start = minter.getIndex();
+                final long end = start + Math.min(batchSize, minter.getSize() - start);
+
+                // The batch's NOIDs are minted by the requester, so only the cursor is advanced here
+                noids = NamespaceUtils.copy(minter);
+                minter.seek(end);
+                aReplyOptions.addHeader(COUNT, Long.toString(end - start));
+            } else {
+                noids = new JsonArray(minter.next((int) Math.min(batchSize, Integer.MAX_VALUE)));
+            }
 
-            while (aMinter.hasNext()) {
-                final String noid = aMinter.next();
-                // LOGGER.debug(noid);
-                dbSink.put(noid, "");
+            myCursors.advance(aNamespace, minter.getIndex()).onComplete(commit -> {
+                if (commit.succeeded()) {
+                    aRequest.reply(noids, aReplyOptions);
+                } else {
+                    // The group's advances were rolled back, so minters may be ahead of their persisted cursors
+                    myMinters.clear();
+                    aRequest.fail(HTTP.INTERNAL_SERVER_ERROR, commit.cause().getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Mints the NOIDs for the next ARK, or the next batch of ARKs, in the supplied ARK namespace. The NOIDs are minted
+     * just as they are for a NOID namespace, and the reply carries the namespace's NAAN so that the ARKs can be built.
+     *
+     * @param aNamespace An ARK namespace
+     * @param aRequest The request to mint an ARK or, if it has a count, a batch of ARKs
+     * @throws DBException If the namespace's cursor can't be stored
+     */
+    private void mintArk(final String aNamespace, final Message<Object> aRequest) throws DBException {
+        final String naan = getNaan(aNamespace);
+
+        if (naan != null) {
+            mintNoid(aNamespace, aRequest, new DeliveryOptions().addHeader(NAAN, naan));
+        } else if (myNamespaces.containsKey(aNamespace)) {
+            aRequest.fail(HTTP.NOT_FOUND, LOGGER.getMessage(MessageCodes.ARK_054, aNamespace));
+        } else {
+            aRequest.fail(HTTP.NOT_FOUND, LOGGER.getMessage(MessageCodes.ARK_041, aNamespace));
+        }
+    }
+
+    /**
+     * Leases the next block of index positions in the supplied namespace. Only the namespace's cursor is advanced, past
+     * the end of the block, and the lease is returned (with the namespace's specification) once the advance has been
+     * committed. If there aren't enough positions left to fill the block, the ones that are left are leased.
+     *
+     * @param aParams The request's parameters: the namespace and the number of positions to lease
+     * @param aRequest The request to lease a block of index positions
+     * @throws DBException If the namespace's cursor can't be stored
+     */
+    private void leaseNoids(final JsonObject aParams, final Message<Object> aRequest) throws DBException {
+        final String namespace = aParams.getString(Namespace.NAME);
+        final NoidMinter minter = namespace == null ? null : getMinter(namespace);
+        final String countParam = aParams.getString(LeaseLedger.COUNT);
+        final long count = getCount(countParam);
+
+        if (count < 1) {
+            aRequest.fail(HTTP.BAD_REQUEST, LOGGER.getMessage(MessageCodes.ARK_057, countParam));
+        } else if (namespace == null) {
+            aRequest.fail(HTTP.BAD_REQUEST, LOGGER.getMessage(MessageCodes.ARK_048));
+        } else if (minter == null) {
+            aRequest.fail(HTTP.NOT_FOUND, LOGGER.getMessage(MessageCodes.ARK_041, namespace));
+        } else if (!minter.hasNext()) {
+            aRequest.fail(HTTP.CONFLICT, LOGGER.getMessage(MessageCodes.ARK_042, namespace));
+        } else {
+            final long start = minter.getIndex();
+            final long end = start + Math.min(count, minter.getSize() - start);
+
+            minter.seek(end);
+
+            myCursors.advance(namespace, end).onComplete(commit -> {
+                if (commit.succeeded()) {
+                    final LeaseLedger.Lease lease = myLeases.open(namespace, start, end);
+
+                    LOGGER.debug(MessageCodes.ARK_061, start, end, namespace, lease.getID());
+                    aRequest.reply(new JsonObject().put(LeaseLedger.ID, lease.getID()).put(LeaseLedger.START, start)
+                            .put(LeaseLedger.END, end).put(LeaseLedger.EXPIRES, lease.getExpiry())
+                            .put(LeaseLedger.SPEC, new JsonObject(myNamespaces.get(namespace))));
+                } else {
+                    // The group's advances were rolled back, so minters may be ahead of their persisted cursors
+                    myMinters.clear();
+                    aRequest.fail(HTTP.INTERNAL_SERVER_ERROR, commit.cause().getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns a lease, recording how many of its index positions were used. The positions that weren't used aren't
+     * reissued; they're just counted in the lease metrics.
+     *
+     * @param aParams The request's parameters: the lease's ID and the number of its positions that were used
+     * @param aRequest The request to return a lease
+     */
+    private void returnNoidLease(final JsonObject aParams, final Message<Object> aRequest) {
+        final String leaseID = aParams.getString(LeaseLedger.ID);
+
+        try {
+            if (leaseID == null || myLeases.close(leaseID, getCount(aParams.getString(LeaseLedger.USED))) == null) {
+                aRequest.fail(HTTP.NOT_FOUND, LOGGER.getMessage(MessageCodes.ARK_060, leaseID));
+            } else {
+                aRequest.reply(null);
+            }
+        } catch (final IllegalArgumentException details) {
+            aRequest.fail(HTTP.BAD_REQUEST, details.getMessage());
+        }
+    }
+
+    /**
+     * Gets a count from a request parameter.
+     *
+     * @param aCount A count parameter
+     * @return The count, or -1 if the parameter is missing or isn't a number
+     */
+    private long getCount(final String aCount) {
+        try {
+            return aCount == null ? -1 : Long.parseLong(aCount.trim());
+        } catch (final NumberFormatException details) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the NAAN of the supplied ARK namespace.
+     *
+     * @param aNamespace A namespace
+     * @return The namespace's NAAN, or null if the namespace doesn't exist or isn't an ARK namespace
+     */
+    private String getNaan(final String aNamespace) {
+        String naan = myNaans.get(aNamespace);
+
+        if (naan == null) {
+            final String spec = myNamespaces.get(aNamespace);
+
+            if (spec != null) {
+                naan = new JsonObject(spec).getString(Namespace.NAAN);
+
+                if (naan != null) {
+                    myNaans.put(aNamespace, naan);
+                }
             }
+        }
 
-            final BTreeMap<String, String> btree = dbSink.create();
+        return naan;
+    }
+
+    /**
+     * Gets the minter for the supplied namespace, positioned at the namespace's cursor.
+     *
+     * @param aNamespace A NOID namespace
+     * @return The namespace's minter, or null if the namespace doesn't exist
+     */
+    private NoidMinter getMinter(final String aNamespace) {
+        NoidMinter minter = myMinters.get(aNamespace);
+
+        if (minter == null) {
+            final String spec = myNamespaces.get(aNamespace);
+
+            if (spec != null) {
+                minter = NamespaceUtils.toMinter(new JsonObject(spec));
+                minter.seek(myCursors.get(aNamespace));
+                myMinters.put(aNamespace, minter);
+            }
+        }
+
+        return minter;
+    }
+
+    /**
+     * Writes all the NOIDs in the supplied minter's namespace to a sorted table. They're written in sequential order,
+     * whether or not the namespace is randomized, since the table's sorted by NOID. The table is kept in a database
+     * file of its own, which is named for the namespace, so writing it doesn't hold the shared database's lock. This
+     * may take a long time, so it's run as one of the {@link BackgroundJobs}, off the namespace's lane. The file is
+     * built from scratch each time, and is deleted if the build fails, so a failed build can be retried.
+     *
+     * @param aMinter The minter of a new namespace
+     * @return The number of NOIDs that were written
+     * @throws DBException If the NOIDs can't be written
+     */
+    private long materialize(final NoidMinter aMinter) throws DBException {
+        final String namespace = aMinter.getNamespace();
+        final Stopwatch timer = new Stopwatch().start();
+        final String fileName = NOIDS + UUID.nameUUIDFromBytes(namespace.getBytes(StandardCharsets.UTF_8)) + DB_EXT;
+        final NoidMinter minter;
 
-            LOGGER.debug("Db size: {} [{}]", btree.sizeLong(), timer.stop().getSeconds());
-            aRequest.reply("SUCCESS");
+        // A sequential copy of the minter, so the NOIDs are written in sorted order
+        if (aMinter.getPattern() != null) {
+            minter = new NoidMinter(namespace, aMinter.getPattern(), aMinter.getShoulder(), aMinter.hasChecksums());
         } else {
-            LOGGER.debug("db already exists");
-            aRequest.fail(500, "Noid namespace already exists");
+            minter = new NoidMinter(namespace, aMinter.getNoidType(), aMinter.getShoulder(), aMinter.getNoidLength(),
+                    aMinter.hasChecksums());
+        }
+
+        final File dbFile = new File(getDbFile(config()).getParentFile(), fileName);
+
+        // A file left behind by a build that crashed would keep the table from being created again
+        if (dbFile.exists() && !dbFile.delete()) {
+            throw new DBException(LOGGER.getMessage(MessageCodes.ARK_080, dbFile));
+        }
+
+        try (DB db = DBMaker.fileDB(dbFile).make()) {
+            final DB.TreeMapSink<String, String> dbSink =
+                    db.treeMap(NOIDS + namespace, Serializer.STRING_ASCII, Serializer.STRING).createFromSink();
+
+            while (minter.hasNext()) {
+                dbSink.put(minter.next(), "");
+            }
+
+            final long count = dbSink.create().sizeLong();
+
+            LOGGER.debug(MessageCodes.ARK_045, count, namespace, timer.stop().getSeconds());
+            return count;
+        } catch (final RuntimeException details) {
+            // The file's closed by now, so the partly built table can be cleaned up before the build fails
+            if (dbFile.exists() && !dbFile.delete()) {
+                LOGGER.warn(MessageCodes.ARK_080, dbFile);
+            }
+
+            throw details;
+        }
+    }
+
+    /**
+     * Gets the namespace database file. It's kept in the directory configured by <code>db.files.dir</code> (or a
+     * <code>DB_FILES_DIR</code> environmental property), or in the JVM's temporary directory if neither is set.
+     *
+     * @param aConfig The application's configuration
+     * @return The namespace database file
+     */
+    public static File getDbFile(final JsonObject aConfig) {
+        final String envProperty = Config.DB_FILES_DIR.toUpperCase(Locale.US).replace(".", "_");
+        final String defaultDir = aConfig.getString(envProperty, System.getProperty("java.io.tmpdir"));
+        final File dbFilesDir = new File(aConfig.getString(Config.DB_FILES_DIR, defaultDir));
+
+        if (!dbFilesDir.exists() && !dbFilesDir.mkdirs()) {
+            LOGGER.warn(MessageCodes.ARK_047, dbFilesDir);
         }
 
+        return new File(dbFilesDir, DB_FILE);
     }
 }
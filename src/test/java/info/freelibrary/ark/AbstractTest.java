@@ -1,9 +1,15 @@
 
 package info.freelibrary.ark;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.stream.Stream;
 
 import org.junit.After;
 import org.junit.Before;
@@ -16,11 +22,16 @@ import info.freelibrary.util.Logger;
 import info.freelibrary.ark.verticles.MainVerticle;
 
 import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.RunTestOnContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
 
 /**
  * An abstract base class for tests.
@@ -33,6 +44,16 @@ public abstract class AbstractTest {
      */
     protected static final String HOST = "0.0.0.0";
 
+    /**
+     * The endpoint for minting a new NOID namespace.
+     */
+    private static final String NOID_NAMESPACE_PATH = "/mint/noid/namespace";
+
+    /**
+     * The endpoint for minting a new ARK namespace.
+     */
+    private static final String ARK_NAMESPACE_PATH = "/mint/ark/namespace";
+
     /**
      * A view into the test that's being run.
      */
@@ -55,9 +76,12 @@ public abstract class AbstractTest {
         final DeploymentOptions options = new DeploymentOptions();
         final Async asyncTask = aContext.async();
         final int port = getAvailablePort();
+        final String dbFilesDir = Files.createTempDirectory("covenant-").toString();
 
+        // Each test gets its own namespace database
         aContext.put(Config.HTTP_PORT, port);
-        options.setConfig(new JsonObject().put(Config.HTTP_PORT, port));
+        aContext.put(Config.DB_FILES_DIR, dbFilesDir);
+        options.setConfig(new JsonObject().put(Config.HTTP_PORT, port).put(Config.DB_FILES_DIR, dbFilesDir));
 
         myTestContext.vertx().deployVerticle(MainVerticle.class.getName(), options, deployment -> {
             if (deployment.succeeded()) {
@@ -85,8 +109,17 @@ public abstract class AbstractTest {
         final Async asyncTask = aContext.async();
         final int port = aContext.get(Config.HTTP_PORT);
 
+        final String dbFilesDir = aContext.get(Config.DB_FILES_DIR);
+
         myTestContext.vertx().close(shutdown -> {
             getLogger().debug(MessageCodes.ARK_015, port);
+
+            try (Stream<Path> files = Files.walk(Paths.get(dbFilesDir))) {
+                files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            } catch (final IOException details) {
+                aContext.fail(details);
+            }
+
             asyncTask.complete();
         });
     }
@@ -98,6 +131,34 @@ public abstract class AbstractTest {
      */
     protected abstract Logger getLogger();
 
+    /**
+     * Creates a namespace for testing, of five character alphanumeric NOIDs with a shoulder and checksums. If a NAAN
+     * is supplied, it's an ARK namespace.
+     *
+     * @param aClient A Web client
+     * @param aContext A test context
+     * @param aNamespace The name of the namespace
+     * @param aNaan The namespace's NAAN, or null if it's a NOID namespace
+     * @return The response to the namespace creation request
+     */
+    protected Future<HttpResponse<Buffer>> createNamespace(final WebClient aClient, final TestContext aContext,
+            final String aNamespace, final String aNaan) {
+        final MultiMap form = MultiMap.caseInsensitiveMultiMap();
+        final int port = aContext.get(Config.HTTP_PORT);
+
+        form.set(Namespace.NAME, aNamespace);
+        form.set(Namespace.LENGTH, "5");
+        form.set(Namespace.SHOULDER, "f3");
+        form.set(Namespace.CHECKSUMS, "true");
+        form.set(Namespace.NOID_TYPE, NoidType.ALPHANUMERIC.name());
+
+        if (aNaan == null) {
+            return aClient.post(port, HOST, NOID_NAMESPACE_PATH).sendForm(form);
+        }
+
+        return aClient.post(port, HOST, ARK_NAMESPACE_PATH).sendForm(form.set(Namespace.NAAN, aNaan));
+    }
+
     /**
      * Completes an Async task, if needed.
      *
@@ -1,6 +1,7 @@
 
 package info.freelibrary.ark;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
@@ -159,6 +160,55 @@ public class NoidTypeTest {
         assertEquals(NoidType.ALPHANUMERIC_ALL.getCharacterCount(), NoidType.ALPHANUMERIC_ALL.getCharacters().length);
     }
 
+    /**
+     * Tests that each character's code point maps back to the character.
+     */
+    @Test
+    public void testGetCodePoint() {
+        for (final NoidType type : NoidType.values()) {
+            final Character[] characters = type.getCharacters();
+
+            for (int index = 0; index < characters.length; index++) {
+                assertEquals(index, type.getCodePoint(characters[index]));
+                assertEquals(characters[index].charValue(), type.getCharacter(index));
+            }
+        }
+    }
+
+    /**
+     * Tests that characters outside a NoidType's alphabet don't have a code point.
+     */
+    @Test
+    public void testGetCodePointInvalid() {
+        assertEquals(-1, NoidType.NUMERIC.getCodePoint('a'));
+        assertEquals(-1, NoidType.ALPHA.getCodePoint('l'));
+        assertEquals(-1, NoidType.ALPHANUMERIC.getCodePoint('A'));
+        assertEquals(-1, NoidType.ALPHANUMERIC_ALL.getCodePoint('-'));
+        assertEquals(-1, NoidType.ALPHANUMERIC_ALL.getCodePoint('\u00e9'));
+    }
+
+    /**
+     * Tests that the alphabet that's returned is a copy.
+     */
+    @Test
+    public void testGetAlphabet() {
+        final char[] alphabet = NoidType.NUMERIC.getAlphabet();
+
+        alphabet[0] = 'x';
+        assertArrayEquals("0123456789".toCharArray(), NoidType.NUMERIC.getAlphabet());
+    }
+
+    /**
+     * Tests that the character array that's returned is a copy.
+     */
+    @Test
+    public void testGetCharactersCopy() {
+        final Character[] characters = NoidType.NUMERIC.getCharacters();
+
+        characters[0] = 'x';
+        assertEquals(Character.valueOf('0'), NoidType.NUMERIC.getCharacters()[0]);
+    }
+
     /**
      * Tests the maximum number of NOIDs that the minter can mint.
      */
@@ -169,6 +219,15 @@ public class NoidTypeTest {
         assertEquals(2251875390625L, NoidType.ALPHANUMERIC.getNoidCount(8), 0);
     }
 
+    /**
+     * Tests that the maximum number of NOIDs is exact for large counts and capped when too large for a long.
+     */
+    @Test
+    public void testGetNoidCountLarge() {
+        assertEquals(713342911662882601L, NoidType.ALPHANUMERIC_ALL.getNoidCount(10));
+        assertEquals(Long.MAX_VALUE, NoidType.ALPHANUMERIC_ALL.getNoidCount(11));
+    }
+
     /**
      * Tests converting the NoidType to a string.
      */
@@ -0,0 +1,115 @@
+
+package info.freelibrary.ark.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import info.freelibrary.ark.NoidType;
+import info.freelibrary.ark.utils.ChecksumUtils;
+import info.freelibrary.ark.utils.NoidMinter;
+
+/**
+ * A benchmark of the per-NOID cost of validating a batch of stored NOIDs, as an audit does, one at a time and in bulk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChecksumBenchmark {
+
+    /* The number of NOIDs in a batch. */
+    private static final int BATCH_SIZE = 10_000;
+
+    /* The type of NOIDs to validate. */
+    @Param({ "NUMERIC", "ALPHANUMERIC_ALL" })
+    public String myNoidType;
+
+    /* The batch of NOIDs. */
+    private String[] myNOIDs;
+
+    /* The batch of NOIDs, as a newline-delimited buffer. */
+    private ByteBuffer myBuffer;
+
+    /* The type of NOIDs to validate. */
+    private NoidType myType;
+
+    /**
+     * Mints the batch of NOIDs to validate.
+     */
+    @Setup
+    public void setUp() {
+        final StringBuilder lines = new StringBuilder();
+
+        myType = NoidType.valueOf(myNoidType);
+        myNOIDs = new String[BATCH_SIZE];
+
+        final NoidMinter minter = new NoidMinter(UUID.randomUUID().toString(), myType, "f3", 10, true);
+
+        for (int index = 0; index < BATCH_SIZE; index++) {
+            myNOIDs[index] = minter.next();
+            lines.append(myNOIDs[index]).append('\n');
+        }
+
+        myBuffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Validates the batch one NOID at a time.
+     *
+     * @return The number of invalid NOIDs
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int validate() {
+        int invalid = 0;
+
+        for (final String noid : myNOIDs) {
+            if (!ChecksumUtils.validate(noid, myType)) {
+                invalid++;
+            }
+        }
+
+        return invalid;
+    }
+
+    /**
+     * Validates the batch as an array.
+     *
+     * @return The invalid NOIDs
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BitSet findInvalid() {
+        return ChecksumUtils.findInvalid(myNOIDs, myType);
+    }
+
+    /**
+     * Validates the batch as a newline-delimited buffer.
+     *
+     * @return The invalid NOIDs
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BitSet findInvalidBuffer() {
+        myBuffer.rewind();
+        return ChecksumUtils.findInvalid(myBuffer, myType);
+    }
+}
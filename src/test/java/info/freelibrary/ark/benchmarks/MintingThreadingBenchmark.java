@@ -0,0 +1,177 @@
+
+package info.freelibrary.ark.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import info.freelibrary.ark.Config;
+import info.freelibrary.ark.NoidType;
+import info.freelibrary.ark.Op;
+import info.freelibrary.ark.utils.MintingLanes;
+import info.freelibrary.ark.utils.NoidMinter;
+import info.freelibrary.ark.utils.NoidMinterCodec;
+import info.freelibrary.ark.verticles.MainVerticle;
+import info.freelibrary.ark.verticles.NamespaceMintingVerticle;
+
+import io.vertx.core.DeploymentOptions;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * A benchmark of minting under contention, with the minting lanes deployed on worker threads or on virtual threads.
+ * Each operation sends a burst of concurrent mint requests, spread across the lanes' namespaces, and waits for all of
+ * them to be answered. The virtual thread runs fall back to worker threads on a JVM older than Java 21, so they're
+ * only a comparison when JMH is run on Java 21 or later.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MintingThreadingBenchmark {
+
+    /* The number of minting lanes. */
+    private static final int LANES = 4;
+
+    /* The number of namespaces the mint requests are spread across. */
+    private static final int NAMESPACES = 16;
+
+    /* The prefix of the benchmark's namespaces. */
+    private static final String NAMESPACE = "benchmark-";
+
+    /* The threading model of the minting lanes. */
+    @Param({ "worker", "virtual_thread" })
+    public String myThreadingModel;
+
+    /* The number of mint requests that are sent at once. */
+    @Param({ "64", "1024" })
+    public int myBurstSize;
+
+    /* The Vert.x instance the lanes are deployed in. */
+    private Vertx myVertx;
+
+    /* The minting lanes. */
+    private MintingLanes myLanes;
+
+    /* The namespace database. */
+    private DB myDb;
+
+    /* The directory of the namespace database. */
+    private File myDbDir;
+
+    /**
+     * Deploys the minting lanes and creates the namespaces to mint from.
+     *
+     * @throws IOException If the database's directory can't be created
+     * @throws ExecutionException If the lanes can't be deployed or the namespaces can't be created
+     * @throws InterruptedException If the setup is interrupted
+     */
+    @Setup
+    public void setUp() throws IOException, ExecutionException, InterruptedException {
+        final List<Future<?>> setUps = new ArrayList<>();
+        final JsonObject config = new JsonObject();
+
+        myDbDir = Files.createTempDirectory("covenant-").toFile();
+        config.put(Config.DB_FILES_DIR, myDbDir.getAbsolutePath());
+        config.put(Config.BLOCKING_THREADING_MODEL, myThreadingModel);
+
+        myVertx = Vertx.vertx();
+        myLanes = new MintingLanes(LANES, Integer.MAX_VALUE).share(myVertx);
+        myDb = DBMaker.fileDB(NamespaceMintingVerticle.getDbFile(config)).transactionEnable().make();
+        myVertx.eventBus().registerDefaultCodec(NoidMinter.class, new NoidMinterCodec<>(NoidMinter.class));
+
+        for (int lane = 0; lane < LANES; lane++) {
+            final DeploymentOptions options = MainVerticle.getBlockingOptions(config, myLanes.getAddress(lane));
+            final int verticleLane = lane;
+
+            setUps.add(myVertx.deployVerticle(() -> new NamespaceMintingVerticle(verticleLane, myDb), options));
+        }
+
+        await(Future.all(setUps));
+        setUps.clear();
+
+        for (int index = 0; index < NAMESPACES; index++) {
+            final NoidMinter minter = new NoidMinter(NAMESPACE + index, NoidType.ALPHANUMERIC, "f3", 10, true);
+            final DeliveryOptions options = new DeliveryOptions();
+
+            options.addHeader(NamespaceMintingVerticle.ACTION, Op.MINT_NOID_NAMESPACE);
+            setUps.add(myLanes.request(myVertx, minter.getNamespace(), minter, options));
+        }
+
+        await(Future.all(setUps));
+    }
+
+    /**
+     * Closes the Vert.x instance and the database, and removes the database's directory.
+     *
+     * @throws ExecutionException If the Vert.x instance can't be closed
+     * @throws InterruptedException If the tear down is interrupted
+     */
+    @TearDown
+    public void tearDown() throws ExecutionException, InterruptedException {
+        await(myVertx.close());
+        myDb.close();
+
+        for (final File file : myDbDir.listFiles()) {
+            file.delete();
+        }
+
+        myDbDir.delete();
+    }
+
+    /**
+     * Sends a burst of mint requests and waits for them to be answered.
+     *
+     * @throws ExecutionException If a mint request fails
+     * @throws InterruptedException If the benchmark is interrupted
+     */
+    @Benchmark
+    public void mintBurst() throws ExecutionException, InterruptedException {
+        final List<Future<?>> mints = new ArrayList<>(myBurstSize);
+
+        for (int index = 0; index < myBurstSize; index++) {
+            final DeliveryOptions options = new DeliveryOptions();
+            final String namespace = NAMESPACE + index % NAMESPACES;
+
+            options.addHeader(NamespaceMintingVerticle.ACTION, Op.MINT_NOID);
+            options.addHeader(NamespaceMintingVerticle.COUNT, "1");
+            mints.add(myLanes.request(myVertx, namespace, namespace, options));
+        }
+
+        await(Future.all(mints));
+    }
+
+    /**
+     * Waits for a future to complete.
+     *
+     * @param aFuture A future
+     * @throws ExecutionException If the future fails
+     * @throws InterruptedException If the wait is interrupted
+     */
+    private static void await(final Future<?> aFuture) throws ExecutionException, InterruptedException {
+        aFuture.toCompletionStage().toCompletableFuture().get();
+    }
+}
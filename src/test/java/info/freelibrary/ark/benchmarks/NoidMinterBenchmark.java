@@ -0,0 +1,66 @@
+
+package info.freelibrary.ark.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import info.freelibrary.ark.NoidType;
+import info.freelibrary.ark.utils.NoidMinter;
+
+/**
+ * A benchmark of the sequential NOID minter's per-NOID cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoidMinterBenchmark {
+
+    /* The shoulder used by the benchmark's minters, if one is requested. */
+    private static final String SHOULDER = "f3";
+
+    /* The type of NOIDs to mint. */
+    @Param({ "NUMERIC", "ALPHANUMERIC", "ALPHANUMERIC_ALL" })
+    public String myNoidType;
+
+    /* Whether minted NOIDs have a shoulder and checksum. */
+    @Param({ "false", "true" })
+    public boolean isDecorated;
+
+    /* The minter being benchmarked. */
+    private NoidMinter myMinter;
+
+    /**
+     * Creates a new minter for each iteration so that a minter is never exhausted mid-measurement.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        final String shoulder = isDecorated ? SHOULDER : null;
+        myMinter = new NoidMinter(UUID.randomUUID().toString(), NoidType.valueOf(myNoidType), shoulder, 10, isDecorated);
+    }
+
+    /**
+     * Mints the next NOID.
+     *
+     * @return The minted NOID
+     */
+    @Benchmark
+    public String next() {
+        return myMinter.next();
+    }
+}
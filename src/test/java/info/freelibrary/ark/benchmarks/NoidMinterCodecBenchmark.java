@@ -0,0 +1,90 @@
+
+package info.freelibrary.ark.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import info.freelibrary.ark.NoidType;
+import info.freelibrary.ark.utils.NoidMinter;
+import info.freelibrary.ark.utils.NoidMinterCodec;
+import info.freelibrary.ark.utils.SerializableCodec;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.MessageCodec;
+
+/**
+ * A benchmark of the cost of sending a NOID minter over the wire with the binary minter codec, compared with the
+ * Java serialization codec. Only a sequential minter is sent.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NoidMinterCodecBenchmark {
+
+    /* The name of the binary codec parameter. */
+    private static final String BINARY = "binary";
+
+    /* The codec to benchmark. */
+    @Param({ BINARY, "serializable" })
+    public String myCodecName;
+
+    /* The codec being benchmarked. */
+    private MessageCodec<NoidMinter, ?> myCodec;
+
+    /* The minter being sent. */
+    private NoidMinter myMinter;
+
+    /* A minter that's already been encoded. */
+    private Buffer myEncodedMinter;
+
+    /**
+     * Creates the codec and the minter to send with it.
+     */
+    @Setup
+    public void setUp() {
+        myMinter = new NoidMinter(UUID.randomUUID().toString(), NoidType.ALPHANUMERIC, "f3", 8, true);
+        myMinter.next(1000);
+        myCodec = BINARY.equals(myCodecName) ? new NoidMinterCodec<>(NoidMinter.class)
+                : new SerializableCodec<>(NoidMinter.class);
+        myEncodedMinter = Buffer.buffer();
+        myCodec.encodeToWire(myEncodedMinter, myMinter);
+    }
+
+    /**
+     * Encodes the minter.
+     *
+     * @return The encoded minter
+     */
+    @Benchmark
+    public Buffer encode() {
+        final Buffer buffer = Buffer.buffer();
+
+        myCodec.encodeToWire(buffer, myMinter);
+        return buffer;
+    }
+
+    /**
+     * Decodes the encoded minter.
+     *
+     * @return The decoded minter
+     */
+    @Benchmark
+    public Object decode() {
+        return myCodec.decodeFromWire(0, myEncodedMinter);
+    }
+}
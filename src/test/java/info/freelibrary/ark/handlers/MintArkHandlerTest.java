@@ -0,0 +1,168 @@
+
+package info.freelibrary.ark.handlers;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.AbstractTest;
+import info.freelibrary.ark.Config;
+import info.freelibrary.ark.ContentType;
+import info.freelibrary.ark.HTTP;
+import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.Namespace;
+import info.freelibrary.ark.NoidType;
+import info.freelibrary.ark.utils.ChecksumUtils;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+
+/**
+ * A test of the mint ARK handler.
+ */
+@RunWith(VertxUnitRunner.class)
+public class MintArkHandlerTest extends AbstractTest {
+
+    /**
+     * The logger for the test.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(MintArkHandlerTest.class, MessageCodes.BUNDLE);
+
+    /**
+     * The endpoint for minting a new ARK.
+     */
+    private static final String PATH = "/mint/ark";
+
+    /**
+     * The namespace used in testing.
+     */
+    private static final String NAMESPACE = "test-ark-namespace";
+
+    /**
+     * The NAAN used in testing.
+     */
+    private static final String NAAN = "13030";
+
+    /**
+     * The name of the ARK property in a response.
+     */
+    private static final String ARK = "ark";
+
+    /**
+     * Tests minting a single ARK.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testMintingArk(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final Async asyncTask = aContext.async();
+
+        createNamespace(client, aContext, NAMESPACE, NAAN).compose(creation -> {
+            aContext.assertEquals(HTTP.CREATED, creation.statusCode());
+            return mintArks(client, aContext, null);
+        }).onSuccess(response -> {
+            final JsonObject ark = response.bodyAsJsonObject();
+
+            aContext.assertEquals(HTTP.OK, response.statusCode());
+            aContext.assertEquals(NAMESPACE, ark.getString(Namespace.NAME));
+            aContext.assertEquals("ark:/" + NAAN + '/' + ChecksumUtils.appendChecksum("f300000", NoidType.ALPHANUMERIC),
+                    ark.getString(ARK));
+
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests minting a batch of ARKs that's streamed back as newline delimited JSON.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testMintingArkBatch(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final Async asyncTask = aContext.async();
+        final Future<HttpResponse<Buffer>> creation = createNamespace(client, aContext, NAMESPACE, NAAN);
+
+        creation.compose(created -> mintArks(client, aContext, "3")).onSuccess(response -> {
+            final String[] lines = response.bodyAsString().split("\n");
+            final String noid = ChecksumUtils.appendChecksum("f300002", NoidType.ALPHANUMERIC);
+
+            aContext.assertEquals(HTTP.OK, response.statusCode());
+            aContext.assertEquals(3, lines.length);
+            aContext.assertEquals("ark:/" + NAAN + '/' + noid, new JsonObject(lines[2]).getString(ARK));
+
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests creating an ARK namespace with an invalid NAAN.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testInvalidNaan(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final Async asyncTask = aContext.async();
+
+        createNamespace(client, aContext, NAMESPACE, "13/30").onSuccess(response -> {
+            aContext.assertEquals(HTTP.BAD_REQUEST, response.statusCode());
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests minting an ARK in a namespace that doesn't exist.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testMintingArkUnknownNamespace(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final Async asyncTask = aContext.async();
+
+        mintArks(client, aContext, null).onSuccess(response -> {
+            aContext.assertEquals(HTTP.NOT_FOUND, response.statusCode());
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Mints ARKs in the test namespace.
+     *
+     * @param aClient A Web client
+     * @param aContext A test context
+     * @param aCount The number of ARKs to mint, or null to mint a single ARK
+     * @return The response to the minting request
+     */
+    private Future<HttpResponse<Buffer>> mintArks(final WebClient aClient, final TestContext aContext,
+            final String aCount) {
+        final MultiMap form = MultiMap.caseInsensitiveMultiMap();
+        final int port = aContext.get(Config.HTTP_PORT);
+
+        form.set(Namespace.NAME, NAMESPACE);
+
+        if (aCount != null) {
+            form.set("count", aCount);
+        }
+
+        return aClient.post(port, HOST, PATH).putHeader(HttpHeaders.ACCEPT.toString(), ContentType.NDJSON)
+                .sendForm(form);
+    }
+
+    @Override
+    protected Logger getLogger() {
+        return LOGGER;
+    }
+}
@@ -0,0 +1,251 @@
+
+package info.freelibrary.ark.handlers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.AbstractTest;
+import info.freelibrary.ark.Config;
+import info.freelibrary.ark.ContentType;
+import info.freelibrary.ark.HTTP;
+import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.Namespace;
+import info.freelibrary.ark.NoidType;
+import info.freelibrary.ark.utils.ChecksumUtils;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+
+/**
+ * A test of the mint NOID handler.
+ */
+@RunWith(VertxUnitRunner.class)
+public class MintNoidHandlerTest extends AbstractTest {
+
+    /**
+     * The logger for the test.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(MintNoidHandlerTest.class, MessageCodes.BUNDLE);
+
+    /**
+     * The endpoint for minting a new NOID.
+     */
+    private static final String PATH = "/mint/noid";
+
+    /**
+     * The namespace used in testing.
+     */
+    private static final String NAMESPACE = "test-namespace";
+
+    /**
+     * The parameter for the number of NOIDs to mint.
+     */
+    private static final String COUNT = "count";
+
+    /**
+     * Tests minting NOIDs on demand from a lazily created namespace.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testMintingNoids(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final Async asyncTask = aContext.async();
+
+        createNamespace(client, aContext, NAMESPACE, null).compose(creation -> {
+            aContext.assertEquals(HTTP.CREATED, creation.statusCode());
+            return mintNoid(client, aContext, NAMESPACE);
+        }).compose(first -> {
+            final JsonObject noid = first.bodyAsJsonObject();
+
+            aContext.assertEquals(HTTP.OK, first.statusCode());
+            aContext.assertEquals(NAMESPACE, noid.getString(Namespace.NAME));
+            aContext.assertEquals(ChecksumUtils.appendChecksum("f300000", NoidType.ALPHANUMERIC),
+                    noid.getString("noid"));
+
+            return mintNoid(client, aContext, NAMESPACE);
+        }).onSuccess(second -> {
+            aContext.assertEquals(ChecksumUtils.appendChecksum("f300001", NoidType.ALPHANUMERIC),
+                    second.bodyAsJsonObject().getString("noid"));
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests minting a NOID in a namespace that doesn't exist.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testMintingNoidUnknownNamespace(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final Async asyncTask = aContext.async();
+
+        mintNoid(client, aContext, "unknown-namespace").onSuccess(response -> {
+            aContext.assertEquals(HTTP.NOT_FOUND, response.statusCode());
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests minting NOIDs with many requests at once, over several connections (and so, through several of the HTTP
+     * server instances and their NOID reservoirs).
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testMintingNoidsConcurrently(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx(), new WebClientOptions().setMaxPoolSize(16));
+        final Async asyncTask = aContext.async();
+
+        createNamespace(client, aContext, NAMESPACE, null).compose(creation -> {
+            final List<Future<HttpResponse<Buffer>>> mints = new ArrayList<>();
+
+            for (int index = 0; index < 64; index++) {
+                mints.add(mintNoid(client, aContext, NAMESPACE));
+            }
+
+            return Future.all(mints).map(all -> mints);
+        }).onSuccess(mints -> {
+            final Set<String> noids = new HashSet<>();
+
+            for (final Future<HttpResponse<Buffer>> mint : mints) {
+                aContext.assertEquals(HTTP.OK, mint.result().statusCode());
+                aContext.assertTrue(noids.add(mint.result().bodyAsJsonObject().getString("noid")));
+            }
+
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests minting a batch of NOIDs that's streamed back as newline delimited JSON.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testMintingNoidBatch(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final Async asyncTask = aContext.async();
+        final Future<HttpResponse<Buffer>> creation = createNamespace(client, aContext, NAMESPACE, null);
+
+        creation.compose(created -> mintNoids(client, aContext, 2500, ContentType.NDJSON)).onSuccess(response -> {
+            final String[] lines = response.bodyAsString().split("\n");
+
+            aContext.assertEquals(HTTP.OK, response.statusCode());
+            aContext.assertEquals(ContentType.NDJSON, response.getHeader(HTTP.Response.CONTENT_TYPE));
+            aContext.assertEquals(2500, lines.length);
+            aContext.assertEquals(2500L, Arrays.stream(lines).distinct().count());
+            aContext.assertEquals(ChecksumUtils.appendChecksum("f300000", NoidType.ALPHANUMERIC),
+                    new JsonObject(lines[0]).getString("noid"));
+            aContext.assertEquals(NAMESPACE, new JsonObject(lines[2499]).getString(Namespace.NAME));
+
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests minting a batch of NOIDs that's streamed back as CSV.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testMintingNoidBatchCsv(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final Async asyncTask = aContext.async();
+        final Future<HttpResponse<Buffer>> creation = createNamespace(client, aContext, NAMESPACE, null);
+
+        creation.compose(created -> mintNoids(client, aContext, 3, ContentType.CSV)).onSuccess(response -> {
+            final String[] lines = response.bodyAsString().split("\r\n");
+
+            aContext.assertEquals(HTTP.OK, response.statusCode());
+            aContext.assertEquals(ContentType.CSV, response.getHeader(HTTP.Response.CONTENT_TYPE));
+            aContext.assertEquals(4, lines.length);
+            aContext.assertEquals("noid", lines[0]);
+            aContext.assertEquals(ChecksumUtils.appendChecksum("f300002", NoidType.ALPHANUMERIC), lines[3]);
+
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests minting a batch of NOIDs in a namespace that doesn't exist.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testMintingNoidBatchUnknownNamespace(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final Async asyncTask = aContext.async();
+        final MultiMap form = MultiMap.caseInsensitiveMultiMap();
+        final int port = aContext.get(Config.HTTP_PORT);
+
+        form.set(Namespace.NAME, "unknown-namespace").set(COUNT, "10");
+
+        client.post(port, HOST, PATH).sendForm(form).onSuccess(response -> {
+            aContext.assertEquals(HTTP.NOT_FOUND, response.statusCode());
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Mints a batch of NOIDs in the test namespace.
+     *
+     * @param aClient A Web client
+     * @param aContext A test context
+     * @param aCount The number of NOIDs to mint
+     * @param aContentType The content type the client accepts
+     * @return The response to the minting request
+     */
+    private Future<HttpResponse<Buffer>> mintNoids(final WebClient aClient, final TestContext aContext,
+            final int aCount, final String aContentType) {
+        final MultiMap form = MultiMap.caseInsensitiveMultiMap();
+        final int port = aContext.get(Config.HTTP_PORT);
+
+        form.set(Namespace.NAME, NAMESPACE);
+        form.set(COUNT, Integer.toString(aCount));
+
+        return aClient.post(port, HOST, PATH).putHeader(HttpHeaders.ACCEPT.toString(), aContentType).sendForm(form);
+    }
+
+    /**
+     * Mints a NOID in the supplied namespace.
+     *
+     * @param aClient A Web client
+     * @param aContext A test context
+     * @param aNamespace A namespace
+     * @return The response to the minting request
+     */
+    private Future<HttpResponse<Buffer>> mintNoid(final WebClient aClient, final TestContext aContext,
+            final String aNamespace) {
+        final MultiMap form = MultiMap.caseInsensitiveMultiMap();
+        final int port = aContext.get(Config.HTTP_PORT);
+
+        form.set(Namespace.NAME, aNamespace);
+
+        return aClient.post(port, HOST, PATH).sendForm(form);
+    }
+
+    @Override
+    protected Logger getLogger() {
+        return LOGGER;
+    }
+}
@@ -68,6 +68,98 @@ public class MintNoidNamespaceHandlerTest extends AbstractTest {
         });
     }
 
+    /**
+     * Tests minting a namespace whose NOIDs match a pattern.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testMintingPatternNamespace(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final MultiMap form = MultiMap.caseInsensitiveMultiMap();
+        final int port = aContext.get(Config.HTTP_PORT);
+        final Async asyncTask = aContext.async();
+
+        form.set(Namespace.NAME, "test-pattern-namespace");
+        form.set(Namespace.LENGTH, "6");
+        form.set(Namespace.NOID_TYPE, NoidType.REGEX_PATTERN.name());
+        form.set(Namespace.PATTERN, "[b-k]{2}\\d{4}");
+
+        client.post(port, HOST, PATH).sendForm(form).onSuccess(response -> {
+            aContext.assertEquals(HTTP.CREATED, response.statusCode());
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests that a namespace can't be minted with a pattern that doesn't compile.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testMintingNamespaceWithBadPattern(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final MultiMap form = MultiMap.caseInsensitiveMultiMap();
+        final int port = aContext.get(Config.HTTP_PORT);
+        final Async asyncTask = aContext.async();
+
+        form.set(Namespace.NAME, "test-bad-pattern-namespace");
+        form.set(Namespace.LENGTH, "6");
+        form.set(Namespace.NOID_TYPE, NoidType.REGEX_PATTERN.name());
+        form.set(Namespace.PATTERN, "[b-k]{2}(\\d{4}");
+
+        client.post(port, HOST, PATH).sendForm(form).onSuccess(response -> {
+            aContext.assertEquals(HTTP.BAD_REQUEST, response.statusCode());
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests that a namespace can't be minted with a NOID length that's out of range.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testMintingNamespaceWithBadLength(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final MultiMap form = MultiMap.caseInsensitiveMultiMap();
+        final int port = aContext.get(Config.HTTP_PORT);
+        final Async asyncTask = aContext.async();
+
+        form.set(Namespace.NAME, "test-bad-length-namespace");
+        form.set(Namespace.LENGTH, "-1");
+        form.set(Namespace.NOID_TYPE, NoidType.REGEX_PATTERN.name());
+        form.set(Namespace.PATTERN, "\\d+");
+
+        client.post(port, HOST, PATH).sendForm(form).onSuccess(response -> {
+            aContext.assertEquals(HTTP.BAD_REQUEST, response.statusCode());
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests that a namespace can't be minted with a shoulder that would have to be escaped in JSON or CSV.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testMintingNamespaceWithBadShoulder(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final MultiMap form = MultiMap.caseInsensitiveMultiMap();
+        final int port = aContext.get(Config.HTTP_PORT);
+        final Async asyncTask = aContext.async();
+
+        form.set(Namespace.NAME, "test-bad-shoulder-namespace");
+        form.set(Namespace.LENGTH, "5");
+        form.set(Namespace.SHOULDER, "f\"3");
+        form.set(Namespace.NOID_TYPE, NoidType.ALPHANUMERIC.name());
+
+        client.post(port, HOST, PATH).sendForm(form).onSuccess(response -> {
+            aContext.assertEquals(HTTP.BAD_REQUEST, response.statusCode());
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
     @Override
     protected Logger getLogger() {
         return LOGGER;
@@ -0,0 +1,168 @@
+
+package info.freelibrary.ark.handlers;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.AbstractTest;
+import info.freelibrary.ark.Config;
+import info.freelibrary.ark.HTTP;
+import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.Namespace;
+import info.freelibrary.ark.utils.LeaseLedger;
+import info.freelibrary.ark.utils.NamespaceUtils;
+import info.freelibrary.ark.utils.NoidMinter;
+
+import io.vertx.core.Future;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+
+/**
+ * A test of the NOID lease handler.
+ */
+@RunWith(VertxUnitRunner.class)
+public class NoidLeaseHandlerTest extends AbstractTest {
+
+    /**
+     * The logger for the test.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(NoidLeaseHandlerTest.class, MessageCodes.BUNDLE);
+
+    /**
+     * The endpoint for leasing a block of index positions.
+     */
+    private static final String PATH = "/mint/noid/lease";
+
+    /**
+     * The endpoint for returning a lease.
+     */
+    private static final String RETURN_PATH = "/mint/noid/lease/return";
+
+    /**
+     * The endpoint for the lease metrics.
+     */
+    private static final String METRICS_PATH = "/mint/noid/lease/metrics";
+
+    /**
+     * The namespace used in testing.
+     */
+    private static final String NAMESPACE = "test-lease-namespace";
+
+    /**
+     * Tests leasing a block of positions, minting from it locally, and returning it.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testLeasingNoids(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final Async asyncTask = aContext.async();
+        final int port = aContext.get(Config.HTTP_PORT);
+        final MultiMap form = MultiMap.caseInsensitiveMultiMap();
+
+        createNamespace(client, aContext, NAMESPACE, null).compose(creation -> {
+            aContext.assertEquals(HTTP.CREATED, creation.statusCode());
+            return lease(client, aContext, NAMESPACE, "100");
+        }).compose(response -> {
+            final JsonObject lease = response.bodyAsJsonObject();
+            final NoidMinter minter = NamespaceUtils.toMinter(lease.getJsonObject(LeaseLedger.SPEC));
+
+            aContext.assertEquals(HTTP.OK, response.statusCode());
+            aContext.assertEquals(0L, lease.getLong(LeaseLedger.START));
+            aContext.assertEquals(100L, lease.getLong(LeaseLedger.END));
+            aContext.assertEquals(NAMESPACE, minter.getNamespace());
+
+            // The server's next NOID is the first one after the lease
+            minter.seek(lease.getLong(LeaseLedger.END));
+            form.set(Namespace.NAME, NAMESPACE);
+
+            return client.post(port, HOST, "/mint/noid").sendForm(form).compose(mint -> {
+                aContext.assertEquals(minter.next(), mint.bodyAsJsonObject().getString("noid"));
+
+                form.set(LeaseLedger.ID, lease.getString(LeaseLedger.ID)).set(LeaseLedger.USED, "40");
+                return client.post(port, HOST, RETURN_PATH).sendForm(form);
+            });
+        }).compose(returned -> {
+            aContext.assertEquals(HTTP.NO_CONTENT, returned.statusCode());
+            return client.get(port, HOST, METRICS_PATH).send();
+        }).onSuccess(response -> {
+            final JsonObject metrics = response.bodyAsJsonObject();
+
+            aContext.assertEquals(0, metrics.getInteger(LeaseLedger.ACTIVE));
+            aContext.assertEquals(1L, metrics.getLong(LeaseLedger.RETURNED));
+            aContext.assertEquals(100L, metrics.getLong(LeaseLedger.LEASED_POSITIONS));
+            aContext.assertEquals(60L, metrics.getLong(LeaseLedger.UNUSED_POSITIONS));
+
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests leasing positions in a namespace that doesn't exist.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testLeasingUnknownNamespace(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final Async asyncTask = aContext.async();
+
+        lease(client, aContext, "unknown-namespace", "10").onSuccess(response -> {
+            aContext.assertEquals(HTTP.NOT_FOUND, response.statusCode());
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests returning a lease that doesn't exist.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testReturningUnknownLease(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final Async asyncTask = aContext.async();
+        final MultiMap form = MultiMap.caseInsensitiveMultiMap();
+        final int port = aContext.get(Config.HTTP_PORT);
+
+        form.set(Namespace.NAME, NAMESPACE).set(LeaseLedger.ID, "unknown-lease").set(LeaseLedger.USED, "0");
+
+        client.post(port, HOST, RETURN_PATH).sendForm(form).onSuccess(response -> {
+            aContext.assertEquals(HTTP.NOT_FOUND, response.statusCode());
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Leases a block of positions in the supplied namespace.
+     *
+     * @param aClient A Web client
+     * @param aContext A test context
+     * @param aNamespace A namespace
+     * @param aCount The number of positions to lease
+     * @return The response to the lease request
+     */
+    private Future<HttpResponse<Buffer>> lease(final WebClient aClient, final TestContext aContext,
+            final String aNamespace, final String aCount) {
+        final MultiMap form = MultiMap.caseInsensitiveMultiMap();
+        final int port = aContext.get(Config.HTTP_PORT);
+
+        form.set(Namespace.NAME, aNamespace).set(LeaseLedger.COUNT, aCount);
+
+        return aClient.post(port, HOST, PATH).sendForm(form);
+    }
+
+    @Override
+    protected Logger getLogger() {
+        return LOGGER;
+    }
+}
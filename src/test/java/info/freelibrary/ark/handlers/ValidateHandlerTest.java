@@ -0,0 +1,201 @@
+
+package info.freelibrary.ark.handlers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+import info.freelibrary.ark.AbstractTest;
+import info.freelibrary.ark.Config;
+import info.freelibrary.ark.ContentType;
+import info.freelibrary.ark.HTTP;
+import info.freelibrary.ark.MessageCodes;
+import info.freelibrary.ark.Namespace;
+import info.freelibrary.ark.NoidType;
+import info.freelibrary.ark.utils.ChecksumUtils;
+import info.freelibrary.ark.utils.NoidMinter;
+
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+import io.vertx.ext.web.client.HttpResponse;
+import io.vertx.ext.web.client.WebClient;
+
+/**
+ * A test of the validate handler.
+ */
+@RunWith(VertxUnitRunner.class)
+public class ValidateHandlerTest extends AbstractTest {
+
+    /**
+     * The logger for the test.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ValidateHandlerTest.class, MessageCodes.BUNDLE);
+
+    /**
+     * The endpoint for validating identifiers.
+     */
+    private static final String PATH = "/validate";
+
+    /**
+     * The parameter that limits the results to the identifiers that aren't valid.
+     */
+    private static final String FAILURES = "failures";
+
+    /**
+     * The identifier property of a result.
+     */
+    private static final String ID = "id";
+
+    /**
+     * The validity property of a result.
+     */
+    private static final String VALID = "valid";
+
+    /**
+     * A valid NOID.
+     */
+    private static final String NOID = ChecksumUtils.appendChecksum("f3e9f0rt9", NoidType.ALPHANUMERIC);
+
+    /**
+     * A NOID with two of its characters transposed.
+     */
+    private static final String TRANSPOSED_NOID = NOID.substring(0, 4) + NOID.charAt(5) + NOID.charAt(4) +
+            NOID.substring(6);
+
+    /**
+     * Tests validating NOIDs and ARKs, with a result for each one.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testValidate(final TestContext aContext) {
+        final String ids = NOID + "\r\n" + TRANSPOSED_NOID + "\n\nark:/12345/" + NOID + "/page.1\nark:12345/" +
+                TRANSPOSED_NOID;
+        final Async asyncTask = aContext.async();
+
+        validate(aContext, ids, false).onSuccess(response -> {
+            final String[] results = response.bodyAsString().split("\n");
+
+            aContext.assertEquals(HTTP.OK, response.statusCode());
+            aContext.assertEquals(ContentType.NDJSON, response.getHeader(HTTP.Response.CONTENT_TYPE));
+            aContext.assertEquals(4, results.length);
+            aContext.assertEquals(NOID, new JsonObject(results[0]).getString(ID));
+            aContext.assertTrue(new JsonObject(results[0]).getBoolean(VALID));
+            aContext.assertFalse(new JsonObject(results[1]).getBoolean(VALID));
+            aContext.assertEquals("ark:/12345/" + NOID + "/page.1", new JsonObject(results[2]).getString(ID));
+            aContext.assertTrue(new JsonObject(results[2]).getBoolean(VALID));
+            aContext.assertFalse(new JsonObject(results[3]).getBoolean(VALID));
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests validating enough NOIDs that they're validated in several chunks, with results for just the ones that
+     * aren't valid, which should come back in the order they were sent.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testValidateFailuresInChunks(final TestContext aContext) {
+        final NoidMinter minter = new NoidMinter("validate-test", NoidType.ALPHANUMERIC, "f3", 6, true);
+        final StringBuilder ids = new StringBuilder();
+        final List<String> failures = new ArrayList<>();
+        final Async asyncTask = aContext.async();
+
+        for (int index = 0; index < 50_000; index++) {
+            final String noid = minter.next();
+
+            // Changing a NOID's first character after its shoulder always breaks its checksum
+            if (index % 1000 == 999) {
+                final String failure = "f3" + (noid.charAt(2) == 'x' ? 'y' : 'x') + noid.substring(3);
+
+                failures.add(failure);
+                ids.append(failure).append('\n');
+            } else {
+                ids.append(noid).append('\n');
+            }
+        }
+
+        validate(aContext, ids.toString(), true).onSuccess(response -> {
+            final String[] results = response.bodyAsString().split("\n");
+
+            aContext.assertEquals(HTTP.OK, response.statusCode());
+            aContext.assertEquals(failures.size(), results.length);
+
+            for (int index = 0; index < results.length; index++) {
+                aContext.assertEquals(failures.get(index), new JsonObject(results[index]).getString(ID));
+                aContext.assertFalse(new JsonObject(results[index]).getBoolean(VALID));
+            }
+
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests validating identifiers without supplying their NOID type.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testValidateWithoutType(final TestContext aContext) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final Async asyncTask = aContext.async();
+        final int port = aContext.get(Config.HTTP_PORT);
+
+        client.post(port, HOST, PATH).sendBuffer(Buffer.buffer(NOID)).onSuccess(response -> {
+            aContext.assertEquals(HTTP.BAD_REQUEST, response.statusCode());
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Tests validating a line that's too long to be an identifier.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testValidateLineTooLong(final TestContext aContext) {
+        final StringBuilder line = new StringBuilder();
+        final Async asyncTask = aContext.async();
+
+        while (line.length() <= 64 * 1024) {
+            line.append(NOID);
+        }
+
+        validate(aContext, line.toString(), false).onSuccess(response -> {
+            aContext.assertEquals(HTTP.BAD_REQUEST, response.statusCode());
+            complete(asyncTask);
+        }).onFailure(aContext::fail);
+    }
+
+    /**
+     * Validates the supplied identifiers.
+     *
+     * @param aContext A test context
+     * @param aIDs Identifiers, one per line
+     * @param aFailuresOnly Whether only the results of the identifiers that aren't valid are wanted
+     * @return The response to the validation request
+     */
+    private Future<HttpResponse<Buffer>> validate(final TestContext aContext, final String aIDs,
+            final boolean aFailuresOnly) {
+        final WebClient client = WebClient.create(myTestContext.vertx());
+        final int port = aContext.get(Config.HTTP_PORT);
+
+        return client.post(port, HOST, PATH).addQueryParam(Namespace.NOID_TYPE, NoidType.ALPHANUMERIC.name())
+                .addQueryParam(FAILURES, Boolean.toString(aFailuresOnly)).sendBuffer(Buffer.buffer(aIDs));
+    }
+
+    @Override
+    protected Logger getLogger() {
+        return LOGGER;
+    }
+}
@@ -0,0 +1,71 @@
+
+package info.freelibrary.ark.utils;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.freelibrary.ark.HTTP;
+
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Tests of the background jobs.
+ */
+@RunWith(VertxUnitRunner.class)
+public class BackgroundJobsTest {
+
+    /**
+     * The test context, from which the Vert.x instance can be retrieved.
+     */
+    @Rule
+    public RunTestOnContext myTestContext = new RunTestOnContext();
+
+    /**
+     * Tests that a job's result is returned.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testJob(final TestContext aContext) {
+        final BackgroundJobs jobs = new BackgroundJobs(myTestContext.vertx(), 1, 1);
+
+        jobs.submit(() -> 42L).onComplete(aContext.asyncAssertSuccess(result -> {
+            aContext.assertEquals(42L, result);
+            aContext.assertEquals(0, jobs.getMetrics().getInteger(BackgroundJobs.PENDING));
+        }));
+    }
+
+    /**
+     * Tests that a job that's submitted while the queue is full is turned away with a 429 failure code.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testFullQueue(final TestContext aContext) {
+        final BackgroundJobs jobs = new BackgroundJobs(myTestContext.vertx(), 1, 1);
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Async asyncTask = aContext.async();
+
+        // The first job holds the only worker, and the second waits for it
+        jobs.submit(() -> {
+            latch.await();
+            return null;
+        });
+        jobs.submit(() -> null);
+
+        jobs.submit(() -> null).onComplete(aContext.asyncAssertFailure(details -> {
+            aContext.assertEquals(HTTP.TOO_MANY_REQUESTS, ((ReplyException) details).failureCode());
+            aContext.assertEquals(2, jobs.getMetrics().getInteger(BackgroundJobs.PENDING));
+
+            latch.countDown();
+            asyncTask.complete();
+        }));
+    }
+}
@@ -1,10 +1,14 @@
 
 package info.freelibrary.ark.utils;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 import org.junit.Test;
@@ -54,6 +58,98 @@ public class ChecksumUtilsTest {
         }
     }
 
+    /**
+     * Tests that characters outside a NOID type's alphabet, like those in some shoulders, are summed as they always
+     * have been, so checksums that have already been minted stay valid.
+     */
+    @Test
+    public void testGetChecksumOutsideAlphabet() {
+        assertEquals(Character.valueOf('3'), ChecksumUtils.getChecksum("b59485900", NoidType.NUMERIC));
+        assertEquals(Character.valueOf('7'), ChecksumUtils.getChecksum("\u00e99485900", NoidType.NUMERIC));
+        assertTrue(ChecksumUtils.validate("b594859003", NoidType.NUMERIC));
+    }
+
+    /**
+     * Tests appending checksums onto an array of NOIDs.
+     */
+    @Test
+    public void testAppendChecksums() {
+        final String[] bareNOIDs = new String[myTestData.size()];
+        final String[] noids = new String[myTestData.size()];
+
+        for (int index = 0; index < bareNOIDs.length; index++) {
+            bareNOIDs[index] = myTestData.get(index).myBareNOID;
+            noids[index] = ChecksumUtils.appendChecksum(bareNOIDs[index], NoidType.ALPHANUMERIC_ALL);
+        }
+
+        assertArrayEquals(noids, ChecksumUtils.appendChecksums(bareNOIDs, NoidType.ALPHANUMERIC_ALL));
+    }
+
+    /**
+     * Tests appending checksums onto a buffer of NOIDs, with a target that only has room for some of them.
+     */
+    @Test
+    public void testAppendChecksumsBuffer() {
+        final ByteBuffer source = toBuffer("e9f0rt9\r\n9485900\nawjdkjo");
+        final ByteBuffer target = ByteBuffer.allocate(18);
+
+        assertEquals(2, ChecksumUtils.appendChecksums(source, target, NoidType.ALPHANUMERIC));
+        assertEquals("e9f0rt99\n94859009\n", toString(target));
+
+        target.clear();
+
+        assertEquals(1, ChecksumUtils.appendChecksums(source, target, NoidType.ALPHANUMERIC));
+        assertEquals(ChecksumUtils.appendChecksum("awjdkjo", NoidType.ALPHANUMERIC) + "\n", toString(target));
+        assertEquals(source.limit(), source.position());
+    }
+
+    /**
+     * Tests finding the NOIDs in an array that don't have valid checksums.
+     */
+    @Test
+    public void testFindInvalid() {
+        final String[] noids = { "e9f0rt99", "e9f0rt98", "e9f0tr99", "94859009" };
+        final BitSet invalid = ChecksumUtils.findInvalid(noids, NoidType.ALPHANUMERIC);
+
+        assertEquals(2, invalid.cardinality());
+        assertTrue(invalid.get(1));
+        assertTrue(invalid.get(2));
+    }
+
+    /**
+     * Tests finding the NOIDs in a buffer that don't have valid checksums.
+     */
+    @Test
+    public void testFindInvalidBuffer() {
+        final ByteBuffer noids = toBuffer("e9f0rt99\ne9f0rt98\r\n94859009\r\ne9f0tr99\n");
+        final BitSet invalid = ChecksumUtils.findInvalid(noids, NoidType.ALPHANUMERIC);
+
+        assertEquals(2, invalid.cardinality());
+        assertTrue(invalid.get(1));
+        assertTrue(invalid.get(3));
+        assertEquals(noids.limit(), noids.position());
+    }
+
+    /**
+     * Encodes the supplied string in a buffer.
+     *
+     * @param aString A string
+     * @return A buffer holding the string's ASCII encoding
+     */
+    private static ByteBuffer toBuffer(final String aString) {
+        return ByteBuffer.wrap(aString.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Decodes what's been written to the supplied buffer.
+     *
+     * @param aBuffer A buffer
+     * @return The string that's been written to the buffer
+     */
+    private static String toString(final ByteBuffer aBuffer) {
+        return new String(aBuffer.array(), 0, aBuffer.position(), StandardCharsets.US_ASCII);
+    }
+
     /**
      * Data used for testing the checksum utilities.
      */
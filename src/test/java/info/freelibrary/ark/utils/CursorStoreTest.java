@@ -0,0 +1,159 @@
+
+package info.freelibrary.ark.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mapdb.DB;
+import org.mapdb.DBMaker;
+
+import io.vertx.core.Future;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Tests of the cursor store.
+ */
+@RunWith(VertxUnitRunner.class)
+public class CursorStoreTest {
+
+    /* A namespace used by the tests. */
+    private static final String NAMESPACE = "test";
+
+    /**
+     * The test context, from which the Vert.x instance can be retrieved.
+     */
+    @Rule
+    public RunTestOnContext myTestContext = new RunTestOnContext();
+
+    /* The database file used by a test. */
+    private File myDbFile;
+
+    /* The database used by a test. */
+    private DB myDb;
+
+    /**
+     * Sets up a database for the test.
+     *
+     * @throws IOException If the database's directory can't be created
+     */
+    @Before
+    public void setUp() throws IOException {
+        myDbFile = new File(Files.createTempDirectory("covenant-").toFile(), "cursors.db");
+        myDb = DBMaker.fileDB(myDbFile).transactionEnable().make();
+    }
+
+    /**
+     * Removes the test's database.
+     */
+    @After
+    public void tearDown() {
+        if (!myDb.isClosed()) {
+            myDb.close();
+        }
+
+        myDbFile.delete();
+        myDbFile.getParentFile().delete();
+    }
+
+    /**
+     * Tests that a group of advances is committed once it's full, and that the committed cursor survives the database
+     * being reopened.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testGroupCommit(final TestContext aContext) {
+        final CursorStore cursors = new CursorStore(myTestContext.vertx(), myDb, 60000, 3);
+        final Async asyncTask = aContext.async();
+        final Future<Void> first = cursors.advance(NAMESPACE, 1);
+        final Future<Void> second = cursors.advance(NAMESPACE, 2);
+
+        // Nothing is committed until the group is full
+        aContext.assertFalse(first.isComplete());
+        aContext.assertFalse(second.isComplete());
+
+        cursors.advance(NAMESPACE, 3).onComplete(aContext.asyncAssertSuccess(result -> {
+            aContext.assertTrue(first.succeeded());
+            aContext.assertTrue(second.succeeded());
+
+            myDb.close();
+            myDb = DBMaker.fileDB(myDbFile).transactionEnable().make();
+
+            aContext.assertEquals(3L, new CursorStore(myTestContext.vertx(), myDb, 0, 1).get(NAMESPACE));
+            asyncTask.complete();
+        }));
+    }
+
+    /**
+     * Tests that a group of advances is committed once its commit window closes.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testWindowCommit(final TestContext aContext) {
+        final CursorStore cursors = new CursorStore(myTestContext.vertx(), myDb, 10, 1000);
+        final Future<Void> first = cursors.advance(NAMESPACE, 1);
+
+        cursors.advance(NAMESPACE, 2).onComplete(aContext.asyncAssertSuccess(result -> {
+            aContext.assertTrue(first.succeeded());
+            aContext.assertEquals(2L, cursors.get(NAMESPACE));
+        }));
+    }
+
+    /**
+     * Tests that rolling back the store fails the advances that haven't been committed and restores their cursors.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testRollback(final TestContext aContext) {
+        final CursorStore cursors = new CursorStore(myTestContext.vertx(), myDb, 60000, 1000);
+
+        cursors.put(NAMESPACE, 5);
+        myDb.commit();
+
+        cursors.advance(NAMESPACE, 6).onComplete(aContext.asyncAssertFailure(details -> {
+            aContext.assertEquals(5L, cursors.get(NAMESPACE));
+        }));
+
+        cursors.rollback(new IllegalStateException());
+    }
+
+    /**
+     * Tests that stores sharing a database don't commit or roll back each other's advances.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testSharedDatabase(final TestContext aContext) {
+        final CursorStore first = new CursorStore(myTestContext.vertx(), myDb, 60000, 1000);
+        final CursorStore second = new CursorStore(myTestContext.vertx(), myDb, 60000, 1000);
+        final Future<Void> firstAdvance = first.advance(NAMESPACE, 7);
+
+        second.advance("other", 3).onComplete(aContext.asyncAssertFailure(details -> {
+            // The second store's rollback doesn't discard the first store's uncommitted advance
+            aContext.assertEquals(7L, first.get(NAMESPACE));
+            first.commit();
+            aContext.assertTrue(firstAdvance.succeeded());
+
+            myDb.close();
+            myDb = DBMaker.fileDB(myDbFile).transactionEnable().make();
+
+            final CursorStore reopened = new CursorStore(myTestContext.vertx(), myDb, 0, 1);
+
+            aContext.assertEquals(7L, reopened.get(NAMESPACE));
+            aContext.assertEquals(0L, reopened.get("other"));
+        }));
+
+        second.rollback(new IllegalStateException());
+    }
+}
@@ -0,0 +1,110 @@
+
+package info.freelibrary.ark.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.Test;
+
+/**
+ * Tests of the Feistel network based permutation.
+ */
+public class FeistelPermutationTest {
+
+    /* A key used by the tests. */
+    private static final long KEY = 8_675_309L;
+
+    /**
+     * Tests that the permutation maps every index position to a unique value in range, for a variety of sizes.
+     */
+    @Test
+    public void testPermuteIsBijective() {
+        for (final long size : new long[] { 1, 2, 3, 10, 1000, 4096, 4097, 42_875 }) {
+            final FeistelPermutation permutation = new FeistelPermutation(size, KEY);
+            final BitSet values = new BitSet((int) size);
+
+            for (long index = 0; index < size; index++) {
+                final long value = permutation.permute(index);
+
+                assertTrue(value >= 0 && value < size);
+                assertFalse(values.get((int) value));
+
+                values.set((int) value);
+            }
+
+            assertEquals(size, values.cardinality());
+        }
+    }
+
+    /**
+     * Tests that {@link FeistelPermutation#invert(long) invert} undoes {@link FeistelPermutation#permute(long)
+     * permute}.
+     */
+    @Test
+    public void testInvert() {
+        final FeistelPermutation permutation = new FeistelPermutation(52_521_875L, KEY);
+
+        for (long index = 0; index < permutation.size(); index += 104_729) {
+            assertEquals(index, permutation.invert(permutation.permute(index)));
+        }
+    }
+
+    /**
+     * Tests the permutation at the largest size a randomized minter allows.
+     */
+    @Test
+    public void testLargeSize() {
+        final long size = 1L << 62;
+        final FeistelPermutation permutation = new FeistelPermutation(size, KEY);
+
+        for (final long index : new long[] { 0, 1, size / 3, size - 2, size - 1 }) {
+            final long value = permutation.permute(index);
+
+            assertTrue(value >= 0 && value < size);
+            assertEquals(index, permutation.invert(value));
+        }
+    }
+
+    /**
+     * Tests that the key determines the permutation.
+     */
+    @Test
+    public void testKey() {
+        final FeistelPermutation permutation = new FeistelPermutation(1_000_000L, KEY);
+        final FeistelPermutation sameKey = new FeistelPermutation(1_000_000L, KEY);
+        final FeistelPermutation otherKey = new FeistelPermutation(1_000_000L, KEY + 1);
+
+        int differences = 0;
+
+        for (long index = 0; index < 100; index++) {
+            assertEquals(permutation.permute(index), sameKey.permute(index));
+
+            if (permutation.permute(index) != otherKey.permute(index)) {
+                differences++;
+            }
+        }
+
+        assertNotEquals(0, differences);
+        assertEquals(KEY, permutation.getKey());
+    }
+
+    /**
+     * Tests permuting an index position that's out of range.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testPermuteOutOfRange() {
+        new FeistelPermutation(100, KEY).permute(100);
+    }
+
+    /**
+     * Tests creating a permutation with a size that isn't positive.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSize() {
+        new FeistelPermutation(0, KEY);
+    }
+}
@@ -0,0 +1,87 @@
+
+package info.freelibrary.ark.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Tests of the lease ledger.
+ */
+@RunWith(VertxUnitRunner.class)
+public class LeaseLedgerTest {
+
+    /* A namespace used by the tests. */
+    private static final String NAMESPACE = "test";
+
+    /**
+     * The test context, from which the Vert.x instance can be retrieved.
+     */
+    @Rule
+    public RunTestOnContext myTestContext = new RunTestOnContext();
+
+    /**
+     * Tests that the positions a returned lease didn't use are counted as unused.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testReturningLease(final TestContext aContext) {
+        final LeaseLedger ledger = new LeaseLedger(myTestContext.vertx(), 60000);
+        final LeaseLedger.Lease lease = ledger.open(NAMESPACE, 10, 110);
+        final JsonObject metrics;
+
+        aContext.assertEquals(100L, lease.size());
+        aContext.assertEquals(1, ledger.getMetrics().getInteger(LeaseLedger.ACTIVE));
+        aContext.assertNotNull(ledger.close(lease.getID(), 75));
+
+        metrics = ledger.getMetrics();
+
+        aContext.assertEquals(0, metrics.getInteger(LeaseLedger.ACTIVE));
+        aContext.assertEquals(1L, metrics.getLong(LeaseLedger.RETURNED));
+        aContext.assertEquals(25L, metrics.getLong(LeaseLedger.UNUSED_POSITIONS));
+
+        // A lease can only be returned once
+        aContext.assertNull(ledger.close(lease.getID(), 75));
+    }
+
+    /**
+     * Tests that a lease can't be returned with more used positions than it has.
+     *
+     * @param aContext A test context
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testReturningOverusedLease(final TestContext aContext) {
+        final LeaseLedger ledger = new LeaseLedger(myTestContext.vertx(), 60000);
+        ledger.close(ledger.open(NAMESPACE, 0, 10).getID(), 11);
+    }
+
+    /**
+     * Tests that a lease that isn't returned expires with all its positions unused.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testExpiringLease(final TestContext aContext) {
+        final LeaseLedger ledger = new LeaseLedger(myTestContext.vertx(), 10);
+        final LeaseLedger.Lease lease = ledger.open(NAMESPACE, 0, 50);
+        final Async asyncTask = aContext.async();
+
+        myTestContext.vertx().setTimer(100, timerID -> {
+            final JsonObject metrics = ledger.getMetrics();
+
+            aContext.assertEquals(0, metrics.getInteger(LeaseLedger.ACTIVE));
+            aContext.assertEquals(1L, metrics.getLong(LeaseLedger.EXPIRED));
+            aContext.assertEquals(50L, metrics.getLong(LeaseLedger.UNUSED_POSITIONS));
+            aContext.assertNull(ledger.close(lease.getID(), 0));
+
+            asyncTask.complete();
+        });
+    }
+}
@@ -0,0 +1,126 @@
+
+package info.freelibrary.ark.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.freelibrary.ark.HTTP;
+
+import io.vertx.core.eventbus.DeliveryOptions;
+import io.vertx.core.eventbus.Message;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Tests of the minting lanes, against stand-ins for the lanes' minting verticles.
+ */
+@RunWith(VertxUnitRunner.class)
+public class MintingLanesTest {
+
+    /* A namespace used by the tests. */
+    private static final String NAMESPACE = "test";
+
+    /**
+     * The test context, from which the Vert.x instance can be retrieved.
+     */
+    @Rule
+    public RunTestOnContext myTestContext = new RunTestOnContext();
+
+    /**
+     * Tests that a namespace is always sent to the same lane, and that its lane answers.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testNamespaceLane(final TestContext aContext) {
+        final MintingLanes lanes = new MintingLanes(4, 10);
+        final int lane = lanes.getLane(NAMESPACE);
+
+        aContext.assertEquals(lane, lanes.getLane(NAMESPACE));
+        aContext.assertTrue(lane >= 0 && lane < lanes.size());
+
+        for (int index = 0; index < lanes.size(); index++) {
+            final int consumerLane = index;
+
+            myTestContext.vertx().eventBus().consumer(lanes.getAddress(index), message -> {
+                message.reply(consumerLane);
+            });
+        }
+
+        lanes.<Integer>request(myTestContext.vertx(), NAMESPACE, NAMESPACE, new DeliveryOptions())
+                .onComplete(aContext.asyncAssertSuccess(reply -> {
+                    aContext.assertEquals(lane, reply.body());
+                    aContext.assertEquals(0, lanes.getMetrics().getJsonArray(MintingLanes.QUEUED).getInteger(lane));
+                }));
+    }
+
+    /**
+     * Tests that a request to a lane whose queue is full is turned away with a 429 status code.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testFullQueue(final TestContext aContext) {
+        final MintingLanes lanes = new MintingLanes(1, 2);
+        final List<Message<Object>> held = new ArrayList<>();
+        final Async asyncTask = aContext.async();
+
+        // The stand-in lane holds on to its requests, so they stay in its queue
+        myTestContext.vertx().eventBus().consumer(lanes.getAddress(0), held::add);
+
+        lanes.request(myTestContext.vertx(), NAMESPACE, NAMESPACE, new DeliveryOptions());
+        lanes.request(myTestContext.vertx(), NAMESPACE, NAMESPACE, new DeliveryOptions());
+        lanes.request(myTestContext.vertx(), NAMESPACE, NAMESPACE, new DeliveryOptions()).onFailure(details -> {
+            final JsonObject metrics = lanes.getMetrics();
+
+            aContext.assertEquals(HTTP.TOO_MANY_REQUESTS, ((ReplyException) details).failureCode());
+            aContext.assertEquals(2, metrics.getJsonArray(MintingLanes.QUEUED).getInteger(0));
+            aContext.assertEquals(2, metrics.getInteger(MintingLanes.QUEUE_LIMIT));
+            asyncTask.complete();
+        });
+    }
+
+    /**
+     * Tests that a request can be sent to every lane.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testRequestAll(final TestContext aContext) {
+        final MintingLanes lanes = new MintingLanes(3, 10);
+
+        for (int index = 0; index < lanes.size(); index++) {
+            final int consumerLane = index;
+
+            myTestContext.vertx().eventBus().consumer(lanes.getAddress(index), message -> {
+                message.reply(consumerLane);
+            });
+        }
+
+        lanes.<Integer>requestAll(myTestContext.vertx(), NAMESPACE, new DeliveryOptions())
+                .onComplete(aContext.asyncAssertSuccess(replies -> {
+                    aContext.assertEquals(List.of(0, 1, 2), replies);
+                }));
+    }
+
+    /**
+     * Tests that a Vert.x instance without shared lanes gets a single lane.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testDefaultLanes(final TestContext aContext) {
+        final MintingLanes lanes = MintingLanes.get(myTestContext.vertx());
+
+        aContext.assertEquals(1, lanes.size());
+        aContext.assertEquals(lanes, MintingLanes.get(myTestContext.vertx()));
+    }
+}
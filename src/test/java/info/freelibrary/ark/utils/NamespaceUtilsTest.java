@@ -0,0 +1,114 @@
+
+package info.freelibrary.ark.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+import info.freelibrary.ark.Namespace;
+import info.freelibrary.ark.NoidType;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Tests of the namespace utilities.
+ */
+public class NamespaceUtilsTest {
+
+    /**
+     * Tests that a sequential minter can be recreated from its namespace's specification.
+     */
+    @Test
+    public void testSequentialRoundTrip() {
+        final NoidMinter minter = new NoidMinter(UUID.randomUUID().toString(), NoidType.ALPHA, "b5", 6, true);
+        final JsonObject spec = NamespaceUtils.toJson(minter);
+        final NoidMinter copy = NamespaceUtils.toMinter(new JsonObject(spec.encode()));
+
+        assertFalse(spec.getBoolean(Namespace.RANDOMIZED, false));
+        assertFalse(copy instanceof RandomizedNoidMinter);
+        assertEquals(minter.getNamespace(), copy.getNamespace());
+
+        // A copy that's moved to the original's cursor carries on where the original left off
+        minter.next(100);
+        copy.seek(minter.getIndex());
+
+        assertEquals(minter.next(10), copy.next(10));
+    }
+
+    /**
+     * Tests that a randomized minter can be recreated from its namespace's specification.
+     */
+    @Test
+    public void testRandomizedRoundTrip() throws Exception {
+        try (RandomizedNoidMinter minter =
+                new RandomizedNoidMinter(UUID.randomUUID().toString(), NoidType.ALPHANUMERIC, "f5", 5)) {
+            final JsonObject spec = NamespaceUtils.toJson(minter);
+            final NoidMinter copy = NamespaceUtils.toMinter(new JsonObject(spec.encode()));
+
+            assertTrue(spec.getBoolean(Namespace.RANDOMIZED));
+            assertTrue(copy instanceof RandomizedNoidMinter);
+
+            minter.next(100);
+            copy.seek(minter.getIndex());
+
+            assertEquals(minter.next(10), copy.next(10));
+        }
+    }
+
+    /**
+     * Tests that a minter of a pattern's NOIDs can be recreated from its namespace's specification.
+     */
+    @Test
+    public void testPatternRoundTrip() {
+        final NoidPattern pattern = new NoidPattern("[A-F]{2}\\d", NoidType.REGEX_PATTERN_ALL, 3);
+        final NoidMinter minter = new NoidMinter(UUID.randomUUID().toString(), pattern, "b5", false);
+        final JsonObject spec = NamespaceUtils.toJson(minter);
+        final NoidMinter copy = NamespaceUtils.toMinter(new JsonObject(spec.encode()));
+
+        assertEquals(pattern.getRegex(), spec.getString(Namespace.PATTERN));
+        assertEquals(minter.getSize(), copy.getSize());
+
+        minter.next(100);
+        copy.seek(minter.getIndex());
+
+        assertEquals(minter.next(10), copy.next(10));
+    }
+
+    /**
+     * Tests that a copy of a minter starts where the minter is and then mints independently of it.
+     */
+    @Test
+    public void testCopy() throws Exception {
+        final NoidPattern pattern = new NoidPattern("[A-F]{2}\\d", NoidType.REGEX_PATTERN_ALL, 3);
+
+        try (RandomizedNoidMinter minter =
+                new RandomizedNoidMinter(UUID.randomUUID().toString(), pattern, "b5", true)) {
+            final NoidMinter copy;
+
+            minter.next(100);
+            copy = NamespaceUtils.copy(minter);
+
+            assertTrue(copy instanceof RandomizedNoidMinter);
+            assertEquals(minter.getIndex(), copy.getIndex());
+            assertEquals(copy.next(10), minter.next(10));
+            assertEquals(copy.getIndex(), minter.getIndex());
+        }
+    }
+
+    /**
+     * Tests that a minter without a shoulder or checksums can be recreated from its namespace's specification.
+     */
+    @Test
+    public void testBareRoundTrip() {
+        final NoidMinter minter = new NoidMinter(UUID.randomUUID().toString(), NoidType.NUMERIC, 4);
+        final NoidMinter copy = NamespaceUtils.toMinter(NamespaceUtils.toJson(minter));
+
+        assertEquals(minter.getShoulder(), copy.getShoulder());
+        assertEquals(minter.hasChecksums(), copy.hasChecksums());
+        assertEquals(minter.next(), copy.next());
+    }
+}
@@ -0,0 +1,120 @@
+
+package info.freelibrary.ark.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.UUID;
+
+import org.junit.Test;
+
+import info.freelibrary.util.I18nRuntimeException;
+
+import info.freelibrary.ark.NoidType;
+
+import io.vertx.core.buffer.Buffer;
+
+/**
+ * Tests of the NOID minter message codec.
+ */
+public class NoidMinterCodecTest {
+
+    /**
+     * Tests that a sequential minter is decoded at the encoded minter's cursor.
+     */
+    @Test
+    public void testSequentialRoundTrip() {
+        final NoidMinterCodec<NoidMinter> codec = new NoidMinterCodec<>(NoidMinter.class);
+        final NoidMinter minter = new NoidMinter(UUID.randomUUID().toString(), NoidType.ALPHA, "b5", 6, true);
+        final Buffer buffer = Buffer.buffer().appendString("prefix");
+        final NoidMinter copy;
+
+        minter.next(100);
+        codec.encodeToWire(buffer, minter);
+        copy = codec.decodeFromWire("prefix".length(), buffer);
+
+        assertFalse(copy instanceof RandomizedNoidMinter);
+        assertEquals(minter.getNamespace(), copy.getNamespace());
+        assertEquals(minter.getShoulder(), copy.getShoulder());
+        assertEquals(minter.getIndex(), copy.getIndex());
+        assertEquals(minter.next(10), copy.next(10));
+    }
+
+    /**
+     * Tests that a randomized minter is decoded with the encoded minter's permutation and cursor.
+     */
+    @Test
+    public void testRandomizedRoundTrip() throws Exception {
+        final NoidMinterCodec<RandomizedNoidMinter> codec = new NoidMinterCodec<>(RandomizedNoidMinter.class);
+        final Buffer buffer = Buffer.buffer();
+
+        try (RandomizedNoidMinter minter =
+                new RandomizedNoidMinter(UUID.randomUUID().toString(), NoidType.ALPHANUMERIC, "f5", 5)) {
+            final NoidMinter copy;
+
+            minter.next(100);
+            codec.encodeToWire(buffer, minter);
+            copy = codec.decodeFromWire(0, buffer);
+
+            assertTrue(copy instanceof RandomizedNoidMinter);
+            assertEquals(minter.getIndex(), copy.getIndex());
+            assertEquals(minter.next(10), copy.next(10));
+        }
+    }
+
+    /**
+     * Tests that a randomized minter of a pattern's NOIDs is decoded with the encoded minter's pattern.
+     */
+    @Test
+    public void testPatternRoundTrip() throws Exception {
+        final NoidMinterCodec<RandomizedNoidMinter> codec = new NoidMinterCodec<>(RandomizedNoidMinter.class);
+        final NoidPattern pattern = new NoidPattern("[b-k]\\d{3}x", NoidType.REGEX_PATTERN, 5);
+        final Buffer buffer = Buffer.buffer();
+
+        try (RandomizedNoidMinter minter =
+                new RandomizedNoidMinter(UUID.randomUUID().toString(), pattern, "f5", true)) {
+            final NoidMinter copy;
+
+            minter.next(100);
+            codec.encodeToWire(buffer, minter);
+            copy = codec.decodeFromWire(0, buffer);
+
+            assertEquals(pattern.getRegex(), copy.getPattern().getRegex());
+            assertEquals(minter.getSize(), copy.getSize());
+            assertEquals(minter.next(10), copy.next(10));
+            assertEquals(pattern.rank("c123x"), copy.getPattern().rank("c123x"));
+        }
+    }
+
+    /**
+     * Tests that a minter without a shoulder or checksums is decoded without them.
+     */
+    @Test
+    public void testBareRoundTrip() {
+        final NoidMinterCodec<NoidMinter> codec = new NoidMinterCodec<>(NoidMinter.class);
+        final NoidMinter minter = new NoidMinter(UUID.randomUUID().toString(), NoidType.NUMERIC, 4);
+        final Buffer buffer = Buffer.buffer();
+        final NoidMinter copy;
+
+        codec.encodeToWire(buffer, minter);
+        copy = codec.decodeFromWire(0, buffer);
+
+        assertNull(copy.getShoulder());
+        assertFalse(copy.hasChecksums());
+        assertEquals(minter.next(), copy.next());
+    }
+
+    /**
+     * Tests that a minter encoded with an unknown version of the codec is rejected.
+     */
+    @Test(expected = I18nRuntimeException.class)
+    public void testUnsupportedVersion() {
+        final NoidMinterCodec<NoidMinter> codec = new NoidMinterCodec<>(NoidMinter.class);
+        final Buffer buffer = Buffer.buffer();
+
+        codec.encodeToWire(buffer, new NoidMinter(UUID.randomUUID().toString(), NoidType.NUMERIC, 4));
+        codec.decodeFromWire(0, Buffer.buffer().appendByte((byte) 99).appendBuffer(buffer.slice(1, buffer.length())));
+    }
+}
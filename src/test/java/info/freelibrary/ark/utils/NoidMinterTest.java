@@ -11,6 +11,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.util.UUID;
+import java.util.regex.Pattern;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -157,6 +158,173 @@ public class NoidMinterTest {
         assertTrue(minter.next().startsWith(TEST_SHOULDER));
     }
 
+    /**
+     * Tests that {@link NoidMinter#next() next} mints NOIDs in ascending order, carrying across every digit.
+     */
+    @Test
+    public final void testNextOrder() {
+        final NoidMinter minter = new NoidMinter(myNamespace, NoidType.NUMERIC, TEST_SHOULDER, 3);
+
+        for (int index = 0; index < 1000; index++) {
+            assertEquals(TEST_SHOULDER + String.format("%03d", index), minter.next());
+        }
+
+        assertFalse(minter.hasNext());
+    }
+
+    /**
+     * Tests that {@link NoidMinter#next() next} appends a valid checksum after the shoulder and NOID.
+     */
+    @Test
+    public final void testNextChecksum() {
+        final NoidMinter minter = new NoidMinter(myNamespace, NoidType.ALPHANUMERIC, TEST_SHOULDER, 2, true);
+
+        while (minter.hasNext()) {
+            final String noid = minter.next();
+
+            assertEquals(TEST_SHOULDER.length() + 3, noid.length());
+            assertEquals(ChecksumUtils.appendChecksum(noid.substring(0, noid.length() - 1), NoidType.ALPHANUMERIC),
+                    noid);
+        }
+    }
+
+    /**
+     * Tests that the checksums {@link NoidMinter#next() next} keeps up to date as it goes match those computed from
+     * scratch, with a shoulder that's outside the NOID type's alphabet and after seeking back and forth.
+     */
+    @Test
+    public final void testNextChecksumIncremental() {
+        final NoidMinter minter = new NoidMinter(myNamespace, NoidType.NUMERIC, "bc5", 3, true);
+
+        for (final long index : new long[] { 0, 987, 3, 999 }) {
+            minter.seek(index);
+
+            while (minter.hasNext() && minter.getIndex() < index + 20) {
+                final String noid = minter.next();
+                assertEquals(ChecksumUtils.appendChecksum(noid.substring(0, noid.length() - 1), NoidType.NUMERIC),
+                        noid);
+            }
+        }
+    }
+
+    /**
+     * Tests {@link NoidMinter#seek(long) seek}.
+     */
+    @Test
+    public final void testSeek() {
+        final NoidMinter minter = new NoidMinter(myNamespace, NoidType.ALPHANUMERIC, TEST_SHOULDER, 4, true);
+        final NoidMinter expected = new NoidMinter(myNamespace, NoidType.ALPHANUMERIC, TEST_SHOULDER, 4, true);
+
+        for (int index = 0; index < 1234; index++) {
+            expected.next();
+        }
+
+        minter.seek(1234);
+
+        assertEquals(expected.getIndex(), minter.getIndex());
+        assertEquals(expected.next(), minter.next());
+        assertEquals(expected.next(), minter.next());
+    }
+
+    /**
+     * Tests {@link NoidMinter#seek(long) seek} to the end of the minter's sequence.
+     */
+    @Test
+    public final void testSeekToEnd() {
+        final NoidMinter minter = new NoidMinter(myNamespace, NoidType.NUMERIC, 2);
+
+        minter.seek(99);
+        assertEquals("99", minter.next());
+        assertFalse(minter.hasNext());
+
+        minter.seek(100);
+        assertFalse(minter.hasNext());
+    }
+
+    /**
+     * Tests {@link NoidMinter#seek(long) seek} past the end of the minter's sequence.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testSeekOutOfRange() {
+        new NoidMinter(myNamespace, NoidType.NUMERIC, 2).seek(101);
+    }
+
+    /**
+     * Tests {@link NoidMinter#unrank(NoidType, int, long) unrank} and {@link NoidMinter#rank(NoidType, String) rank}.
+     */
+    @Test
+    public final void testUnrankAndRank() {
+        final long lastIndex = NoidType.ALPHANUMERIC_ALL.getNoidCount(10) - 1;
+
+        assertEquals("AAAA", NoidMinter.unrank(NoidType.ALPHA_ALL, 4, 0));
+        assertEquals("zzzzzzzzzz", NoidMinter.unrank(NoidType.ALPHANUMERIC_ALL, 10, lastIndex));
+        assertEquals(lastIndex, NoidMinter.rank(NoidType.ALPHANUMERIC_ALL, "zzzzzzzzzz"));
+        assertEquals(123_456L, NoidMinter.rank(NoidType.NUMERIC, NoidMinter.unrank(NoidType.NUMERIC, 8, 123_456L)));
+    }
+
+    /**
+     * Tests {@link NoidMinter#rank(String) rank} with NOIDs that have a shoulder and checksum.
+     */
+    @Test
+    public final void testRank() {
+        final NoidMinter minter = new NoidMinter(myNamespace, NoidType.ALPHA, TEST_SHOULDER, 3, true);
+
+        for (int index = 0; index < 100; index++) {
+            assertEquals(index, minter.rank(minter.next()));
+        }
+    }
+
+    /**
+     * Tests {@link NoidMinter#rank(String) rank} with a NOID that couldn't have been minted by the minter.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public final void testRankInvalid() {
+        new NoidMinter(myNamespace, NoidType.NUMERIC, TEST_SHOULDER, 3).rank("f312a");
+    }
+
+    /**
+     * Tests minting a pattern's NOIDs, which should be all the NOIDs that match it, in order, and nothing else.
+     */
+    @Test
+    public final void testNextPattern() {
+        final NoidPattern pattern = new NoidPattern("[b-d]\\d{2}x?", NoidType.REGEX_PATTERN, 4);
+        final NoidMinter minter = new NoidMinter(myNamespace, pattern, TEST_SHOULDER, true);
+        final Pattern regex = Pattern.compile(TEST_SHOULDER + pattern.getRegex() + ".");
+
+        String previous = "";
+        long count = 0;
+
+        assertEquals(300, minter.getSize());
+
+        while (minter.hasNext()) {
+            final String noid = minter.next();
+
+            assertTrue(noid, regex.matcher(noid).matches());
+            assertTrue(noid, ChecksumUtils.validate(noid, NoidType.REGEX_PATTERN));
+            assertTrue(noid.compareTo(previous) > 0);
+            assertEquals(count++, minter.rank(noid));
+            previous = noid;
+        }
+
+        assertEquals(minter.getSize(), count);
+    }
+
+    /**
+     * Tests {@link NoidMinter#seek(long) seek} with a pattern's NOIDs.
+     */
+    @Test
+    public final void testSeekPattern() {
+        final NoidPattern pattern = new NoidPattern("x{6}\\d[b-z]", NoidType.REGEX_PATTERN, 8);
+        final NoidMinter minter = new NoidMinter(myNamespace, pattern, null, false);
+
+        minter.seek(24);
+        assertEquals("xxxxxx1b", minter.next());
+
+        minter.seek(minter.getSize() - 1);
+        assertEquals("xxxxxx9z", minter.next());
+        assertFalse(minter.hasNext());
+    }
+
     /**
      * Tests {@link NoidMinter#remove() remove}.
      */
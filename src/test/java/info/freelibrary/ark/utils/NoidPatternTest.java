@@ -0,0 +1,155 @@
+
+package info.freelibrary.ark.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.junit.Test;
+
+import info.freelibrary.ark.NoidType;
+
+/**
+ * Tests of NOID patterns.
+ */
+public class NoidPatternTest {
+
+    /**
+     * Tests that a pattern counts, unranks, and ranks exactly the NOIDs that a regular expression matches.
+     */
+    @Test
+    public void testMatchesRegex() {
+        final String[] regexes = { "[a-f]\\d{2}", "(ab|b)*c?", ".*x.*", "^[^0-9]+[02468]$", "(?:\\d|z){1,2}b*",
+            "(a?){5}", "((0|1)(2|3))+4?" };
+
+        for (final String regex : regexes) {
+            final NoidPattern pattern = new NoidPattern(regex, NoidType.REGEX_PATTERN, 3);
+            final List<String> noids = getMatches(Pattern.compile(regex), NoidType.REGEX_PATTERN, 3);
+
+            assertEquals(regex, noids.size(), pattern.getCount());
+
+            for (int index = 0; index < noids.size(); index++) {
+                assertEquals(regex, noids.get(index), pattern.unrank(index));
+                assertEquals(regex, index, pattern.rank(noids.get(index)));
+            }
+        }
+    }
+
+    /**
+     * Tests a pattern that matches a tiny fraction of a large space of NOIDs.
+     */
+    @Test
+    public void testSparsePattern() {
+        final NoidPattern pattern = new NoidPattern("Q{12}[A-C]7", NoidType.REGEX_PATTERN_ALL, 14);
+
+        assertEquals(3, pattern.getCount());
+        assertEquals("QQQQQQQQQQQQB7", pattern.unrank(1));
+        assertEquals(2, pattern.rank("QQQQQQQQQQQQC7"));
+    }
+
+    /**
+     * Tests that a pattern whose NOIDs are too many to count still unranks the ones that can be indexed.
+     */
+    @Test
+    public void testUncountablePattern() {
+        final NoidPattern pattern = new NoidPattern(".{20}", NoidType.REGEX_PATTERN_ALL, 20);
+        final long lastIndex = Long.MAX_VALUE - 1;
+
+        assertEquals(Long.MAX_VALUE, pattern.getCount());
+        assertEquals(NoidMinter.unrank(NoidType.REGEX_PATTERN_ALL, 20, lastIndex), pattern.unrank(lastIndex));
+        assertEquals(lastIndex, pattern.rank(pattern.unrank(lastIndex)));
+    }
+
+    /**
+     * Tests ranking NOIDs that the pattern doesn't match.
+     */
+    @Test
+    public void testRankNoMatch() {
+        final NoidPattern pattern = new NoidPattern("[b-d]\\d", NoidType.REGEX_PATTERN, 2);
+
+        assertEquals(-1, pattern.rank("f1"));
+        assertEquals(-1, pattern.rank("b1x"));
+        assertEquals(-1, pattern.rank("B1"));
+    }
+
+    /**
+     * Tests unranking an index past the end of the pattern's NOIDs.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testUnrankOutOfRange() {
+        new NoidPattern("[b-d]\\d", NoidType.REGEX_PATTERN, 2).unrank(30);
+    }
+
+    /**
+     * Tests compiling a malformed pattern.
+     */
+    @Test(expected = PatternSyntaxException.class)
+    public void testMalformedPattern() {
+        new NoidPattern("(b|c", NoidType.REGEX_PATTERN, 2);
+    }
+
+    /**
+     * Tests compiling a pattern with syntax that isn't supported.
+     */
+    @Test(expected = PatternSyntaxException.class)
+    public void testUnsupportedPattern() {
+        new NoidPattern("\\w{2}", NoidType.REGEX_PATTERN, 2);
+    }
+
+    /**
+     * Tests compiling a pattern that doesn't match any NOIDs of the requested length.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPatternWithoutMatches() {
+        new NoidPattern("l\\d", NoidType.REGEX_PATTERN, 2);
+    }
+
+    /**
+     * Tests compiling a pattern for a NOID type that isn't a pattern type.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPatternWithoutPatternType() {
+        new NoidPattern("\\d+", NoidType.NUMERIC, 2);
+    }
+
+    /**
+     * Tests compiling a pattern whose DFA would have too many states.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPatternTooComplex() {
+        new NoidPattern("(a|b)*a(a|b){20}", NoidType.REGEX_PATTERN, 30);
+    }
+
+    /**
+     * Tests compiling a pattern for a NOID length that's out of range.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testPatternWithBadLength() {
+        new NoidPattern("\\d+", NoidType.REGEX_PATTERN, -1);
+    }
+
+    /**
+     * Gets all the NOIDs of a type and length that a regular expression matches, in order, by checking each of them.
+     *
+     * @param aRegex A regular expression
+     * @param aNoidType A NOID type
+     * @param aNoidLength A NOID length
+     * @return The NOIDs the regular expression matches
+     */
+    private static List<String> getMatches(final Pattern aRegex, final NoidType aNoidType, final int aNoidLength) {
+        final List<String> noids = new ArrayList<>();
+
+        for (long index = 0; index < aNoidType.getNoidCount(aNoidLength); index++) {
+            final String noid = NoidMinter.unrank(aNoidType, aNoidLength, index);
+
+            if (aRegex.matcher(noid).matches()) {
+                noids.add(noid);
+            }
+        }
+
+        return noids;
+    }
+}
@@ -0,0 +1,142 @@
+
+package info.freelibrary.ark.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import info.freelibrary.ark.HTTP;
+import info.freelibrary.ark.Op;
+import info.freelibrary.ark.verticles.NamespaceMintingVerticle;
+
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonArray;
+import io.vertx.ext.unit.Async;
+import io.vertx.ext.unit.TestContext;
+import io.vertx.ext.unit.junit.RunTestOnContext;
+import io.vertx.ext.unit.junit.VertxUnitRunner;
+
+/**
+ * Tests of the NOID reservoir, against a stand-in for the minting verticle that mints counted NOIDs.
+ */
+@RunWith(VertxUnitRunner.class)
+public class NoidReservoirTest {
+
+    /* A namespace used by the tests. */
+    private static final String NAMESPACE = "test";
+
+    /* A namespace that the stand-in minting verticle doesn't know. */
+    private static final String UNKNOWN_NAMESPACE = "unknown";
+
+    /**
+     * The test context, from which the Vert.x instance can be retrieved.
+     */
+    @Rule
+    public RunTestOnContext myTestContext = new RunTestOnContext();
+
+    /* The number of requests the stand-in minting verticle has received. */
+    private final AtomicInteger myRequestCount = new AtomicInteger();
+
+    /* The number of NOIDs the stand-in minting verticle has minted. */
+    private final AtomicInteger myNoidCount = new AtomicInteger();
+
+    /**
+     * Registers a stand-in for the minting verticle.
+     */
+    @Before
+    public void setUp() {
+        final String address = MintingLanes.get(myTestContext.vertx()).getAddress(0);
+
+        myTestContext.vertx().eventBus().<String>consumer(address, message -> {
+            final int count = Integer.parseInt(message.headers().get(NamespaceMintingVerticle.COUNT));
+            final JsonArray noids = new JsonArray();
+
+            myRequestCount.incrementAndGet();
+
+            if (UNKNOWN_NAMESPACE.equals(message.body())) {
+                message.fail(HTTP.NOT_FOUND, UNKNOWN_NAMESPACE);
+            } else {
+                for (int index = 0; index < count; index++) {
+                    noids.add(Integer.toString(myNoidCount.getAndIncrement()));
+                }
+
+                message.reply(noids);
+            }
+        });
+    }
+
+    /**
+     * Tests that NOIDs are leased once to fill the reservoir, then issued from it without another request until it
+     * drops below its low-water mark.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testIssuingFromReservoir(final TestContext aContext) {
+        final NoidReservoir reservoir = new NoidReservoir(myTestContext.vertx(), Op.MINT_NOID, 10, 2);
+        final Async asyncTask = aContext.async();
+
+        reservoir.next(NAMESPACE).compose(first -> {
+            aContext.assertEquals("0", first);
+            aContext.assertEquals(1, myRequestCount.get());
+            aContext.assertEquals(10, reservoir.size(NAMESPACE));
+
+            // The reservoir's NOIDs are issued without a round trip to the minting verticle
+            for (int index = 1; index <= 8; index++) {
+                final Future<String> next = reservoir.next(NAMESPACE);
+
+                aContext.assertTrue(next.succeeded());
+                aContext.assertEquals(Integer.toString(index), next.result());
+            }
+
+            aContext.assertEquals(1, myRequestCount.get());
+
+            // Dropping below the low-water mark requests a refill
+            return reservoir.next(NAMESPACE);
+        }).onComplete(aContext.asyncAssertSuccess(ninth -> {
+            aContext.assertEquals("9", ninth);
+
+            myTestContext.vertx().setTimer(100, timerId -> {
+                aContext.assertEquals(2, myRequestCount.get());
+                aContext.assertEquals(10, reservoir.size(NAMESPACE));
+                asyncTask.complete();
+            });
+        }));
+    }
+
+    /**
+     * Tests that requests which arrive while the reservoir is empty share a single refill.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testWaitingForRefill(final TestContext aContext) {
+        final NoidReservoir reservoir = new NoidReservoir(myTestContext.vertx(), Op.MINT_NOID, 0, 0);
+        final Future<String> first = reservoir.next(NAMESPACE);
+        final Future<String> second = reservoir.next(NAMESPACE);
+
+        Future.all(first, second).onComplete(aContext.asyncAssertSuccess(result -> {
+            aContext.assertEquals("0", first.result());
+            aContext.assertEquals("1", second.result());
+            aContext.assertEquals(0, reservoir.size(NAMESPACE));
+        }));
+    }
+
+    /**
+     * Tests that a failure to lease NOIDs is passed on to the waiting requests.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testFailedRefill(final TestContext aContext) {
+        final NoidReservoir reservoir = new NoidReservoir(myTestContext.vertx(), Op.MINT_NOID, 10, 2);
+
+        reservoir.next(UNKNOWN_NAMESPACE).onComplete(aContext.asyncAssertFailure(failure -> {
+            aContext.assertEquals(0, reservoir.size(UNKNOWN_NAMESPACE));
+            aContext.assertNull(reservoir.getHeaders(UNKNOWN_NAMESPACE));
+        }));
+    }
+}
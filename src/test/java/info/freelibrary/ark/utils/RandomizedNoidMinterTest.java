@@ -7,12 +7,12 @@ package info.freelibrary.ark.utils;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
-import java.io.File;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
-import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -32,9 +32,6 @@ public class RandomizedNoidMinterTest {
     /* The logger used by these tests. */
     private static final Logger LOGGER = LoggerFactory.getLogger(RandomizedNoidMinterTest.class, MessageCodes.BUNDLE);
 
-    /* The location of the JVM's temporary directory. */
-    private static final File TMP_DIR = new File(System.getProperty("java.io.tmpdir"));
-
     /* A convenient hook into the test that's running. */
     @Rule
     public TestName myTestName = new TestName();
@@ -52,19 +49,6 @@ public class RandomizedNoidMinterTest {
         myNamespace = UUID.randomUUID().toString();
     }
 
-    /**
-     * Clean up after tests.
-     */
-    @AfterClass
-    public static void tearDown() {
-        final File alphanumericFive = new File(TMP_DIR, NoidType.ALPHANUMERIC.toString() + "-5.naf");
-
-        // Clean this up after all this class' tests
-        if (alphanumericFive.exists()) {
-            assertTrue(alphanumericFive.delete());
-        }
-    }
-
     /**
      * Test method for {@link RandomizedNoidMinter#next()}.
      */
@@ -136,6 +120,100 @@ public class RandomizedNoidMinterTest {
         }
     }
 
+    /**
+     * Test that a randomized minter mints every possible NOID exactly once.
+     */
+    @Test
+    public void testMintsEveryNoidOnce() throws Exception {
+        LOGGER.debug(MessageCodes.ARK_027, myTestName.getMethodName());
+
+        try (RandomizedNoidMinter minter = new RandomizedNoidMinter(myNamespace, NoidType.NUMERIC, 4, false)) {
+            final Set<String> noids = new HashSet<>();
+
+            while (minter.hasNext()) {
+                assertTrue(noids.add(minter.next()));
+            }
+
+            assertEquals(minter.getSize(), noids.size());
+        }
+    }
+
+    /**
+     * Test method for {@link RandomizedNoidMinter#seek(long)} and {@link RandomizedNoidMinter#rank(String)}.
+     */
+    @Test
+    public void testSeekAndRank() throws Exception {
+        LOGGER.debug(MessageCodes.ARK_027, myTestName.getMethodName());
+
+        try (RandomizedNoidMinter minter = new RandomizedNoidMinter(myNamespace, NoidType.ALPHANUMERIC, "f5", 5)) {
+            final FeistelPermutation permutation = (FeistelPermutation) minter.getPermutation();
+            final List<String> noids = minter.next(10);
+
+            try (RandomizedNoidMinter copy = new RandomizedNoidMinter(myNamespace, NoidType.ALPHANUMERIC, "f5", 5, true,
+                    new FeistelPermutation(permutation.size(), permutation.getKey()))) {
+                copy.seek(7);
+
+                assertEquals(noids.get(7), copy.next());
+                assertEquals(8, copy.getIndex());
+            }
+
+            for (int index = 0; index < noids.size(); index++) {
+                assertEquals(index, minter.rank(noids.get(index)));
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link RandomizedNoidMinter#next(int)} with a batch larger than the NOIDs that are left.
+     */
+    @Test
+    public void testNextIntRemaining() throws Exception {
+        LOGGER.debug(MessageCodes.ARK_027, myTestName.getMethodName());
+
+        try (RandomizedNoidMinter minter =
+                new RandomizedNoidMinter(myNamespace, NoidType.ALPHANUMERIC, "f7", 4, true)) {
+            final FeistelPermutation permutation = (FeistelPermutation) minter.getPermutation();
+
+            try (RandomizedNoidMinter copy = new RandomizedNoidMinter(myNamespace, NoidType.ALPHANUMERIC, "f7", 4, true,
+                    new FeistelPermutation(permutation.size(), permutation.getKey()))) {
+                assertEquals(copy.next(1000), minter.next(1000));
+
+                // A batch larger than what's left only returns what's left
+                minter.seek(minter.getSize() - 3);
+                assertEquals(3, minter.next(10).size());
+                assertEquals(0, minter.next(10).size());
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link RandomizedNoidMinter#nextAsync(int)}.
+     */
+    @Test
+    public void testNextAsync() throws Exception {
+        LOGGER.debug(MessageCodes.ARK_027, myTestName.getMethodName());
+
+        try (RandomizedNoidMinter minter =
+                new RandomizedNoidMinter(myNamespace, NoidType.ALPHANUMERIC, "f7", 4, true)) {
+            final FeistelPermutation permutation = (FeistelPermutation) minter.getPermutation();
+
+            try (RandomizedNoidMinter copy = new RandomizedNoidMinter(myNamespace, NoidType.ALPHANUMERIC, "f7", 4, true,
+                    new FeistelPermutation(permutation.size(), permutation.getKey()))) {
+                final List<String> batch = minter.nextAsync(1000).toCompletionStage().toCompletableFuture().get();
+
+                // The minter has already moved past the batch
+                assertEquals(1000, minter.getIndex());
+                assertEquals(copy.next(1000), batch);
+                assertEquals(copy.next(), minter.nextAsync().toCompletionStage().toCompletableFuture().get());
+
+                // Once the minter runs out, a single NOID fails and a batch is empty
+                minter.seek(minter.getSize());
+                assertTrue(minter.nextAsync().failed());
+                assertEquals(0, minter.nextAsync(10).toCompletionStage().toCompletableFuture().get().size());
+            }
+        }
+    }
+
     /**
      * Test method for {@link RandomizedNoidMinter#toString()}.
      */
@@ -144,13 +222,13 @@ public class RandomizedNoidMinterTest {
         LOGGER.debug(MessageCodes.ARK_027, myTestName.getMethodName());
 
         try (RandomizedNoidMinter minter = new RandomizedNoidMinter(myNamespace, NoidType.ALPHANUMERIC, "f7", 5)) {
-            assertTrue(minter.toString().matches(
-                    RandomizedNoidMinter.class.getSimpleName() + "=\\[#[0-9]+, " + TMP_DIR + "/ALPHANUMERIC-5.naf\\]"));
+            assertTrue(minter.toString()
+                    .matches(RandomizedNoidMinter.class.getSimpleName() + "=\\[#[0-9]+, ALPHANUMERIC-5\\]"));
         }
     }
 
     /**
-     * Test method for {@link RandomizedNoidMinter#getNafNOID()}.
+     * Test method for {@link RandomizedNoidMinter#getNOID(long)}.
      */
     @Test
     public void testGetNOID() throws Exception {
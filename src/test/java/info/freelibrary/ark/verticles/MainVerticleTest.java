@@ -13,7 +13,9 @@ import info.freelibrary.ark.Constants;
 import info.freelibrary.ark.HTTP;
 import info.freelibrary.ark.MessageCodes;
 
+import io.vertx.core.ThreadingModel;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
 import io.vertx.ext.unit.Async;
 import io.vertx.ext.unit.TestContext;
 import io.vertx.ext.unit.junit.VertxUnitRunner;
@@ -54,6 +56,32 @@ public class MainVerticleTest extends AbstractTest {
         });
     }
 
+    /**
+     * Tests the threading model that's used for blocking verticles, like the minting lanes.
+     *
+     * @param aContext A test context
+     */
+    @Test
+    public void testBlockingThreadingModel(final TestContext aContext) {
+        final ThreadingModel virtual = Runtime.version().feature() >= 21 ? ThreadingModel.VIRTUAL_THREAD
+                : ThreadingModel.WORKER;
+
+        aContext.assertEquals(ThreadingModel.WORKER, MainVerticle.getBlockingThreadingModel(new JsonObject()));
+        aContext.assertEquals(virtual, MainVerticle.getBlockingThreadingModel(getConfig("virtual_thread")));
+        aContext.assertEquals(ThreadingModel.WORKER, MainVerticle.getBlockingThreadingModel(getConfig("event_loop")));
+        aContext.assertEquals(ThreadingModel.WORKER, MainVerticle.getBlockingThreadingModel(getConfig("unknown")));
+    }
+
+    /**
+     * Gets a configuration with the supplied threading model for blocking verticles.
+     *
+     * @param aThreadingModel A threading model
+     * @return A configuration
+     */
+    private JsonObject getConfig(final String aThreadingModel) {
+        return new JsonObject().put(Config.BLOCKING_THREADING_MODEL, aThreadingModel);
+    }
+
     @Override
     protected Logger getLogger() {
         return LOGGER;